@@ -1,6 +1,9 @@
 package com.library;
 
 import com.library.gui.LoginScreen;
+import com.library.repository.StorageEngine;
+import com.library.singleton.TypeaheadIndex;
+import com.library.util.LibraryService;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -30,6 +33,9 @@ public class LibraryApplication extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
+        // Load the typeahead index while the user logs in
+        TypeaheadIndex.getInstance().buildInBackground(new LibraryService());
+        
         // Initialize and show login screen
         LoginScreen loginScreen = new LoginScreen(primaryStage);
         loginScreen.show();
@@ -40,8 +46,10 @@ public class LibraryApplication extends Application {
      */
     @Override
     public void stop() {
-        // Close database connection and logger
-        com.library.singleton.DatabaseConnectionManager.getInstance().closeConnection();
+        StorageEngine storage = LibraryService.getDefaultStorageEngine();
+        com.library.singleton.Logger.getInstance().logInfo("Closing storage: " + storage.getStatistics());
+        // Close storage (database connection) and logger
+        storage.close();
         com.library.singleton.Logger.getInstance().close();
     }
 }
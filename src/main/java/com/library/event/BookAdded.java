@@ -0,0 +1,34 @@
+package com.library.event;
+
+import com.library.model.Book;
+
+/**
+ * BookAdded class demonstrating Inheritance.
+ *
+ * Purpose: Published after a book was added to the catalog, by addBook or
+ * a batch insert.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class BookAdded extends LibraryEvent {
+    private final Book book;
+
+    /**
+     * @param book Book as it was stored; must not be changed afterwards
+     */
+    public BookAdded(Book book) {
+        this.book = book;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    @Override
+    public String getKey() {
+        return "book:" + book.getIsbn();
+    }
+}
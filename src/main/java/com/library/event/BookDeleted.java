@@ -0,0 +1,31 @@
+package com.library.event;
+
+/**
+ * BookDeleted class demonstrating Inheritance.
+ *
+ * Purpose: Published after a book was removed from the catalog.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class BookDeleted extends LibraryEvent {
+    private final String isbn;
+
+    /**
+     * @param isbn ISBN of the deleted book
+     */
+    public BookDeleted(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    @Override
+    public String getKey() {
+        return "book:" + isbn;
+    }
+}
@@ -0,0 +1,33 @@
+package com.library.event;
+
+import com.library.model.Book;
+
+/**
+ * BookUpdated class demonstrating Inheritance.
+ *
+ * Purpose: Published after a book's details were changed.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class BookUpdated extends LibraryEvent {
+    private final Book book;
+
+    /**
+     * @param book Book as it was stored; must not be changed afterwards
+     */
+    public BookUpdated(Book book) {
+        this.book = book;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    @Override
+    public String getKey() {
+        return "book:" + book.getIsbn();
+    }
+}
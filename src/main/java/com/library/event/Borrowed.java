@@ -0,0 +1,41 @@
+package com.library.event;
+
+import com.library.model.BorrowRecord;
+
+/**
+ * Borrowed class demonstrating Inheritance.
+ *
+ * Purpose: Published after a book was lent; the book is no longer available.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class Borrowed extends LibraryEvent {
+    private final BorrowRecord record;
+
+    /**
+     * @param record The new open borrow record; must not be changed afterwards
+     */
+    public Borrowed(BorrowRecord record) {
+        this.record = record;
+    }
+
+    public BorrowRecord getRecord() {
+        return record;
+    }
+
+    public String getUserId() {
+        return record.getUserId();
+    }
+
+    public String getBookIsbn() {
+        return record.getBookIsbn();
+    }
+
+    @Override
+    public String getKey() {
+        return "loan:" + record.getBookIsbn();
+    }
+}
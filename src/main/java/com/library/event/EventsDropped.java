@@ -0,0 +1,33 @@
+package com.library.event;
+
+/**
+ * EventsDropped class demonstrating Inheritance.
+ *
+ * Purpose: Delivered instead of the buffered events when a subscriber fell
+ * so far behind that its buffer overflowed. The subscriber should re-read
+ * whatever it keeps, as any change may have been missed.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class EventsDropped extends LibraryEvent {
+    private final long count;
+
+    /**
+     * @param count Number of events that were not delivered
+     */
+    public EventsDropped(long count) {
+        this.count = count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String getKey() {
+        return "dropped";
+    }
+}
@@ -0,0 +1,44 @@
+package com.library.event;
+
+/**
+ * Abstract LibraryEvent class demonstrating Abstraction and Inheritance.
+ *
+ * Purpose: Base class of the change events LibraryService publishes on the
+ * EventBus once a change has been committed. Subscribers use them to update
+ * caches and views without re-reading whole tables.
+ *
+ * Events with the same key describe the same thing, e.g. one book; when a
+ * subscriber falls behind, a newer event replaces an older one with the same
+ * key in its buffer, so it only sees the latest state.
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Defines what every event offers
+ * - Inheritance: Base class for the event types
+ * - Encapsulation: Private final fields with public getters
+ *
+ * Design Pattern: None (published through the Singleton EventBus)
+ */
+public abstract class LibraryEvent {
+    private final long timeMillis;
+
+    protected LibraryEvent() {
+        this.timeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @return When the event was created, in milliseconds since the epoch
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return Key of what changed; a newer event with the same key supersedes this one
+     */
+    public abstract String getKey();
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + getKey() + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.event;
+
+import java.time.LocalDate;
+
+/**
+ * Returned class demonstrating Inheritance.
+ *
+ * Purpose: Published after a book was returned; the book is available again.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class Returned extends LibraryEvent {
+    private final String userId;
+    private final String bookIsbn;
+    private final LocalDate returnDate;
+
+    /**
+     * @param userId User who returned the book
+     * @param bookIsbn ISBN of the returned book
+     * @param returnDate Date stored on the closed borrow record
+     */
+    public Returned(String userId, String bookIsbn, LocalDate returnDate) {
+        this.userId = userId;
+        this.bookIsbn = bookIsbn;
+        this.returnDate = returnDate;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getBookIsbn() {
+        return bookIsbn;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    @Override
+    public String getKey() {
+        return "loan:" + bookIsbn;
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.event;
+
+import com.library.model.User;
+
+/**
+ * UserChanged class demonstrating Inheritance.
+ *
+ * Purpose: Published after a user was added, updated or deleted.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends LibraryEvent
+ *
+ * Design Pattern: None
+ */
+public class UserChanged extends LibraryEvent {
+    private final String userId;
+    private final User user;
+
+    /**
+     * @param userId ID of the changed user
+     * @param user User as it was stored, or null if it was deleted; must not be changed afterwards
+     */
+    public UserChanged(String userId, User user) {
+        this.userId = userId;
+        this.user = user;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return The user as stored, or null if the user was deleted
+     */
+    public User getUser() {
+        return user;
+    }
+
+    public boolean isDeleted() {
+        return user == null;
+    }
+
+    @Override
+    public String getKey() {
+        return "user:" + userId;
+    }
+}
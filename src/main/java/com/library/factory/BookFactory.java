@@ -29,7 +29,9 @@ public class BookFactory {
     public static final String AI = "AI";
     
     /**
-     * Factory method: Creates a book based on category
+     * Factory method: Creates a book based on category.
+     * Accepts the short category codes as well as the display names returned
+     * by getCategory(), which is what the database stores.
      * @param category Type of book to create
      * @param isbn Unique identifier
      * @param title Book title
@@ -42,6 +44,7 @@ public class BookFactory {
         switch (category.toLowerCase()) {
             case "softwareengineering":
             case "software_engineering":
+            case "software engineering":
             case "se":
                 return new SoftwareEngineeringBook(isbn, title, author, year);
                 
@@ -52,6 +55,7 @@ public class BookFactory {
             case "ai":
             case "artificial_intelligence":
             case "artificialintelligence":
+            case "artificial intelligence":
                 return new AIBook(isbn, title, author, year);
                 
             default:
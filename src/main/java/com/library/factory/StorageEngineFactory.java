@@ -0,0 +1,53 @@
+package com.library.factory;
+
+import com.library.repository.InMemoryStorageEngine;
+import com.library.repository.SqliteStorageEngine;
+import com.library.repository.StorageEngine;
+import com.library.singleton.DatabaseConnectionManager;
+
+/**
+ * StorageEngineFactory class implementing Factory Pattern.
+ *
+ * Purpose: Creates the storage engine LibraryService works against, so the
+ * application can run on the SQLite database or entirely in memory.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Hides how each engine is wired up
+ * - Polymorphism: Returns abstract StorageEngine type
+ *
+ * Design Pattern: Factory Pattern
+ */
+public class StorageEngineFactory {
+
+    // Storage types
+    public static final String SQLITE = "sqlite";
+    public static final String MEMORY = "memory";
+
+    /**
+     * Factory method: Creates the engine selected by the library.storage
+     * system property, SQLite unless it says otherwise
+     * @return StorageEngine object
+     */
+    public static StorageEngine createStorageEngine() {
+        return createStorageEngine(System.getProperty("library.storage", SQLITE));
+    }
+
+    /**
+     * Factory method: Creates a storage engine by type
+     * @param type sqlite for the database of DatabaseConnectionManager, memory for an empty in-memory store
+     * @return StorageEngine object (polymorphic return type)
+     */
+    public static StorageEngine createStorageEngine(String type) {
+        switch (type.toLowerCase()) {
+            case SQLITE:
+                return new SqliteStorageEngine(DatabaseConnectionManager.getInstance());
+
+            case MEMORY:
+            case "in-memory":
+                return new InMemoryStorageEngine();
+
+            default:
+                throw new IllegalArgumentException("Unknown storage type: " + type);
+        }
+    }
+}
@@ -27,7 +27,9 @@ public class UserFactory {
     public static final String REGULAR_USER = "RegularUser";
     
     /**
-     * Factory method: Creates a user based on role
+     * Factory method: Creates a user based on role.
+     * Accepts the role codes as well as the display names returned by getRole(),
+     * which is what the database stores.
      * @param role Type of user to create (Admin or RegularUser)
      * @param userId Unique identifier
      * @param username Username for login
@@ -44,6 +46,7 @@ public class UserFactory {
                 
             case "regularuser":
             case "regular_user":
+            case "regular user":
             case "user":
                 return new RegularUser(userId, username, password, email);
                 
@@ -0,0 +1,131 @@
+package com.library.gui;
+
+import com.library.singleton.Logger;
+import com.library.util.AsyncLibraryService;
+import com.library.util.LibraryService;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressIndicator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * BackgroundTasks class for keeping service calls off the JavaFX application thread.
+ *
+ * Purpose: Each screen runs its LibraryService calls through one instance.
+ * A call runs on the worker pool of a shared AsyncLibraryService and its
+ * result is handed back to the screen with Platform.runLater, so the window
+ * keeps repainting however long SQLite takes. While any call of the screen
+ * is in flight its progress indicator spins and the controls registered
+ * with disableWhileRunning() are disabled. Fetches of table pages only spin
+ * the indicator, so scrolling never disables the buttons.
+ *
+ * All methods must be called on the JavaFX application thread.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Worker pool and busy state are private
+ *
+ * Design Pattern: None
+ */
+class BackgroundTasks {
+    // Shared by all screens; its daemon workers end with the application
+    private static AsyncLibraryService async;
+
+    private final ProgressIndicator indicator = new ProgressIndicator();
+    private final List<Node> controls = new ArrayList<>();
+    private final Logger logger = Logger.getInstance();
+    private int running;
+    private int fetching;
+
+    BackgroundTasks() {
+        indicator.setPrefSize(24, 24);
+        indicator.setVisible(false);
+    }
+
+    /**
+     * @return Indicator to place on the screen; visible while a call is in flight
+     */
+    ProgressIndicator getIndicator() {
+        return indicator;
+    }
+
+    /**
+     * Disable controls while any call of this screen is in flight
+     * @param nodes Buttons and fields that start calls
+     */
+    void disableWhileRunning(Node... nodes) {
+        for (Node node : nodes) {
+            controls.add(node);
+            node.setDisable(running > 0);
+        }
+    }
+
+    /**
+     * Run a service call in the background. If it throws, an error dialog is
+     * shown instead of calling onSuccess.
+     * @param work Call to run on a worker thread; must not touch the UI
+     * @param onSuccess Receives the result on the JavaFX application thread
+     */
+    <T> void run(Function<LibraryService, T> work, Consumer<T> onSuccess) {
+        setRunning(running + 1);
+        service().call(work).whenComplete((result, error) -> Platform.runLater(() -> {
+            setRunning(running - 1);
+            if (error == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            logger.logError("Background task failed: " + cause);
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText(null);
+            alert.setContentText("The operation failed: " + cause.getMessage());
+            alert.show();
+        }));
+    }
+
+    /**
+     * Run a read in the background without disabling any controls. If it
+     * throws, the error is only logged and onFailure is called.
+     * @param work Call to run on a worker thread; must not touch the UI
+     * @param onSuccess Receives the result on the JavaFX application thread
+     * @param onFailure Called on the JavaFX application thread if the call failed
+     */
+    <T> void fetch(Function<LibraryService, T> work, Consumer<T> onSuccess, Runnable onFailure) {
+        fetching++;
+        indicator.setVisible(true);
+        service().call(work).whenComplete((result, error) -> Platform.runLater(() -> {
+            fetching--;
+            indicator.setVisible(running + fetching > 0);
+            if (error == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            logger.logError("Background fetch failed: " + cause);
+            onFailure.run();
+        }));
+    }
+
+    private void setRunning(int count) {
+        running = count;
+        indicator.setVisible(count + fetching > 0);
+        for (Node node : controls) {
+            node.setDisable(count > 0);
+        }
+    }
+
+    private static synchronized AsyncLibraryService service() {
+        if (async == null) {
+            async = new AsyncLibraryService();
+        }
+        return async;
+    }
+}
@@ -1,12 +1,19 @@
 package com.library.gui;
 
+import com.library.event.Borrowed;
+import com.library.event.EventsDropped;
+import com.library.event.LibraryEvent;
+import com.library.event.Returned;
+import com.library.event.UserChanged;
 import com.library.model.Book;
 import com.library.model.BorrowRecord;
 import com.library.model.User;
+import com.library.singleton.TypeaheadIndex;
 import com.library.util.LibraryService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -15,11 +22,17 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * BorrowReturnScreen class for borrowing and returning books.
  * 
- * Purpose: Provides interface for borrowing and returning books.
+ * Purpose: Provides interface for borrowing and returning books. The books
+ * on the shelf are paged in from the database as the table is scrolled;
+ * search results and the user's own records are plain lists. Both tables
+ * are refreshed when a change event concerns them, so loans made at another
+ * desk in the process show up too.
  * 
  * OOP Concepts Used:
  * - Encapsulation: Private fields and methods
@@ -27,18 +40,33 @@ import java.time.LocalDate;
  * Design Pattern: None
  */
 public class BorrowReturnScreen {
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private static final int SUGGESTION_LIMIT = 10;
+    /** Row shown while its page of the shelf is loading */
+    private static final Book LOADING =
+            com.library.factory.BookFactory.createSoftwareEngineeringBook("", "Loading...", "", 0);
+    
     private Stage stage;
     private User currentUser;
-    private LibraryService libraryService;
+    private BackgroundTasks tasks;
+    private PagedObservableList<Book> shelf;
     private ObservableList<Book> availableBooks;
     private ObservableList<BorrowRecord> userBorrowRecords;
     private TableView<Book> bookTable;
     private TableView<BorrowRecord> recordTable;
+    private String searchQuery = "";
+    // Only the newest load of each table may fill it; an older one can finish later
+    private int booksGeneration;
+    private int recordsGeneration;
     
     public BorrowReturnScreen(Stage stage, User currentUser) {
         this.stage = stage;
         this.currentUser = currentUser;
-        this.libraryService = new LibraryService();
+        this.tasks = new BackgroundTasks();
+        this.shelf = new PagedObservableList<>(tasks, LibraryService::countAvailableBooks,
+                (service, sortColumn, cursor, pageSize) -> service.getAvailableBooksPage(cursor, pageSize),
+                (service, sortColumn, from, rows) -> service.getAvailableBooksCursor(from, rows),
+                Book::getIsbn, BorrowReturnScreen::sameBook, "isbn", LOADING);
         this.availableBooks = FXCollections.observableArrayList();
         this.userBorrowRecords = FXCollections.observableArrayList();
     }
@@ -67,13 +95,63 @@ public class BorrowReturnScreen {
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
         categoryCol.setPrefWidth(150);
         
+        // The shelf can only be read in ISBN order
+        shelf.sortOn(isbnCol, "isbn");
+        
         bookTable = new TableView<>();
-        bookTable.setItems(availableBooks);
         bookTable.getColumns().add(isbnCol);
         bookTable.getColumns().add(titleCol);
         bookTable.getColumns().add(authorCol);
         bookTable.getColumns().add(categoryCol);
         bookTable.setPrefHeight(200);
+        shelf.attach(bookTable);
+        
+        // Search box; an empty search shows all available books
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search title or author");
+        searchField.setPrefWidth(300);
+        searchField.setOnAction(e -> {
+            searchQuery = searchField.getText().trim();
+            refreshTables();
+        });
+        
+        Button searchButton = new Button("Search");
+        searchButton.setOnAction(e -> {
+            searchQuery = searchField.getText().trim();
+            refreshTables();
+        });
+        
+        Button clearSearchButton = new Button("Clear");
+        clearSearchButton.setOnAction(e -> {
+            searchField.clear();
+            searchQuery = "";
+            refreshTables();
+        });
+        
+        // Suggestions as the user types, answered from the in-memory index
+        ContextMenu suggestionMenu = new ContextMenu();
+        searchField.textProperty().addListener((observable, oldText, newText) -> {
+            TypeaheadIndex index = TypeaheadIndex.getInstance();
+            if (!searchField.isFocused() || !index.isActive() || newText.trim().isEmpty()) {
+                suggestionMenu.hide();
+                return;
+            }
+            suggestionMenu.getItems().clear();
+            for (TypeaheadIndex.Suggestion suggestion : index.suggest(newText, SUGGESTION_LIMIT)) {
+                MenuItem item = new MenuItem(suggestion.toString());
+                item.setOnAction(e -> showSuggestedBook(suggestion.getIsbn()));
+                suggestionMenu.getItems().add(item);
+            }
+            if (suggestionMenu.getItems().isEmpty()) {
+                suggestionMenu.hide();
+            } else if (!suggestionMenu.isShowing()) {
+                suggestionMenu.show(searchField, Side.BOTTOM, 0, 0);
+            }
+        });
+        
+        HBox searchBox = new HBox(10);
+        searchBox.getChildren().addAll(new Label("Search:"), searchField, searchButton, clearSearchButton,
+                tasks.getIndicator());
         
         // Borrow button
         Button borrowButton = new Button("Borrow Selected Book");
@@ -83,18 +161,23 @@ public class BorrowReturnScreen {
                 showAlert("Error", "Please select a book to borrow");
                 return;
             }
+            if (shelf.isPlaceholder(selected)) {
+                showAlert("Error", "The selected book is still loading");
+                return;
+            }
             
             if (!selected.isAvailable()) {
                 showAlert("Error", "This book is not available");
                 return;
             }
             
-            if (libraryService.borrowBook(currentUser.getUserId(), selected.getIsbn())) {
-                refreshTables();
-                showAlert("Success", "Book borrowed successfully");
-            } else {
-                showAlert("Error", "Failed to borrow book. Book might not be available.");
-            }
+            tasks.run(service -> service.borrowBook(currentUser.getUserId(), selected.getIsbn()), borrowed -> {
+                if (borrowed) {
+                    showAlert("Success", "Book borrowed successfully");
+                } else {
+                    showAlert("Error", "Failed to borrow book. Book might not be available.");
+                }
+            });
         });
         
         // My Borrowed Books Table
@@ -144,21 +227,25 @@ public class BorrowReturnScreen {
                 return;
             }
             
-            if (libraryService.returnBook(currentUser.getUserId(), selected.getBookIsbn())) {
-                refreshTables();
-                showAlert("Success", "Book returned successfully");
-            } else {
-                showAlert("Error", "Failed to return book");
-            }
+            tasks.run(service -> service.returnBook(currentUser.getUserId(), selected.getBookIsbn()), returned -> {
+                if (returned) {
+                    showAlert("Success", "Book returned successfully");
+                } else {
+                    showAlert("Error", "Failed to return book");
+                }
+            });
         });
+        tasks.disableWhileRunning(searchButton, clearSearchButton, borrowButton, returnButton);
         
         Button backButton = new Button("Back to Menu");
-        backButton.setOnAction(e -> new MainMenuScreen(stage, currentUser).show());
+        backButton.setOnAction(e -> {
+            new MainMenuScreen(stage, currentUser).show();
+        });
         
         // Layout
         VBox availableBooksBox = new VBox(10);
         availableBooksBox.setPadding(new Insets(10));
-        availableBooksBox.getChildren().addAll(availableBooksLabel, bookTable, borrowButton);
+        availableBooksBox.getChildren().addAll(availableBooksLabel, searchBox, bookTable, borrowButton);
         
         VBox myBooksBox = new VBox(10);
         myBooksBox.setPadding(new Insets(10));
@@ -177,24 +264,127 @@ public class BorrowReturnScreen {
         stage.setScene(scene);
         stage.show();
         
+        ScreenSubscription.open(stage, "Borrow/return screen", this::onChanges);
         refreshTables();
     }
     
+    /**
+     * Refresh the tables a batch of change events concerns
+     */
+    private void onChanges(List<LibraryEvent> events) {
+        boolean books = false;
+        boolean records = false;
+        for (LibraryEvent event : events) {
+            if (event instanceof EventsDropped) {
+                books = true;
+                records = true;
+            } else if (event instanceof Borrowed) {
+                books = true;
+                records |= ((Borrowed) event).getUserId().equals(currentUser.getUserId());
+            } else if (event instanceof Returned) {
+                books = true;
+                records |= ((Returned) event).getUserId().equals(currentUser.getUserId());
+            } else if (!(event instanceof UserChanged)) {
+                books = true;
+            }
+        }
+        if (books) {
+            refreshBooks();
+        }
+        if (records) {
+            refreshRecords();
+        }
+    }
+    
     /**
      * Refresh both tables
      */
     private void refreshTables() {
-        // Refresh available books
-        availableBooks.clear();
-        libraryService.getAllBooks().stream()
-            .filter(Book::isAvailable)
-            .forEach(availableBooks::add);
-        
-        // Refresh user's borrow records
-        userBorrowRecords.clear();
-        libraryService.getAllBorrowRecords().stream()
-            .filter(record -> record.getUserId().equals(currentUser.getUserId()))
-            .forEach(userBorrowRecords::add);
+        refreshBooks();
+        refreshRecords();
+    }
+    
+    /**
+     * Refresh available books, narrowed to the current search if there is one
+     */
+    private void refreshBooks() {
+        String query = searchQuery;
+        int books = ++booksGeneration;
+        if (query.isEmpty()) {
+            if (bookTable.getItems() != shelf) {
+                shelf.attach(bookTable);
+            }
+            shelf.refresh();
+        } else {
+            tasks.run(service -> service.searchBooks(query, SEARCH_RESULT_LIMIT, true), result -> {
+                if (books == booksGeneration) {
+                    showSearchResults();
+                    KeyedListPatcher.patch(availableBooks, result, Book::getIsbn, BorrowReturnScreen::sameBook);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Refresh the user's borrow records
+     */
+    private void refreshRecords() {
+        int records = ++recordsGeneration;
+        tasks.run(service -> service.getBorrowRecordsByUser(currentUser.getUserId()), result -> {
+            if (records == recordsGeneration) {
+                KeyedListPatcher.patch(userBorrowRecords, result, BorrowRecord::getRecordId,
+                        BorrowReturnScreen::sameRecord);
+            }
+        });
+    }
+    
+    /**
+     * Show only the suggested book in the available books table
+     */
+    private void showSuggestedBook(String isbn) {
+        // Counts as a load of the table, so a slower refresh still running cannot replace it
+        int books = ++booksGeneration;
+        tasks.run(service -> service.getBookByIsbn(isbn), book -> {
+            if (books != booksGeneration) {
+                return;
+            }
+            if (book == null) {
+                showAlert("Error", "Book not found");
+            } else if (!book.isAvailable()) {
+                showAlert("Error", "This book is not available");
+            } else {
+                showSearchResults();
+                availableBooks.setAll(book);
+                bookTable.getSelectionModel().select(book);
+            }
+        });
+    }
+    
+    /**
+     * Show the search results list instead of the whole shelf
+     */
+    private void showSearchResults() {
+        if (bookTable.getItems() != availableBooks) {
+            shelf.detach(bookTable, availableBooks);
+        }
+    }
+    
+    /**
+     * Check whether two versions of a book show the same in the table
+     */
+    private static boolean sameBook(Book shown, Book loaded) {
+        return Objects.equals(shown.getTitle(), loaded.getTitle())
+                && Objects.equals(shown.getAuthor(), loaded.getAuthor())
+                && Objects.equals(shown.getCategory(), loaded.getCategory())
+                && shown.isAvailable() == loaded.isAvailable();
+    }
+    
+    /**
+     * Check whether two versions of a borrow record show the same in the table
+     */
+    private static boolean sameRecord(BorrowRecord shown, BorrowRecord loaded) {
+        return Objects.equals(shown.getReturnDate(), loaded.getReturnDate())
+                && shown.isReturned() == loaded.isReturned();
     }
     
     /**
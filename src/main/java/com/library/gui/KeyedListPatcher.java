@@ -0,0 +1,218 @@
+package com.library.gui;
+
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * KeyedListPatcher class for refreshing a table without rebuilding it.
+ *
+ * Purpose: Brings an ObservableList in line with freshly loaded rows by
+ * applying only the differences. Rows are matched by key: rows whose key
+ * is gone are removed, new keys are inserted at their position, and rows
+ * whose content changed are replaced in place. Rows that did not change
+ * are left alone, so the TableView keeps their cells, the selection and
+ * the scroll position, and editing one book in a large table fires one
+ * replace instead of a full reload.
+ *
+ * Both lists are walked side by side, which finds a few inserted or removed
+ * rows without hashing; only when rows were reordered are the rest matched
+ * through a map of keys. When most of the list changed, e.g. after a new
+ * search, patching row by row would cost more than it saves, so the list is
+ * replaced with setAll().
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Works for any row type through a key function
+ *
+ * Design Pattern: None (static utility)
+ */
+final class KeyedListPatcher {
+    // Below this many rows a full replace is cheap anyway
+    private static final int MIN_PATCH_SIZE = 64;
+    // A patch may change at most 1 in this many rows before setAll() is used instead
+    private static final int MAX_CHANGE_FRACTION = 4;
+    // How far ahead the walk looks for a row before matching the rest by key
+    private static final int LOOKAHEAD = 16;
+
+    private KeyedListPatcher() {
+    }
+
+    /**
+     * Update a list to hold the fresh rows, in their order
+     * @param target List shown by a table; must be changed on the JavaFX application thread
+     * @param fresh Newly loaded rows
+     * @param keyOf Key identifying a row, e.g. the ISBN
+     * @param unchanged Tells whether a shown row and its fresh version look the same
+     * @return Rows inserted, removed, replaced or moved; fresh.size() if the list was replaced
+     */
+    static <T, K> int patch(ObservableList<T> target, List<? extends T> fresh,
+                            Function<? super T, ? extends K> keyOf, BiPredicate<? super T, ? super T> unchanged) {
+        int limit = Math.max(MIN_PATCH_SIZE, fresh.size() / MAX_CHANGE_FRACTION);
+        int changes = 0;
+
+        // Walk both lists; a few rows inserted or removed are found by looking a
+        // short way ahead, so the usual edit costs one pass and no hashing.
+        // target[0, i) always matches fresh[0, i).
+        int i = 0;
+        while (i < fresh.size()) {
+            if (changes > limit) {
+                return replace(target, fresh);
+            }
+            if (i < target.size() && sameKey(target.get(i), fresh.get(i), keyOf)) {
+                changes += replaceIfChanged(target, i, fresh.get(i), unchanged);
+                i++;
+                continue;
+            }
+            if (i >= target.size()) {
+                target.addAll(fresh.subList(i, fresh.size()));
+                return changes + fresh.size() - i;
+            }
+            int removed = distanceAhead(target, i, keyOf.apply(fresh.get(i)), keyOf);
+            if (removed > 0) {
+                target.remove(i, i + removed);
+                changes += removed;
+                continue;
+            }
+            int inserted = distanceAhead(fresh, i, keyOf.apply(target.get(i)), keyOf);
+            if (inserted > 0) {
+                target.addAll(i, fresh.subList(i, i + inserted));
+                changes += inserted;
+                i += inserted;
+                continue;
+            }
+            return patchByKey(target, fresh, i, keyOf, unchanged, limit, changes);
+        }
+        if (target.size() > fresh.size()) {
+            changes += target.size() - fresh.size();
+            target.remove(fresh.size(), target.size());
+        }
+        return changes;
+    }
+
+    /**
+     * Match the rest of the lists by key, from where the walk got lost
+     */
+    private static <T, K> int patchByKey(ObservableList<T> target, List<? extends T> fresh, int start,
+                                         Function<? super T, ? extends K> keyOf,
+                                         BiPredicate<? super T, ? super T> unchanged, int limit, int changes) {
+        // Rows that match at the end need no matching by key
+        int targetEnd = target.size();
+        int freshEnd = fresh.size();
+        while (targetEnd > start && freshEnd > start
+                && sameKey(target.get(targetEnd - 1), fresh.get(freshEnd - 1), keyOf)) {
+            targetEnd--;
+            freshEnd--;
+        }
+
+        Map<K, Integer> freshIndex = new HashMap<>();
+        for (int i = start; i < freshEnd; i++) {
+            if (freshIndex.put(keyOf.apply(fresh.get(i)), i) != null) {
+                // Keys are not unique, so rows cannot be matched
+                return replace(target, fresh);
+            }
+        }
+
+        // Rows to remove: keys that are gone, and repeats of a key
+        Set<K> kept = new HashSet<>();
+        List<Integer> removals = new ArrayList<>();
+        for (int i = start; i < targetEnd; i++) {
+            K key = keyOf.apply(target.get(i));
+            if (!freshIndex.containsKey(key) || !kept.add(key)) {
+                removals.add(i);
+            }
+        }
+        int insertions = (freshEnd - start) - kept.size();
+        changes += removals.size();
+        if (changes + insertions > limit) {
+            return replace(target, fresh);
+        }
+
+        // Replace changed rows at the end while their indexes still hold
+        int shift = freshEnd - targetEnd;
+        for (int i = fresh.size() - 1; i >= freshEnd; i--) {
+            changes += replaceIfChanged(target, i - shift, fresh.get(i), unchanged);
+        }
+
+        // Remove from the end, one contiguous range at a time, so indexes stay valid
+        for (int end = removals.size(); end > 0; ) {
+            int first = end - 1;
+            while (first > 0 && removals.get(first - 1) == removals.get(first) - 1) {
+                first--;
+            }
+            target.remove(removals.get(first), removals.get(end - 1) + 1);
+            end = first;
+        }
+
+        // Every key left in the middle is in fresh; walk fresh and make target[i] match it
+        int middleEnd = targetEnd - removals.size();
+        for (int i = start; i < freshEnd; i++) {
+            T row = fresh.get(i);
+            K key = keyOf.apply(row);
+            if (i < middleEnd && key.equals(keyOf.apply(target.get(i)))) {
+                changes += replaceIfChanged(target, i, row, unchanged);
+                continue;
+            }
+            if (kept.contains(key)) {
+                // The row moved up from further down the list
+                if (changes >= limit) {
+                    return replace(target, fresh);
+                }
+                target.remove(indexOf(target, key, keyOf, i + 1, middleEnd));
+                middleEnd--;
+            }
+            target.add(i, row);
+            middleEnd++;
+            changes++;
+        }
+        return changes;
+    }
+
+    /**
+     * @return How many rows after list[from] the key is found, or -1 if not within LOOKAHEAD rows
+     */
+    private static <T, K> int distanceAhead(List<? extends T> list, int from, K key,
+                                            Function<? super T, ? extends K> keyOf) {
+        int end = Math.min(list.size(), from + LOOKAHEAD + 1);
+        for (int i = from + 1; i < end; i++) {
+            if (key.equals(keyOf.apply(list.get(i)))) {
+                return i - from;
+            }
+        }
+        return -1;
+    }
+
+    private static <T, K> boolean sameKey(T a, T b, Function<? super T, ? extends K> keyOf) {
+        return keyOf.apply(a).equals(keyOf.apply(b));
+    }
+
+    private static <T> int replaceIfChanged(ObservableList<T> target, int index, T row,
+                                            BiPredicate<? super T, ? super T> unchanged) {
+        if (unchanged.test(target.get(index), row)) {
+            return 0;
+        }
+        target.set(index, row);
+        return 1;
+    }
+
+    private static <T, K> int indexOf(List<T> list, K key, Function<? super T, ? extends K> keyOf,
+                                      int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (key.equals(keyOf.apply(list.get(i)))) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Row " + key + " not found");
+    }
+
+    private static <T> int replace(ObservableList<T> target, List<? extends T> fresh) {
+        target.setAll(fresh);
+        return fresh.size();
+    }
+}
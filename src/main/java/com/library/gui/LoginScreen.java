@@ -1,13 +1,13 @@
 package com.library.gui;
 
 import com.library.model.User;
-import com.library.util.LibraryService;
 import com.library.singleton.Logger;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
@@ -23,13 +23,13 @@ import javafx.stage.Stage;
  */
 public class LoginScreen {
     private Stage stage;
-    private LibraryService libraryService;
+    private BackgroundTasks tasks;
     private Logger logger;
     private User currentUser;
     
     public LoginScreen(Stage stage) {
         this.stage = stage;
-        this.libraryService = new LibraryService();
+        this.tasks = new BackgroundTasks();
         this.logger = Logger.getInstance();
     }
     
@@ -65,21 +65,23 @@ public class LoginScreen {
                 return;
             }
             
-            User user = libraryService.getUserByUsername(username);
-            if (user != null && user.getPassword().equals(password)) {
-                currentUser = user;
-                logger.logInfo("User logged in: " + username);
-                messageLabel.setText("Login successful!");
-                messageLabel.setStyle("-fx-text-fill: green;");
-                
-                // Navigate to main menu after successful login
-                new MainMenuScreen(stage, currentUser).show();
-            } else {
-                messageLabel.setText("Invalid username or password");
-                messageLabel.setStyle("-fx-text-fill: red;");
-                logger.logWarning("Failed login attempt: " + username);
-            }
+            tasks.run(service -> service.getUserByUsername(username), user -> {
+                if (user != null && user.getPassword().equals(password)) {
+                    currentUser = user;
+                    logger.logInfo("User logged in: " + username);
+                    messageLabel.setText("Login successful!");
+                    messageLabel.setStyle("-fx-text-fill: green;");
+                    
+                    // Navigate to main menu after successful login
+                    new MainMenuScreen(stage, currentUser).show();
+                } else {
+                    messageLabel.setText("Invalid username or password");
+                    messageLabel.setStyle("-fx-text-fill: red;");
+                    logger.logWarning("Failed login attempt: " + username);
+                }
+            });
         });
+        tasks.disableWhileRunning(usernameField, passwordField, loginButton);
         
         // Layout
         GridPane grid = new GridPane();
@@ -92,7 +94,9 @@ public class LoginScreen {
         grid.add(usernameField, 1, 0);
         grid.add(passwordLabel, 0, 1);
         grid.add(passwordField, 1, 1);
-        grid.add(loginButton, 1, 2);
+        HBox loginBox = new HBox(10);
+        loginBox.getChildren().addAll(loginButton, tasks.getIndicator());
+        grid.add(loginBox, 1, 2);
         grid.add(messageLabel, 0, 3, 2, 1);
         
         VBox root = new VBox(20);
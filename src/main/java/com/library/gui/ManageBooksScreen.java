@@ -1,5 +1,6 @@
 package com.library.gui;
 
+import com.library.event.UserChanged;
 import com.library.model.Book;
 import com.library.model.User;
 import com.library.util.LibraryService;
@@ -13,10 +14,16 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.util.Objects;
+
 /**
  * ManageBooksScreen class for book management.
  * 
  * Purpose: Provides interface for adding, updating, deleting, and viewing books.
+ * The catalog is paged in from the database as it is scrolled and sorted there,
+ * so the screen opens at once however many books there are; search results
+ * are a plain list. The table is refreshed whenever a book changes, also
+ * when the change was made in another window or by a tool in the process.
  * 
  * OOP Concepts Used:
  * - Encapsulation: Private fields and methods
@@ -24,16 +31,28 @@ import javafx.stage.Stage;
  * Design Pattern: None
  */
 public class ManageBooksScreen {
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    
+    /** Row shown while its page of the catalog is loading */
+    private static final Book LOADING =
+            com.library.factory.BookFactory.createSoftwareEngineeringBook("", "Loading...", "", 0);
+
     private Stage stage;
     private User currentUser;
-    private LibraryService libraryService;
+    private BackgroundTasks tasks;
+    private PagedObservableList<Book> catalog;
     private ObservableList<Book> books;
     private TableView<Book> bookTable;
+    private String searchQuery = "";
+    // Only the newest refresh may fill the table; an older one can finish later
+    private int refreshGeneration;
     
     public ManageBooksScreen(Stage stage, User currentUser) {
         this.stage = stage;
         this.currentUser = currentUser;
-        this.libraryService = new LibraryService();
+        this.tasks = new BackgroundTasks();
+        this.catalog = new PagedObservableList<>(tasks, LibraryService::countBooks, LibraryService::getBooksPage,
+                LibraryService::getBooksCursor, Book::getIsbn, ManageBooksScreen::sameBook, "isbn", LOADING);
         this.books = FXCollections.observableArrayList();
     }
     
@@ -66,9 +85,13 @@ public class ManageBooksScreen {
         availableCol.setCellValueFactory(new PropertyValueFactory<>("available"));
         availableCol.setPrefWidth(100);
         
+        catalog.sortOn(isbnCol, "isbn");
+        catalog.sortOn(titleCol, "title");
+        catalog.sortOn(authorCol, "author");
+        catalog.sortOn(yearCol, "year");
+        
         // Create table
         bookTable = new TableView<>();
-        bookTable.setItems(books);
         bookTable.getColumns().add(isbnCol);
         bookTable.getColumns().add(titleCol);
         bookTable.getColumns().add(authorCol);
@@ -76,6 +99,33 @@ public class ManageBooksScreen {
         bookTable.getColumns().add(categoryCol);
         bookTable.getColumns().add(availableCol);
         bookTable.setPrefHeight(400);
+        catalog.attach(bookTable);
+        
+        // Search box; an empty search shows the whole catalog
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search title or author");
+        searchField.setPrefWidth(300);
+        searchField.setOnAction(e -> {
+            searchQuery = searchField.getText().trim();
+            refreshTable();
+        });
+        
+        Button searchButton = new Button("Search");
+        searchButton.setOnAction(e -> {
+            searchQuery = searchField.getText().trim();
+            refreshTable();
+        });
+        
+        Button clearSearchButton = new Button("Clear");
+        clearSearchButton.setOnAction(e -> {
+            searchField.clear();
+            searchQuery = "";
+            refreshTable();
+        });
+        
+        HBox searchBox = new HBox(10);
+        searchBox.getChildren().addAll(new Label("Search:"), searchField, searchButton, clearSearchButton,
+                tasks.getIndicator());
         
         // Form fields
         TextField isbnField = new TextField();
@@ -110,13 +160,14 @@ public class ManageBooksScreen {
                 }
                 
                 Book book = com.library.factory.BookFactory.createBook(category, isbn, title, author, year);
-                if (libraryService.addBook(book)) {
-                    refreshTable();
-                    clearFields(isbnField, titleField, authorField, yearField, categoryCombo);
-                    showAlert("Success", "Book added successfully");
-                } else {
-                    showAlert("Error", "Failed to add book. ISBN might already exist.");
-                }
+                tasks.run(service -> service.addBook(book), added -> {
+                    if (added) {
+                        clearFields(isbnField, titleField, authorField, yearField, categoryCombo);
+                        showAlert("Success", "Book added successfully");
+                    } else {
+                        showAlert("Error", "Failed to add book. ISBN might already exist.");
+                    }
+                });
             } catch (NumberFormatException ex) {
                 showAlert("Error", "Please enter a valid year");
             } catch (Exception ex) {
@@ -131,6 +182,10 @@ public class ManageBooksScreen {
                 showAlert("Error", "Please select a book to update");
                 return;
             }
+            if (catalog.isPlaceholder(selected)) {
+                showAlert("Error", "The selected book is still loading");
+                return;
+            }
             
             try {
                 String title = titleField.getText().trim();
@@ -143,17 +198,19 @@ public class ManageBooksScreen {
                     return;
                 }
                 
-                selected.setTitle(title);
-                selected.setAuthor(author);
-                selected.setYear(year);
+                // Update a copy; the shown row is replaced by the refresh once the update is stored
+                Book changed = com.library.factory.BookFactory.createBook(
+                        selected.getCategory(), selected.getIsbn(), title, author, year);
+                changed.setAvailable(selected.isAvailable());
                 
-                if (libraryService.updateBook(selected)) {
-                    refreshTable();
-                    clearFields(isbnField, titleField, authorField, yearField, categoryCombo);
-                    showAlert("Success", "Book updated successfully");
-                } else {
-                    showAlert("Error", "Failed to update book");
-                }
+                tasks.run(service -> service.updateBook(changed), updated -> {
+                    if (updated) {
+                        clearFields(isbnField, titleField, authorField, yearField, categoryCombo);
+                        showAlert("Success", "Book updated successfully");
+                    } else {
+                        showAlert("Error", "Failed to update book");
+                    }
+                });
             } catch (NumberFormatException ex) {
                 showAlert("Error", "Please enter a valid year");
             }
@@ -166,23 +223,32 @@ public class ManageBooksScreen {
                 showAlert("Error", "Please select a book to delete");
                 return;
             }
+            if (catalog.isPlaceholder(selected)) {
+                showAlert("Error", "The selected book is still loading");
+                return;
+            }
             
             if (showConfirmDialog("Delete Book", "Are you sure you want to delete this book?")) {
-                if (libraryService.deleteBook(selected.getIsbn())) {
-                    refreshTable();
-                    showAlert("Success", "Book deleted successfully");
-                } else {
-                    showAlert("Error", "Failed to delete book");
-                }
+                tasks.run(service -> service.deleteBook(selected.getIsbn()), deleted -> {
+                    if (deleted) {
+                        showAlert("Success", "Book deleted successfully");
+                    } else {
+                        showAlert("Error", "Failed to delete book");
+                    }
+                });
             }
         });
         
+        tasks.disableWhileRunning(searchButton, clearSearchButton, addButton, updateButton, deleteButton);
+        
         Button backButton = new Button("Back to Menu");
-        backButton.setOnAction(e -> new MainMenuScreen(stage, currentUser).show());
+        backButton.setOnAction(e -> {
+            new MainMenuScreen(stage, currentUser).show();
+        });
         
         // Populate fields when row is selected
         bookTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-            if (newSelection != null) {
+            if (newSelection != null && !catalog.isPlaceholder(newSelection)) {
                 isbnField.setText(newSelection.getIsbn());
                 titleField.setText(newSelection.getTitle());
                 authorField.setText(newSelection.getAuthor());
@@ -208,22 +274,54 @@ public class ManageBooksScreen {
         
         VBox root = new VBox(10);
         root.setPadding(new Insets(20));
-        root.getChildren().addAll(bookTable, formBox, buttonBox);
+        root.getChildren().addAll(searchBox, bookTable, formBox, buttonBox);
         
         Scene scene = new Scene(root, 900, 600);
         stage.setTitle("Library Management System - Manage Books");
         stage.setScene(scene);
         stage.show();
         
+        // Every book change, including borrows and returns, can change what the table shows
+        ScreenSubscription.open(stage, "Manage books screen", events -> {
+            if (events.stream().anyMatch(event -> !(event instanceof UserChanged))) {
+                refreshTable();
+            }
+        });
         refreshTable();
     }
     
     /**
-     * Refresh the book table
+     * Refresh the book table with the whole catalog or the current search results
      */
     private void refreshTable() {
-        books.clear();
-        books.addAll(libraryService.getAllBooks());
+        String query = searchQuery;
+        int generation = ++refreshGeneration;
+        if (query.isEmpty()) {
+            if (bookTable.getItems() != catalog) {
+                catalog.attach(bookTable);
+            }
+            catalog.refresh();
+            return;
+        }
+        tasks.run(service -> service.searchBooks(query, SEARCH_RESULT_LIMIT), result -> {
+            if (generation == refreshGeneration) {
+                if (bookTable.getItems() != books) {
+                    catalog.detach(bookTable, books);
+                }
+                KeyedListPatcher.patch(books, result, Book::getIsbn, ManageBooksScreen::sameBook);
+            }
+        });
+    }
+    
+    /**
+     * Check whether two versions of a book show the same in the table
+     */
+    private static boolean sameBook(Book shown, Book loaded) {
+        return Objects.equals(shown.getTitle(), loaded.getTitle())
+                && Objects.equals(shown.getAuthor(), loaded.getAuthor())
+                && shown.getYear() == loaded.getYear()
+                && Objects.equals(shown.getCategory(), loaded.getCategory())
+                && shown.isAvailable() == loaded.isAvailable();
     }
     
     /**
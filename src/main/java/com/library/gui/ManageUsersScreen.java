@@ -1,9 +1,9 @@
 package com.library.gui;
 
+import com.library.event.EventsDropped;
+import com.library.event.UserChanged;
 import com.library.model.User;
 import com.library.util.LibraryService;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -12,11 +12,15 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.util.Objects;
+
 /**
  * ManageUsersScreen class for user management.
  * 
  * Purpose: Provides interface for adding, updating, deleting, and viewing users.
- * Only accessible to admin users.
+ * Only accessible to admin users. Users are paged in from the database as
+ * the table is scrolled and sorted there. The table is refreshed whenever
+ * a user changes, also when the change was made in another window.
  * 
  * OOP Concepts Used:
  * - Encapsulation: Private fields and methods
@@ -24,17 +28,22 @@ import javafx.stage.Stage;
  * Design Pattern: None
  */
 public class ManageUsersScreen {
+    /** Row shown while its page of the user list is loading */
+    private static final User LOADING =
+            com.library.factory.UserFactory.createRegularUser("", "Loading...", "", "");
+
     private Stage stage;
     private User currentUser;
-    private LibraryService libraryService;
-    private ObservableList<User> users;
+    private BackgroundTasks tasks;
+    private PagedObservableList<User> users;
     private TableView<User> userTable;
     
     public ManageUsersScreen(Stage stage, User currentUser) {
         this.stage = stage;
         this.currentUser = currentUser;
-        this.libraryService = new LibraryService();
-        this.users = FXCollections.observableArrayList();
+        this.tasks = new BackgroundTasks();
+        this.users = new PagedObservableList<>(tasks, LibraryService::countUsers, LibraryService::getUsersPage,
+                LibraryService::getUsersCursor, User::getUserId, ManageUsersScreen::sameUser, "userId", LOADING);
         
         // Check if user is admin
         if (!currentUser.isAdmin()) {
@@ -65,14 +74,17 @@ public class ManageUsersScreen {
         roleCol.setCellValueFactory(new PropertyValueFactory<>("role"));
         roleCol.setPrefWidth(150);
         
+        users.sortOn(userIdCol, "userId");
+        users.sortOn(usernameCol, "username");
+        
         // Create table
         userTable = new TableView<>();
-        userTable.setItems(users);
         userTable.getColumns().add(userIdCol);
         userTable.getColumns().add(usernameCol);
         userTable.getColumns().add(emailCol);
         userTable.getColumns().add(roleCol);
         userTable.setPrefHeight(400);
+        users.attach(userTable);
         
         // Form fields
         TextField userIdField = new TextField();
@@ -107,13 +119,14 @@ public class ManageUsersScreen {
             }
             
             User user = com.library.factory.UserFactory.createUser(role, userId, username, password, email);
-            if (libraryService.addUser(user)) {
-                refreshTable();
-                clearFields(userIdField, usernameField, passwordField, emailField, roleCombo);
-                showAlert("Success", "User added successfully");
-            } else {
-                showAlert("Error", "Failed to add user. User ID or username might already exist.");
-            }
+            tasks.run(service -> service.addUser(user), added -> {
+                if (added) {
+                    clearFields(userIdField, usernameField, passwordField, emailField, roleCombo);
+                    showAlert("Success", "User added successfully");
+                } else {
+                    showAlert("Error", "Failed to add user. User ID or username might already exist.");
+                }
+            });
         });
         
         Button updateButton = new Button("Update User");
@@ -123,6 +136,10 @@ public class ManageUsersScreen {
                 showAlert("Error", "Please select a user to update");
                 return;
             }
+            if (users.isPlaceholder(selected)) {
+                showAlert("Error", "The selected user is still loading");
+                return;
+            }
             
             String username = usernameField.getText().trim();
             String password = passwordField.getText().trim();
@@ -134,17 +151,18 @@ public class ManageUsersScreen {
                 return;
             }
             
-            selected.setUsername(username);
-            selected.setPassword(password);
-            selected.setEmail(email);
+            // Update a copy; the shown row is replaced by the refresh once the update is stored
+            User changed = com.library.factory.UserFactory.createUser(
+                    selected.getRole(), selected.getUserId(), username, password, email);
             
-            if (libraryService.updateUser(selected)) {
-                refreshTable();
-                clearFields(userIdField, usernameField, passwordField, emailField, roleCombo);
-                showAlert("Success", "User updated successfully");
-            } else {
-                showAlert("Error", "Failed to update user");
-            }
+            tasks.run(service -> service.updateUser(changed), updated -> {
+                if (updated) {
+                    clearFields(userIdField, usernameField, passwordField, emailField, roleCombo);
+                    showAlert("Success", "User updated successfully");
+                } else {
+                    showAlert("Error", "Failed to update user");
+                }
+            });
         });
         
         Button deleteButton = new Button("Delete User");
@@ -154,6 +172,10 @@ public class ManageUsersScreen {
                 showAlert("Error", "Please select a user to delete");
                 return;
             }
+            if (users.isPlaceholder(selected)) {
+                showAlert("Error", "The selected user is still loading");
+                return;
+            }
             
             if (selected.getUserId().equals(currentUser.getUserId())) {
                 showAlert("Error", "You cannot delete your own account");
@@ -161,21 +183,26 @@ public class ManageUsersScreen {
             }
             
             if (showConfirmDialog("Delete User", "Are you sure you want to delete this user?")) {
-                if (libraryService.deleteUser(selected.getUserId())) {
-                    refreshTable();
-                    showAlert("Success", "User deleted successfully");
-                } else {
-                    showAlert("Error", "Failed to delete user");
-                }
+                tasks.run(service -> service.deleteUser(selected.getUserId()), deleted -> {
+                    if (deleted) {
+                        showAlert("Success", "User deleted successfully");
+                    } else {
+                        showAlert("Error", "Failed to delete user");
+                    }
+                });
             }
         });
         
+        tasks.disableWhileRunning(addButton, updateButton, deleteButton);
+        
         Button backButton = new Button("Back to Menu");
-        backButton.setOnAction(e -> new MainMenuScreen(stage, currentUser).show());
+        backButton.setOnAction(e -> {
+            new MainMenuScreen(stage, currentUser).show();
+        });
         
         // Populate fields when row is selected
         userTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-            if (newSelection != null) {
+            if (newSelection != null && !users.isPlaceholder(newSelection)) {
                 userIdField.setText(newSelection.getUserId());
                 usernameField.setText(newSelection.getUsername());
                 passwordField.setText(newSelection.getPassword());
@@ -197,7 +224,7 @@ public class ManageUsersScreen {
         
         HBox buttonBox = new HBox(10);
         buttonBox.setPadding(new Insets(10));
-        buttonBox.getChildren().addAll(addButton, updateButton, deleteButton, backButton);
+        buttonBox.getChildren().addAll(addButton, updateButton, deleteButton, backButton, tasks.getIndicator());
         
         VBox root = new VBox(10);
         root.setPadding(new Insets(20));
@@ -208,6 +235,11 @@ public class ManageUsersScreen {
         stage.setScene(scene);
         stage.show();
         
+        ScreenSubscription.open(stage, "Manage users screen", events -> {
+            if (events.stream().anyMatch(event -> event instanceof UserChanged || event instanceof EventsDropped)) {
+                refreshTable();
+            }
+        });
         refreshTable();
     }
     
@@ -215,8 +247,18 @@ public class ManageUsersScreen {
      * Refresh the user table
      */
     private void refreshTable() {
-        users.clear();
-        users.addAll(libraryService.getAllUsers());
+        users.refresh();
+    }
+    
+    /**
+     * Check whether two versions of a user are the same, including the
+     * password shown in the form when the row is selected
+     */
+    private static boolean sameUser(User shown, User loaded) {
+        return Objects.equals(shown.getUsername(), loaded.getUsername())
+                && Objects.equals(shown.getPassword(), loaded.getPassword())
+                && Objects.equals(shown.getEmail(), loaded.getEmail())
+                && Objects.equals(shown.getRole(), loaded.getRole());
     }
     
     /**
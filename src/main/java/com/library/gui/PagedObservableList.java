@@ -0,0 +1,455 @@
+package com.library.gui;
+
+import com.library.util.LibraryService;
+import com.library.util.Page;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * PagedObservableList class for showing a large table without loading it.
+ *
+ * Purpose: Lets a TableView show every row of a table while only the rows
+ * around the viewport are in memory. The list reports the row count of the
+ * table as its size; get() answers from a small LRU of pages and returns
+ * the placeholder row given to the constructor for a row whose page is not
+ * loaded yet, e.g. one showing "Loading...". The table can select such a
+ * row, so handlers acting on the selection must reject it with
+ * isPlaceholder(); its fields are not a real row. get() itself only notes the
+ * pages the table asked for; they are fetched afterwards, from a single
+ * Platform.runLater once the table has finished laying out its cells, and
+ * their rows are announced as replaced, so the table fills them in.
+ * Neighbouring pages are fetched when the viewport nears them.
+ *
+ * Pages are read with keyset pagination. The cursor a page was read from is
+ * kept as the anchor of its position, and reading a page leaves the anchor
+ * of the next one, so scrolling costs one page per query wherever the
+ * viewport is. A page without an anchor, e.g. after dragging the scroll
+ * bar, is found by moving a cursor from the nearest anchor, the start or
+ * the end of the table; that query skips over the sort index without
+ * reading the rows in between. The pages of one layout pass are read in
+ * one background task, in ascending order, so only the first of them seeks.
+ *
+ * Sorting happens in the database: attach() installs a sort policy that
+ * re-reads the pages in the order of the clicked column. Only columns
+ * registered with sortOn() can be sorted. Descending order reads the
+ * ascending positions from the end, so only ascending pages are needed.
+ *
+ * refresh() re-counts the rows and re-reads the cached pages after a write,
+ * replacing only the rows that changed, like KeyedListPatcher.
+ *
+ * All methods must be called on the JavaFX application thread.
+ *
+ * OOP Concepts Used:
+ * - Inheritance: Extends ObservableListBase
+ * - Encapsulation: Page cache and loading state are private
+ * - Generics: Works for any row type
+ *
+ * Design Pattern: Proxy Pattern (stands in for the full list of rows)
+ */
+class PagedObservableList<T> extends ObservableListBase<T> {
+    /** Rows fetched with one query */
+    static final int PAGE_SIZE = 100;
+    /** Pages kept in memory; a viewport shows far fewer rows */
+    static final int MAX_PAGES = 8;
+
+    /**
+     * Query reading one page of the table in ascending order, like LibraryService.getBooksPage()
+     */
+    interface PageQuery<T> {
+        Page<T> load(LibraryService service, String sortColumn, String cursor, int pageSize);
+    }
+
+    /**
+     * Query moving a cursor some rows forward or back, like LibraryService.getBooksCursor()
+     */
+    interface CursorQuery {
+        String find(LibraryService service, String sortColumn, String from, int rows);
+    }
+
+    private final BackgroundTasks tasks;
+    private final ToIntFunction<LibraryService> counter;
+    private final PageQuery<T> pageQuery;
+    private final CursorQuery cursorQuery;
+    private final Function<? super T, ?> keyOf;
+    private final BiPredicate<? super T, ? super T> unchanged;
+    private final String defaultSortColumn;
+    private final T placeholder;
+    private final Map<TableColumn<T, ?>, String> sortColumns = new HashMap<>();
+    private final LinkedHashMap<Integer, List<T>> pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    // Cursor each page starts after, for the pages whose position is known; page 0 starts at null
+    private final Map<Integer, String> anchors = new HashMap<>();
+    // Pages get() was asked for since the last layout pass; fetched by loadWanted()
+    private final Set<Integer> wanted = new TreeSet<>();
+    private int size;
+    private String sortColumn;
+    private boolean descending;
+    // Bumped when the order or the rows change; pages loaded before are dropped
+    private int generation;
+    // Only the newest count may resize the list; an older one can finish later
+    private int countGeneration;
+
+    /**
+     * Constructor for PagedObservableList. The list stays empty until refresh() is called.
+     * @param tasks Runs the queries of the screen showing the list
+     * @param counter Counts the rows
+     * @param pageQuery Reads a page after a cursor
+     * @param cursorQuery Moves a cursor to another position
+     * @param keyOf Key identifying a row, e.g. the ISBN
+     * @param unchanged Tells whether a shown row and its fresh version look the same
+     * @param defaultSortColumn Order used while no column is sorted
+     * @param placeholder Row shown while its page is loading
+     */
+    PagedObservableList(BackgroundTasks tasks, ToIntFunction<LibraryService> counter, PageQuery<T> pageQuery,
+                        CursorQuery cursorQuery, Function<? super T, ?> keyOf,
+                        BiPredicate<? super T, ? super T> unchanged, String defaultSortColumn, T placeholder) {
+        this.tasks = tasks;
+        this.counter = counter;
+        this.pageQuery = pageQuery;
+        this.cursorQuery = cursorQuery;
+        this.keyOf = keyOf;
+        this.unchanged = unchanged;
+        this.defaultSortColumn = defaultSortColumn;
+        this.sortColumn = defaultSortColumn;
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * @param row Row of the table, e.g. the selected one
+     * @return true if the row only stands in for one that is still loading
+     */
+    boolean isPlaceholder(Object row) {
+        return row == placeholder;
+    }
+
+    /**
+     * Let a column be sorted in the database
+     * @param column Column of the table
+     * @param sortColumn Sort column passed to the query
+     */
+    void sortOn(TableColumn<T, ?> column, String sortColumn) {
+        sortColumns.put(column, sortColumn);
+    }
+
+    /**
+     * Show this list in a table and sort it with the table's sort order
+     * @param table Table to show the rows in
+     */
+    void attach(TableView<T> table) {
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(sortColumns.containsKey(column));
+        }
+        table.setSortPolicy(view -> view.getItems() == this
+                ? sortBy(view.getSortOrder())
+                : TableView.DEFAULT_SORT_POLICY.call(view));
+        table.setItems(this);
+        sortBy(table.getSortOrder());
+    }
+
+    /**
+     * Show a plain list in a table this list was attached to, e.g. search
+     * results; its columns are then sorted in memory
+     * @param table Table this list was attached to
+     * @param items Rows to show instead
+     */
+    void detach(TableView<T> table, ObservableList<T> items) {
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(true);
+        }
+        table.setItems(items);
+    }
+
+    /**
+     * Re-count the rows and re-read the cached pages, e.g. after a write
+     */
+    void refresh() {
+        int counted = ++countGeneration;
+        tasks.fetch(counter::applyAsInt, count -> {
+            if (counted != countGeneration) {
+                return;
+            }
+            Set<Integer> reload = new TreeSet<>(pages.keySet());
+            reload.addAll(loading);
+            generation++;
+            loading.clear();
+            // Rows may have moved; positions are found again from the start or the end
+            anchors.clear();
+            resize(count);
+            List<Integer> kept = new ArrayList<>();
+            for (int page : reload) {
+                if (page * PAGE_SIZE < size) {
+                    kept.add(page);
+                } else {
+                    pages.remove(page);
+                }
+            }
+            load(kept);
+        }, () -> { });
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        int position = descending ? size - 1 - index : index;
+        int page = position / PAGE_SIZE;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            want(page);
+            return placeholder;
+        }
+        // Fetch the next page in scrolling direction before it is needed
+        int withinPage = position % PAGE_SIZE;
+        if (withinPage < PAGE_SIZE / 4 && page > 0) {
+            want(page - 1);
+        } else if (withinPage >= PAGE_SIZE * 3 / 4 && (page + 1) * PAGE_SIZE < size) {
+            want(page + 1);
+        }
+        return withinPage < rows.size() ? rows.get(withinPage) : placeholder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Look for a row among the loaded pages only; rows not loaded are not
+     * shown, and reading them all would fetch the whole table
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            List<T> rows = page.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                int position = page.getKey() * PAGE_SIZE + i;
+                if (position < size && rows.get(i).equals(o)) {
+                    return descending ? size - 1 - position : position;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Switch to the order of the first column in the sort order
+     */
+    private boolean sortBy(List<TableColumn<T, ?>> sortOrder) {
+        String column = defaultSortColumn;
+        boolean reversed = false;
+        if (!sortOrder.isEmpty()) {
+            column = sortColumns.get(sortOrder.get(0));
+            if (column == null) {
+                return false;
+            }
+            reversed = sortOrder.get(0).getSortType() == TableColumn.SortType.DESCENDING;
+        }
+        if (column.equals(sortColumn) && reversed == descending) {
+            return true;
+        }
+        sortColumn = column;
+        descending = reversed;
+        generation++;
+        pages.clear();
+        loading.clear();
+        anchors.clear();
+        if (size > 0) {
+            beginChange();
+            nextReplace(0, size, Collections.nCopies(size, placeholder));
+            endChange();
+        }
+        return true;
+    }
+
+    /**
+     * Note a page for the next loadWanted(); never fetches or fires changes itself
+     */
+    private void want(int page) {
+        if (wanted.add(page) && wanted.size() == 1) {
+            Platform.runLater(this::loadWanted);
+        }
+    }
+
+    /**
+     * Fetch the pages get() asked for that are still missing
+     */
+    private void loadWanted() {
+        List<Integer> missing = new ArrayList<>();
+        for (int page : wanted) {
+            if (page * PAGE_SIZE < size && pages.get(page) == null) {
+                missing.add(page);
+            }
+        }
+        wanted.clear();
+        load(missing);
+    }
+
+    /**
+     * Read pages that are not in flight yet in one background task
+     * @param requested Pages in ascending order
+     */
+    private void load(Collection<Integer> requested) {
+        List<Integer> batch = new ArrayList<>();
+        for (int page : requested) {
+            if (loading.add(page)) {
+                batch.add(page);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int loaded = generation;
+        String column = sortColumn;
+        int count = size;
+        TreeMap<Integer, String> known = new TreeMap<>(anchors);
+        tasks.fetch(service -> read(service, column, batch, known, count), rows -> {
+            if (loaded != generation) {
+                return;
+            }
+            loading.removeAll(batch);
+            anchors.putAll(known);
+            for (Map.Entry<Integer, List<T>> page : rows.entrySet()) {
+                store(page.getKey(), page.getValue());
+            }
+        }, () -> {
+            if (loaded == generation) {
+                loading.removeAll(batch);
+            }
+        });
+    }
+
+    /**
+     * Read pages in ascending order on a worker thread; touches no state of the list
+     * @param known Anchors known when the task started; the anchors found are added
+     * @param count Row count the positions refer to
+     * @return Rows by page, in ascending order
+     */
+    private Map<Integer, List<T>> read(LibraryService service, String column, List<Integer> batch,
+                                       TreeMap<Integer, String> known, int count) {
+        Map<Integer, List<T>> read = new TreeMap<>();
+        for (int page : batch) {
+            String cursor = known.get(page);
+            if (page > 0 && cursor == null) {
+                cursor = seek(service, column, page, known, count);
+                if (cursor == null) {
+                    // Rows were removed since the count; the refresh that follows reads again
+                    continue;
+                }
+                known.put(page, cursor);
+            }
+            Page<T> rows = pageQuery.load(service, column, cursor, PAGE_SIZE);
+            read.put(page, rows.getItems());
+            if (rows.getNextCursor() != null) {
+                known.put(page + 1, rows.getNextCursor());
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Find the cursor a page starts after by moving one from the nearest
+     * anchor, the start or the end of the table
+     */
+    private String seek(LibraryService service, String column, int page, TreeMap<Integer, String> known,
+                        int count) {
+        int position = page * PAGE_SIZE;
+        String from = null;
+        int rows = position;
+        Map.Entry<Integer, String> below = known.floorEntry(page);
+        if (below != null && position - below.getKey() * PAGE_SIZE < rows) {
+            from = below.getValue();
+            rows = position - below.getKey() * PAGE_SIZE;
+        }
+        Map.Entry<Integer, String> above = known.ceilingEntry(page);
+        if (above != null && above.getKey() * PAGE_SIZE - position < Math.abs(rows)) {
+            from = above.getValue();
+            rows = position - above.getKey() * PAGE_SIZE;
+        }
+        if (count - position < Math.abs(rows)) {
+            // A null cursor moved back counts from the end
+            from = null;
+            rows = position - count;
+        }
+        return cursorQuery.find(service, column, from, rows);
+    }
+
+    /**
+     * Cache a fetched page and announce the rows that look different now
+     */
+    private void store(int page, List<T> fetched) {
+        List<T> rows = new ArrayList<>(fetched);
+        List<T> previous = pages.put(page, rows);
+        int first = page * PAGE_SIZE;
+        int end = Math.min(size, first + PAGE_SIZE);
+        beginChange();
+        for (int position = first; position < end; position++) {
+            int i = position - first;
+            T shown = previous != null && i < previous.size() ? previous.get(i) : null;
+            T fresh = i < rows.size() ? rows.get(i) : null;
+            if (shown == null && fresh == null) {
+                continue;
+            }
+            if (shown != null && fresh != null && keyOf.apply(shown).equals(keyOf.apply(fresh))
+                    && unchanged.test(shown, fresh)) {
+                // Keep the shown row, so the table keeps its cell and selection
+                rows.set(i, shown);
+                continue;
+            }
+            nextSet(descending ? size - 1 - position : position, shown != null ? shown : placeholder);
+        }
+        endChange();
+    }
+
+    /**
+     * Change the row count; rows come and go at the end of the ascending order
+     */
+    private void resize(int count) {
+        if (count == size) {
+            return;
+        }
+        int oldSize = size;
+        size = count;
+        beginChange();
+        if (count > oldSize) {
+            int from = descending ? 0 : oldSize;
+            nextAdd(from, from + count - oldSize);
+        } else {
+            nextRemove(descending ? 0 : count, Collections.nCopies(oldSize - count, placeholder));
+        }
+        endChange();
+    }
+}
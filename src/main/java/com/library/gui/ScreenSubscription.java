@@ -0,0 +1,76 @@
+package com.library.gui;
+
+import com.library.event.LibraryEvent;
+import com.library.singleton.EventBus;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ScreenSubscription class for receiving change events while a screen is shown.
+ *
+ * Purpose: Subscribes a screen to the EventBus, delivering on the JavaFX
+ * application thread, and closes the subscription as soon as the screen is
+ * gone: when the stage switches to another scene, whichever button or
+ * dialog did it, or when the window is hidden or closed. A screen that is
+ * no longer shown then stops receiving events instead of refreshing a dead
+ * scene for the rest of the session.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: The stage listeners are private and remove themselves
+ * - Polymorphism: Implements the JavaFX listener and handler interfaces
+ *
+ * Design Pattern: Observer Pattern
+ */
+final class ScreenSubscription implements ChangeListener<Scene>, EventHandler<WindowEvent> {
+    private final Stage stage;
+    private final Scene scene;
+    private final EventBus.Subscription subscription;
+
+    private ScreenSubscription(Stage stage, Scene scene, EventBus.Subscription subscription) {
+        this.stage = stage;
+        this.scene = scene;
+        this.subscription = subscription;
+    }
+
+    /**
+     * Subscribe the scene the stage shows now; call it after stage.setScene()
+     * @param stage Stage showing the screen
+     * @param name Name used in logs and statistics
+     * @param handler Receives batches of events on the JavaFX application thread
+     * @return Subscription, closed automatically once the screen is gone
+     */
+    static EventBus.Subscription open(Stage stage, String name, Consumer<List<LibraryEvent>> handler) {
+        EventBus.Subscription subscription = EventBus.getInstance().subscribe(name, Platform::runLater,
+                EventBus.DEFAULT_CAPACITY, handler);
+        ScreenSubscription owner = new ScreenSubscription(stage, stage.getScene(), subscription);
+        stage.sceneProperty().addListener(owner);
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, owner);
+        return subscription;
+    }
+
+    @Override
+    public void changed(ObservableValue<? extends Scene> observable, Scene oldScene, Scene newScene) {
+        if (newScene != scene) {
+            close();
+        }
+    }
+
+    @Override
+    public void handle(WindowEvent event) {
+        close();
+    }
+
+    private void close() {
+        subscription.close();
+        stage.sceneProperty().removeListener(this);
+        stage.removeEventHandler(WindowEvent.WINDOW_HIDDEN, this);
+    }
+}
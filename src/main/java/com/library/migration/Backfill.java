@@ -0,0 +1,46 @@
+package com.library.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Backfill interface for a long-running data change split into small chunks.
+ *
+ * Purpose: SchemaMigrator runs each chunk in its own short transaction and
+ * stores the returned position together with the chunk, so the application
+ * keeps serving requests while the backfill runs and a restart resumes where
+ * the last committed chunk ended. Chunks must be idempotent. Once the last
+ * chunk finds nothing left to do, complete() runs in the same transaction,
+ * e.g. to swap in a table the backfill has filled, so readers see either
+ * the old schema or the finished one.
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Defines how a backfill is driven, not what it changes
+ *
+ * Design Pattern: Iterator Pattern (position-based resumption)
+ */
+public interface Backfill {
+
+    /**
+     * @return Unique name, used as the key of the stored position
+     */
+    String getName();
+
+    /**
+     * Process the next chunk. Runs inside a transaction; do not commit.
+     * @param connection Connection with auto-commit disabled
+     * @param position Position returned by the previous chunk, or null for the first chunk
+     * @param chunkSize Maximum number of rows to process
+     * @return Position to continue from, or null when the backfill is complete
+     * @throws SQLException if the chunk fails; it is rolled back and retried later
+     */
+    String runChunk(Connection connection, String position, int chunkSize) throws SQLException;
+
+    /**
+     * Finish the backfill. Runs in the transaction of the chunk that returned null; do not commit.
+     * @param connection Connection with auto-commit disabled
+     * @throws SQLException if finishing fails; the chunk is rolled back and retried later
+     */
+    default void complete(Connection connection) throws SQLException {
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Migration interface for one versioned schema change.
+ *
+ * Purpose: A step from schema version N-1 to N. SchemaMigrator applies pending
+ * migrations in version order, each in its own transaction together with its
+ * schema_version row, so a migration is either fully applied or not at all.
+ * Slow data changes belong in a Backfill, which runs in the background after
+ * startup instead of inside migrate().
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Defines what a migration provides, not how it changes the schema
+ * - Polymorphism: SQL-only and custom migrations are applied the same way
+ *
+ * Design Pattern: Command Pattern
+ */
+public interface Migration {
+
+    /**
+     * @return Schema version this migration produces; versions start at 1 and have no gaps
+     */
+    int getVersion();
+
+    /**
+     * @return Short human readable description, stored in schema_version
+     */
+    String getDescription();
+
+    /**
+     * Apply the schema change. Runs inside a transaction; do not commit.
+     * @param connection Connection with auto-commit disabled
+     * @throws SQLException if the change fails; the transaction is rolled back
+     */
+    void migrate(Connection connection) throws SQLException;
+
+    /**
+     * @return Data backfill to run in the background once this migration is applied, or null
+     */
+    default Backfill getBackfill() {
+        return null;
+    }
+}
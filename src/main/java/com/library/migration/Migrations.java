@@ -0,0 +1,180 @@
+package com.library.migration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Migrations class - registry of all schema migrations.
+ *
+ * Purpose: The single ordered list of schema changes. To change the schema,
+ * append a migration with the next version number; never edit or reorder one
+ * that has shipped, because databases in the field have already recorded it.
+ * Version 1 uses CREATE ... IF NOT EXISTS so databases created before
+ * migrations existed are adopted without changes.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: The list is built here and exposed read-only
+ *
+ * Design Pattern: Registry
+ */
+public class Migrations {
+    /** Backfill of migration 3; dates are epoch days once it has completed */
+    public static final String EPOCH_DAYS_BACKFILL = "borrow_records_epoch_days";
+
+    /** Backfill of migration 4; searches find every book once it has completed */
+    public static final String FTS_BACKFILL = "books_fts_rows";
+
+    private static final String FTS_INSERT =
+        "INSERT INTO books_fts(rowid, title, author) VALUES (new.rowid, new.title, new.author); ";
+    private static final String FTS_DELETE =
+        "INSERT INTO books_fts(books_fts, rowid, title, author) VALUES ('delete', old.rowid, old.title, old.author); ";
+    // Availability changes on every borrow and return; only re-index real text changes
+    private static final String FTS_TEXT_CHANGED = "(old.title IS NOT new.title OR old.author IS NOT new.author)";
+    // Last rowid FTS_BACKFILL has indexed; NULL before its first chunk
+    private static final String FTS_INDEXED_UP_TO =
+        "(SELECT CAST(position AS INTEGER) FROM schema_backfill WHERE name = '" + FTS_BACKFILL + "')";
+
+    // Mirrors a row written to borrow_records during the conversion into borrow_records_days
+    private static final String COPY_TO_DAYS =
+        "INSERT OR REPLACE INTO borrow_records_days " +
+        "(recordId, userId, bookIsbn, borrowDate, returnDate, isReturned) " +
+        "VALUES (new.recordId, new.userId, new.bookIsbn, " + epochDay("new.borrowDate") + ", " +
+        epochDay("new.returnDate") + ", new.isReturned)";
+
+    private Migrations() {
+    }
+
+    /**
+     * @return SQL converting an ISO date column to epoch days; NULL stays NULL
+     */
+    private static String epochDay(String column) {
+        return "CAST(julianday(" + column + ") - 2440587.5 AS INTEGER)";
+    }
+
+    /**
+     * @return All migrations in version order
+     */
+    public static List<Migration> all() {
+        return Collections.unmodifiableList(Arrays.asList(
+            new SqlMigration(1, "Baseline tables",
+                "CREATE TABLE IF NOT EXISTS books (" +
+                "isbn TEXT PRIMARY KEY, " +
+                "title TEXT NOT NULL, " +
+                "author TEXT NOT NULL, " +
+                "year INTEGER, " +
+                "category TEXT NOT NULL, " +
+                "isAvailable INTEGER DEFAULT 1)",
+                "CREATE TABLE IF NOT EXISTS users (" +
+                "userId TEXT PRIMARY KEY, " +
+                "username TEXT UNIQUE NOT NULL, " +
+                "password TEXT NOT NULL, " +
+                "email TEXT NOT NULL, " +
+                "role TEXT NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS borrow_records (" +
+                "recordId TEXT PRIMARY KEY, " +
+                "userId TEXT NOT NULL, " +
+                "bookIsbn TEXT NOT NULL, " +
+                "borrowDate TEXT NOT NULL, " +
+                "returnDate TEXT, " +
+                "isReturned INTEGER DEFAULT 0, " +
+                "FOREIGN KEY (userId) REFERENCES users(userId), " +
+                "FOREIGN KEY (bookIsbn) REFERENCES books(isbn))"),
+
+            // SqliteQueryPlanTest checks that LibraryService's lookups are answered through these
+            new SqlMigration(2, "Secondary indexes for paging and lookups",
+                // Sort orders of the keyset-paginated queries
+                "CREATE INDEX IF NOT EXISTS idx_books_title ON books(title, isbn)",
+                "CREATE INDEX IF NOT EXISTS idx_books_author ON books(author, isbn)",
+                "CREATE INDEX IF NOT EXISTS idx_books_year ON books(year, isbn)",
+                "CREATE INDEX IF NOT EXISTS idx_users_username ON users(username, userId)",
+                "CREATE INDEX IF NOT EXISTS idx_borrow_records_borrow_date ON borrow_records(borrowDate, recordId)",
+                // Availability lookups and reports
+                "CREATE INDEX IF NOT EXISTS idx_books_available ON books(isAvailable, isbn)",
+                "CREATE INDEX IF NOT EXISTS idx_books_available_category ON books(isAvailable, category, isbn)",
+                // Open and past loans per user (also serves returnBook) and per book
+                "CREATE INDEX IF NOT EXISTS idx_borrow_records_user ON borrow_records(userId, isReturned, borrowDate)",
+                "CREATE INDEX IF NOT EXISTS idx_borrow_records_book ON borrow_records(bookIsbn, isReturned)"),
+
+            // SQLite cannot change a column's type in place, so the table is copied into
+            // borrow_records_days in the background (see EPOCH_DAYS_BACKFILL) instead of
+            // rebuilt at startup. Triggers mirror writes made meanwhile; the last chunk drops
+            // the old table and renames the copy. Until then the application keeps
+            // reading and writing ISO text (SqliteStorageEngine.storesEpochDays()).
+            // julianday() of an ISO date minus the Julian day of 1970-01-01 is its epoch day.
+            new SqlMigration(3, "Store borrow and return dates as epoch days",
+                new RowidRangeBackfill(EPOCH_DAYS_BACKFILL, "borrow_records",
+                    "INSERT OR IGNORE INTO borrow_records_days " +
+                    "(recordId, userId, bookIsbn, borrowDate, returnDate, isReturned) " +
+                    "SELECT recordId, userId, bookIsbn, " + epochDay("borrowDate") + ", " +
+                    epochDay("returnDate") + ", isReturned FROM borrow_records WHERE rowid > ? AND rowid <= ?",
+                    // Also drops the old table's indexes and mirror triggers
+                    "DROP TABLE borrow_records",
+                    "ALTER TABLE borrow_records_days RENAME TO borrow_records"),
+                "CREATE TABLE borrow_records_days (" +
+                "recordId TEXT PRIMARY KEY, " +
+                "userId TEXT NOT NULL, " +
+                "bookIsbn TEXT NOT NULL, " +
+                "borrowDate INTEGER NOT NULL, " +
+                "returnDate INTEGER, " +
+                "isReturned INTEGER DEFAULT 0, " +
+                "FOREIGN KEY (userId) REFERENCES users(userId), " +
+                "FOREIGN KEY (bookIsbn) REFERENCES books(isbn))",
+                // Index names must differ from the old table's; they keep them after the rename.
+                // The per-user index already covers recordId, like version 5's.
+                "CREATE INDEX idx_borrow_days_borrow_date ON borrow_records_days(borrowDate, recordId)",
+                "CREATE INDEX idx_borrow_days_user ON borrow_records_days(userId, isReturned, borrowDate, recordId)",
+                "CREATE INDEX idx_borrow_days_book ON borrow_records_days(bookIsbn, isReturned)",
+                // Date-range reports
+                "CREATE INDEX idx_borrow_days_return_date ON borrow_records_days(returnDate, recordId)",
+                "CREATE INDEX idx_borrow_days_open ON borrow_records_days(isReturned, borrowDate, recordId)",
+                // A mirrored row is newer than the backfill's copy, so it replaces and is not ignored
+                "CREATE TRIGGER borrow_records_days_insert AFTER INSERT ON borrow_records BEGIN " +
+                COPY_TO_DAYS + "; END",
+                "CREATE TRIGGER borrow_records_days_update AFTER UPDATE ON borrow_records BEGIN " +
+                "DELETE FROM borrow_records_days WHERE recordId = old.recordId; " + COPY_TO_DAYS + "; END",
+                "CREATE TRIGGER borrow_records_days_delete AFTER DELETE ON borrow_records BEGIN " +
+                "DELETE FROM borrow_records_days WHERE recordId = old.recordId; END"),
+
+            // External-content FTS5 index over books, keyed by books.rowid. The index
+            // stores only tokens; LibraryService.searchBooks() joins back to books.
+            // prefix='2 3' keeps short prefix queries fast while typing.
+            // Existing books are indexed in the background (FTS_BACKFILL) in rowid order,
+            // so until it completes a search finds only the books indexed so far. Meanwhile
+            // the triggers only touch rows the backfill has passed; it reads the rest as
+            // they are when it gets there. Its last chunk replaces them with plain triggers.
+            // If the index ever drifts, INSERT INTO books_fts(books_fts) VALUES('rebuild') repairs it.
+            new SqlMigration(4, "Full-text search over book title and author",
+                new RowidRangeBackfill(FTS_BACKFILL, "books",
+                    // Safe to run once per range only: the position commits with the chunk
+                    "INSERT INTO books_fts(rowid, title, author) " +
+                    "SELECT rowid, title, author FROM books WHERE rowid > ? AND rowid <= ?",
+                    "DROP TRIGGER books_fts_insert",
+                    "DROP TRIGGER books_fts_delete",
+                    "DROP TRIGGER books_fts_update",
+                    "CREATE TRIGGER books_fts_insert AFTER INSERT ON books BEGIN " + FTS_INSERT + "END",
+                    "CREATE TRIGGER books_fts_delete AFTER DELETE ON books BEGIN " + FTS_DELETE + "END",
+                    "CREATE TRIGGER books_fts_update AFTER UPDATE OF title, author ON books " +
+                    "WHEN " + FTS_TEXT_CHANGED + " BEGIN " + FTS_DELETE + FTS_INSERT + "END"),
+                "CREATE VIRTUAL TABLE books_fts USING fts5(" +
+                "title, author, content='books', content_rowid='rowid', " +
+                "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+                "CREATE TRIGGER books_fts_insert AFTER INSERT ON books " +
+                "WHEN new.rowid <= " + FTS_INDEXED_UP_TO + " BEGIN " + FTS_INSERT + "END",
+                "CREATE TRIGGER books_fts_delete AFTER DELETE ON books " +
+                "WHEN old.rowid <= " + FTS_INDEXED_UP_TO + " BEGIN " + FTS_DELETE + "END",
+                "CREATE TRIGGER books_fts_update AFTER UPDATE OF title, author ON books " +
+                "WHEN " + FTS_TEXT_CHANGED + " AND old.rowid <= " + FTS_INDEXED_UP_TO + " BEGIN " +
+                FTS_DELETE + FTS_INSERT + "END"),
+
+            // With recordId in the index a user's loans come back in date order without
+            // a sort, so SQLite does not prefer idx_borrow_days_open (all open loans)
+            // for getActiveBorrowRecordsByUser. Migration 3 creates idx_borrow_days_user
+            // that way for the converted table; this gives the old table the same order
+            // while migration 3 is converting.
+            new SqlMigration(5, "Cover loan order in the per-user borrow index",
+                "DROP INDEX IF EXISTS idx_borrow_records_user",
+                "CREATE INDEX idx_borrow_records_user ON borrow_records(userId, isReturned, borrowDate, recordId)")
+        ));
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * RowidRangeBackfill class for backfills that walk a table in rowid order.
+ *
+ * Purpose: Applies an UPDATE (or INSERT ... SELECT) to consecutive rowid
+ * ranges of one table. The statement receives the range as two parameters
+ * and must be written so that running it twice on the same range is
+ * harmless, e.g. "UPDATE books SET x = ... WHERE rowid > ? AND rowid <= ? AND x IS NULL".
+ * Optional completion statements run once, together with the last chunk.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements the Backfill interface
+ * - Encapsulation: Range bookkeeping is private
+ *
+ * Design Pattern: None
+ */
+public class RowidRangeBackfill implements Backfill {
+    private final String name;
+    private final String table;
+    private final String updateSql;
+    private final String[] completeSql;
+
+    /**
+     * @param name Unique backfill name
+     * @param table Table to walk
+     * @param updateSql Statement with two parameters: exclusive lower and inclusive upper rowid
+     * @param completeSql Statements run once every range is done, e.g. to swap in a filled table
+     */
+    public RowidRangeBackfill(String name, String table, String updateSql, String... completeSql) {
+        this.name = name;
+        this.table = table;
+        this.updateSql = updateSql;
+        this.completeSql = completeSql.clone();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String runChunk(Connection connection, String position, int chunkSize) throws SQLException {
+        long from = position == null ? Long.MIN_VALUE : Long.parseLong(position);
+
+        // Upper end of the next chunk: the chunkSize-th rowid after the position
+        Long to = null;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT MAX(rowid) FROM (SELECT rowid FROM " + table + " WHERE rowid > ? ORDER BY rowid LIMIT ?)")) {
+            stmt.setLong(1, from);
+            stmt.setInt(2, chunkSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    long max = rs.getLong(1);
+                    to = rs.wasNull() ? null : max;
+                }
+            }
+        }
+        if (to == null) {
+            return null;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(updateSql)) {
+            stmt.setLong(1, from);
+            stmt.setLong(2, to);
+            stmt.executeUpdate();
+        }
+        return Long.toString(to);
+    }
+
+    @Override
+    public void complete(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : completeSql) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
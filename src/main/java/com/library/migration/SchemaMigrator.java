@@ -0,0 +1,378 @@
+package com.library.migration;
+
+import com.library.singleton.Logger;
+import com.library.util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchemaMigrator class for applying versioned migrations at startup.
+ *
+ * Purpose: Brings the database to the latest schema version. Applied versions
+ * are recorded in the schema_version table, so every migration runs exactly
+ * once per database. Backfills attached to migrations are tracked in the
+ * schema_backfill table and run on a background thread in small chunked
+ * transactions, resuming from their last committed position after a restart.
+ * Code that must read the old schema until a backfill has finished asks
+ * hasCompleted(), which answers from memory.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Version bookkeeping and the backfill thread are private
+ * - Abstraction: Works with any Migration and Backfill implementation
+ *
+ * Design Pattern: None
+ */
+public class SchemaMigrator {
+    private static final int MAX_CONSECUTIVE_BACKFILL_FAILURES = 5;
+
+    private final ConnectionPool pool;
+    private final List<Migration> migrations;
+    private final int backfillChunkSize;
+    private final long backfillPauseMillis;
+    private final Logger logger = Logger.getInstance();
+
+    // Names of backfills known to be complete, filled by migrate() and each completing chunk
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    private Thread backfillThread;
+    private volatile boolean stopped;
+
+    /**
+     * @param pool Pool to take connections from
+     * @param migrations All known migrations; versions must be 1..n without gaps
+     * @param backfillChunkSize Rows per backfill transaction
+     * @param backfillPauseMillis Pause between backfill chunks, leaving the database to foreground work
+     * @throws IllegalArgumentException if the versions are not 1..n
+     */
+    public SchemaMigrator(ConnectionPool pool, Collection<? extends Migration> migrations,
+                          int backfillChunkSize, long backfillPauseMillis) {
+        if (backfillChunkSize < 1) {
+            throw new IllegalArgumentException("Backfill chunk size must be positive: " + backfillChunkSize);
+        }
+        this.pool = pool;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 0; i < this.migrations.size(); i++) {
+            if (this.migrations.get(i).getVersion() != i + 1) {
+                throw new IllegalArgumentException("Migration versions must be 1.." + this.migrations.size()
+                        + " without gaps, found " + this.migrations.get(i).getVersion() + " at position " + (i + 1));
+            }
+        }
+        this.backfillChunkSize = backfillChunkSize;
+        this.backfillPauseMillis = backfillPauseMillis;
+    }
+
+    /**
+     * @return Highest version known to this build
+     */
+    public int getLatestVersion() {
+        return migrations.size();
+    }
+
+    /**
+     * @return Version recorded in the database, 0 for a database that was never migrated
+     * @throws SQLException if the database cannot be read
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            createBookkeepingTables(conn);
+            return currentVersion(conn);
+        }
+    }
+
+    /**
+     * Apply all pending migrations in version order. Each migration and its
+     * schema_version row commit together; a failing migration is rolled back
+     * and stops the run. Afterwards hasCompleted() knows every backfill that
+     * has completed in this database.
+     * @return Number of migrations applied
+     * @throws SQLException if a migration fails
+     */
+    public int migrate() throws SQLException {
+        int applied = 0;
+        try (Connection conn = pool.getConnection()) {
+            createBookkeepingTables(conn);
+            int current = currentVersion(conn);
+            if (current > getLatestVersion()) {
+                logger.logWarning("Database schema version " + current + " is newer than this build ("
+                        + getLatestVersion() + ")");
+                loadCompleted(conn);
+                return 0;
+            }
+
+            for (Migration migration : migrations) {
+                if (migration.getVersion() <= current) {
+                    continue;
+                }
+                conn.setAutoCommit(false);
+                try {
+                    // Another process may have migrated since we looked
+                    if (currentVersion(conn) >= migration.getVersion()) {
+                        conn.rollback();
+                        continue;
+                    }
+                    migration.migrate(conn);
+                    recordVersion(conn, migration);
+                    conn.commit();
+                    applied++;
+                    logger.logInfo("Applied schema migration " + migration.getVersion() + ": "
+                            + migration.getDescription());
+                } catch (SQLException e) {
+                    rollbackQuietly(conn);
+                    throw new SQLException("Schema migration " + migration.getVersion() + " ("
+                            + migration.getDescription() + ") failed: " + e.getMessage(), e);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            loadCompleted(conn);
+        }
+        return applied;
+    }
+
+    /**
+     * Start running unfinished backfills on a background daemon thread.
+     * Does nothing if every backfill is complete.
+     * @throws SQLException if the backfill state cannot be read
+     */
+    public synchronized void startBackfills() throws SQLException {
+        if (backfillThread != null) {
+            return;
+        }
+        List<Backfill> pending = new ArrayList<>();
+        try (Connection conn = pool.getConnection()) {
+            loadCompleted(conn);
+            for (Migration migration : migrations) {
+                Backfill backfill = migration.getBackfill();
+                if (backfill != null && !completed.contains(backfill.getName())) {
+                    pending.add(backfill);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        stopped = false;
+        backfillThread = new Thread(() -> runBackfills(pending), "schema-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    /**
+     * Stop the background backfills after the current chunk and wait for the thread to finish.
+     * Unfinished backfills resume on the next start.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (backfillThread == null) {
+            return;
+        }
+        backfillThread.interrupt();
+        try {
+            backfillThread.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        backfillThread = null;
+    }
+
+    /**
+     * @param name Backfill name
+     * @return true if the backfill has processed all rows
+     * @throws SQLException if the backfill state cannot be read
+     */
+    public boolean isBackfillComplete(String name) throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            return isBackfillComplete(conn, name);
+        }
+    }
+
+    /**
+     * Tell without a query whether a backfill has completed. Answers false
+     * until migrate() has run. A backfill completes while it holds the
+     * writer connection, so code that checks this after taking the writer
+     * knows which schema its statements will meet.
+     * @param name Backfill name
+     * @return true if the backfill is complete
+     */
+    public boolean hasCompleted(String name) {
+        return completed.contains(name);
+    }
+
+    private void runBackfills(List<Backfill> backfills) {
+        for (Backfill backfill : backfills) {
+            if (stopped) {
+                return;
+            }
+            logger.logInfo("Starting backfill " + backfill.getName());
+            long chunks = 0;
+            int failures = 0;
+            boolean complete = false;
+            while (!stopped && !complete) {
+                try {
+                    complete = runBackfillChunk(backfill);
+                    chunks++;
+                    failures = 0;
+                } catch (SQLException e) {
+                    if (stopped) {
+                        return;
+                    }
+                    failures++;
+                    logger.logError("Backfill " + backfill.getName() + " chunk failed (attempt " + failures + "): "
+                            + e.getMessage());
+                    if (failures >= MAX_CONSECUTIVE_BACKFILL_FAILURES) {
+                        logger.logError("Giving up on backfill " + backfill.getName() + " until the next start");
+                        break;
+                    }
+                }
+                if (!complete && !pause(failures == 0 ? backfillPauseMillis : Math.max(1000, backfillPauseMillis * 10))) {
+                    return;
+                }
+            }
+            if (complete) {
+                logger.logInfo("Backfill " + backfill.getName() + " complete after " + chunks + " chunks");
+            }
+        }
+    }
+
+    /**
+     * Run one chunk and store the new position in the same transaction
+     * @return true if the backfill is complete
+     */
+    private boolean runBackfillChunk(Backfill backfill) throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                String position = null;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT position FROM schema_backfill WHERE name = ?")) {
+                    stmt.setString(1, backfill.getName());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            position = rs.getString(1);
+                        }
+                    }
+                }
+
+                String next = backfill.runChunk(conn, position, backfillChunkSize);
+                if (next == null) {
+                    backfill.complete(conn);
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO schema_backfill (name, position, completedAt) VALUES (?, ?, ?) "
+                        + "ON CONFLICT(name) DO UPDATE SET position = excluded.position, completedAt = excluded.completedAt")) {
+                    stmt.setString(1, backfill.getName());
+                    stmt.setString(2, next == null ? position : next);
+                    stmt.setString(3, next == null ? LocalDateTime.now().toString() : null);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                if (next == null) {
+                    // Before the writer connection goes back to the pool
+                    completed.add(backfill.getName());
+                }
+                return next == null;
+            } catch (SQLException e) {
+                rollbackQuietly(conn);
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * @return false if the pause was interrupted by stop()
+     */
+    private boolean pause(long millis) {
+        if (millis <= 0) {
+            return !stopped;
+        }
+        try {
+            Thread.sleep(millis);
+            return !stopped;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private void createBookkeepingTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INTEGER PRIMARY KEY, "
+                    + "description TEXT NOT NULL, "
+                    + "appliedAt TEXT NOT NULL)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_backfill ("
+                    + "name TEXT PRIMARY KEY, "
+                    + "position TEXT, "
+                    + "completedAt TEXT)");
+        }
+    }
+
+    private int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void recordVersion(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, appliedAt) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, migration.getVersion());
+            stmt.setString(2, migration.getDescription());
+            stmt.setString(3, LocalDateTime.now().toString());
+            stmt.executeUpdate();
+        }
+        Backfill backfill = migration.getBackfill();
+        if (backfill != null) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT OR IGNORE INTO schema_backfill (name, position, completedAt) VALUES (?, NULL, NULL)")) {
+                stmt.setString(1, backfill.getName());
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Remember every backfill the database records as complete
+     */
+    private void loadCompleted(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM schema_backfill WHERE completedAt IS NOT NULL")) {
+            while (rs.next()) {
+                completed.add(rs.getString(1));
+            }
+        }
+    }
+
+    private boolean isBackfillComplete(Connection conn, String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT completedAt FROM schema_backfill WHERE name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getString(1) != null;
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            // The original failure is more useful than a rollback failure
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SqlMigration class for migrations made of plain SQL statements.
+ *
+ * Purpose: Covers the common case of DDL-only migrations (tables, columns, indexes).
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements the Migration interface
+ * - Encapsulation: Statements are private and fixed at construction
+ *
+ * Design Pattern: Command Pattern
+ */
+public class SqlMigration implements Migration {
+    private final int version;
+    private final String description;
+    private final String[] statements;
+    private final Backfill backfill;
+
+    public SqlMigration(int version, String description, String... statements) {
+        this(version, description, null, statements);
+    }
+
+    public SqlMigration(int version, String description, Backfill backfill, String... statements) {
+        this.version = version;
+        this.description = description;
+        this.backfill = backfill;
+        this.statements = statements.clone();
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    @Override
+    public Backfill getBackfill() {
+        return backfill;
+    }
+}
@@ -0,0 +1,137 @@
+package com.library.repository;
+
+import com.library.model.Book;
+import com.library.util.BatchResult;
+import com.library.util.Page;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * BookRepository interface for storing and finding books.
+ *
+ * Purpose: Storage operations on books, independent of where they are kept.
+ * Implementations report storage errors by logging them and returning
+ * false, null or an empty result, like the rest of the application.
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Callers depend on the interface, not on SQLite or memory
+ *
+ * Design Pattern: None (obtained from a StorageEngine)
+ */
+public interface BookRepository {
+
+    /** Columns findPage() and findCursor() can sort on; the primary key breaks ties */
+    List<String> SORT_COLUMNS = Collections.unmodifiableList(Arrays.asList("isbn", "title", "author", "year"));
+
+    /**
+     * @param book Book to store
+     * @return true if stored, false if the ISBN exists or storing failed
+     */
+    boolean add(Book book);
+
+    /**
+     * Store many books, chunkSize rows per transaction
+     * @param books Books to store
+     * @param chunkSize Number of rows per transaction
+     * @return Per-row outcome, indexed by position in the input collection
+     */
+    BatchResult addAll(Collection<? extends Book> books, int chunkSize);
+
+    /**
+     * @return All books in no particular order
+     */
+    List<Book> findAll();
+
+    /**
+     * @return Books on the shelf, ordered by ISBN
+     */
+    List<Book> findAvailable();
+
+    /**
+     * @param category Category as returned by Book.getCategory()
+     * @return Books of the category on the shelf, ordered by ISBN
+     */
+    List<Book> findAvailableByCategory(String category);
+
+    /**
+     * Every word of the query must be the start of a word in the title or author
+     * @param query Words as typed by the user
+     * @param limit Maximum number of books to return
+     * @param availableOnly true to leave out books that are on loan
+     * @return Matching books, best match first
+     */
+    List<Book> search(String query, int limit, boolean availableOnly);
+
+    /**
+     * @param isbn Book ISBN
+     * @return Book, or null if not found
+     */
+    Book findByIsbn(String isbn);
+
+    /**
+     * @param book Book with updated fields, identified by its ISBN
+     * @return true if a book was updated
+     */
+    boolean update(Book book);
+
+    /**
+     * @param isbn ISBN of the book to delete
+     * @return true if a book was deleted
+     */
+    boolean delete(String isbn);
+
+    /**
+     * @param sortColumn One of isbn, title, author, year
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of books to return
+     * @return Page of books in (sortColumn, isbn) order
+     */
+    Page<Book> findPage(String sortColumn, String cursor, int pageSize);
+
+    /**
+     * Find the cursor of a position some rows away from a known one, e.g. for a
+     * table view scrolled far. Cost grows with the distance, so start from the
+     * nearest cursor at hand.
+     * @param sortColumn One of isbn, title, author, year
+     * @param from Cursor of a page; null for the start of the table when rows is
+     *             positive and for its end when rows is negative
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor making findPage() start at the new position, or null if that
+     * is the start of the table, lies past its end, or the query failed
+     */
+    String findCursor(String sortColumn, String from, int rows);
+
+    /**
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of books to return
+     * @return Page of books on the shelf, ordered by ISBN
+     */
+    Page<Book> findAvailablePage(String cursor, int pageSize);
+
+    /**
+     * Like findCursor() for the books on the shelf, ordered by ISBN
+     * @param from Cursor of a page of findAvailablePage(); null for the start or the end
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor for findAvailablePage(), or null
+     */
+    String findAvailableCursor(String from, int rows);
+
+    /**
+     * @return Number of books
+     */
+    int count();
+
+    /**
+     * @return Number of books on the shelf
+     */
+    int countAvailable();
+
+    /**
+     * @return Every book in ISBN order; close the stream when done
+     */
+    Stream<Book> stream();
+}
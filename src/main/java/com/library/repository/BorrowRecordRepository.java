@@ -0,0 +1,113 @@
+package com.library.repository;
+
+import com.library.model.BorrowRecord;
+import com.library.util.Page;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * BorrowRecordRepository interface for loans and their history.
+ *
+ * Purpose: Storage operations on borrow records. Borrowing and returning
+ * also change the availability of the book, atomically with the record, so
+ * they are defined here rather than on BookRepository.
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Callers depend on the interface, not on SQLite or memory
+ *
+ * Design Pattern: None (obtained from a StorageEngine)
+ */
+public interface BorrowRecordRepository {
+
+    /** Columns findPage() and findCursor() can sort on; the primary key breaks ties */
+    List<String> SORT_COLUMNS = Collections.unmodifiableList(Arrays.asList("recordId", "borrowDate"));
+
+    /**
+     * Claim the book and store the open record, both or neither. Two callers
+     * can never claim the same available book.
+     * @param record New open record; its book must be available
+     * @return true if the book was claimed, false if it is unknown or already on loan
+     */
+    boolean borrow(BorrowRecord record);
+
+    /**
+     * Close the user's open record for the book and put the book back on the shelf
+     * @param userId User returning the book
+     * @param bookIsbn ISBN of the book
+     * @param returnDate Day of the return
+     * @return true if an open record was closed
+     */
+    boolean giveBack(String userId, String bookIsbn, LocalDate returnDate);
+
+    /**
+     * @return All borrow records in no particular order
+     */
+    List<BorrowRecord> findAll();
+
+    /**
+     * @param userId User ID
+     * @return The user's records, open loans first, newest first
+     */
+    List<BorrowRecord> findByUser(String userId);
+
+    /**
+     * @param userId User ID
+     * @return The user's open records, newest first
+     */
+    List<BorrowRecord> findActiveByUser(String userId);
+
+    /**
+     * @param bookIsbn ISBN of the book
+     * @return Open record of the book, or null if it is not on loan
+     */
+    BorrowRecord findOpenByBook(String bookIsbn);
+
+    /**
+     * @return Records borrowed between the days (inclusive), oldest first
+     */
+    List<BorrowRecord> findBorrowedBetween(LocalDate from, LocalDate to);
+
+    /**
+     * @return Records returned between the days (inclusive), oldest return first
+     */
+    List<BorrowRecord> findReturnedBetween(LocalDate from, LocalDate to);
+
+    /**
+     * @param day Loans borrowed on this day or later are excluded
+     * @return Open records borrowed before the day, oldest first
+     */
+    List<BorrowRecord> findOpenBorrowedBefore(LocalDate day);
+
+    /**
+     * @param sortColumn One of recordId or borrowDate
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of records to return
+     * @return Page of records in (sortColumn, recordId) order
+     */
+    Page<BorrowRecord> findPage(String sortColumn, String cursor, int pageSize);
+
+    /**
+     * Find the cursor of a position some rows away from a known one. Cost grows with the distance.
+     * @param sortColumn One of recordId or borrowDate
+     * @param from Cursor of a page; null for the start of the table when rows is
+     *             positive and for its end when rows is negative
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor making findPage() start at the new position, or null if that
+     * is the start of the table, lies past its end, or the query failed
+     */
+    String findCursor(String sortColumn, String from, int rows);
+
+    /**
+     * @return Number of borrow records
+     */
+    int count();
+
+    /**
+     * @return Every record in record ID order; close the stream when done
+     */
+    Stream<BorrowRecord> stream();
+}
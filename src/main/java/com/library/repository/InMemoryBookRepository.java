@@ -0,0 +1,393 @@
+package com.library.repository;
+
+import com.library.model.Book;
+import com.library.util.BatchResult;
+import com.library.util.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * InMemoryBookRepository class for books held in memory.
+ *
+ * Purpose: BookRepository on a skip-list map ordered by ISBN, with an index
+ * of the books on the shelf and one per category. Each row's availability is
+ * an AtomicBoolean that borrowing claims with a compare-and-set; edits of a
+ * row and its index entries are serialized on the row, reads take no locks.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements BookRepository
+ * - Encapsulation: Rows are stored as private copies
+ *
+ * Design Pattern: None (created by InMemoryStorageEngine)
+ */
+public class InMemoryBookRepository implements BookRepository {
+
+    /**
+     * One stored book. The availability of {@code book} is ignored; the flag is authoritative.
+     */
+    private static final class BookRow {
+        final AtomicBoolean available;
+        volatile Book book;
+        boolean deleted;
+
+        BookRow(Book book) {
+            this.book = book;
+            this.available = new AtomicBoolean(book.isAvailable());
+        }
+
+        Book toBook() {
+            Book copy = RepositorySupport.copyBook(book);
+            copy.setAvailable(available.get());
+            return copy;
+        }
+    }
+
+    private final ConcurrentSkipListMap<String, BookRow> rows = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<String> availableIsbns = new ConcurrentSkipListSet<>();
+    private final Map<String, Set<String>> isbnsByCategory = new ConcurrentHashMap<>();
+
+    InMemoryBookRepository() {
+    }
+
+    @Override
+    public int count() {
+        return rows.size();
+    }
+
+    @Override
+    public int countAvailable() {
+        return availableIsbns.size();
+    }
+
+    @Override
+    public boolean add(Book book) {
+        return insert(book) == null;
+    }
+
+    /**
+     * @return Reason the book was not stored, or null if it was
+     */
+    private String insert(Book book) {
+        String invalid = RepositorySupport.validateBook(book);
+        if (invalid != null) {
+            return invalid;
+        }
+        BookRow row = new BookRow(RepositorySupport.copyBook(book));
+        synchronized (row) {
+            if (rows.putIfAbsent(book.getIsbn(), row) != null) {
+                return "Duplicate ISBN";
+            }
+            index(row);
+        }
+        return null;
+    }
+
+    /**
+     * Rows are stored one by one; chunkSize is only validated, as there are no transactions to size
+     */
+    @Override
+    public BatchResult addAll(Collection<? extends Book> books, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        BatchResult result = new BatchResult();
+        int index = 0;
+        for (Book book : books) {
+            String rejected = insert(book);
+            if (rejected == null) {
+                result.recordSuccess(index);
+            } else {
+                result.recordFailure(index, RepositorySupport.isbnOf(book), rejected);
+            }
+            index++;
+        }
+        return result;
+    }
+
+    @Override
+    public List<Book> findAll() {
+        List<Book> books = new ArrayList<>(rows.size());
+        for (BookRow row : rows.values()) {
+            books.add(row.toBook());
+        }
+        return books;
+    }
+
+    @Override
+    public List<Book> findAvailable() {
+        return collectAvailable(availableIsbns);
+    }
+
+    @Override
+    public List<Book> findAvailableByCategory(String category) {
+        Set<String> isbns = isbnsByCategory.get(category);
+        if (isbns == null) {
+            return new ArrayList<>();
+        }
+        return collectAvailable(isbns);
+    }
+
+    /**
+     * The index may briefly disagree with a row being edited, so every row is checked again
+     */
+    private List<Book> collectAvailable(Set<String> isbns) {
+        List<Book> books = new ArrayList<>();
+        for (String isbn : isbns) {
+            BookRow row = rows.get(isbn);
+            if (row != null && row.available.get()) {
+                books.add(row.toBook());
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Scans every book. Books with a query word in the title rank first,
+     * then books are ordered by title.
+     */
+    @Override
+    public List<Book> search(String query, int limit, boolean availableOnly) {
+        List<String> words = RepositorySupport.searchWords(query);
+        List<Book> matches = new ArrayList<>();
+        if (words.isEmpty() || limit < 1) {
+            return matches;
+        }
+        List<Integer> titleHits = new ArrayList<>();
+        for (BookRow row : rows.values()) {
+            if (availableOnly && !row.available.get()) {
+                continue;
+            }
+            Book book = row.book;
+            List<String> titleWords = RepositorySupport.searchWords(book.getTitle());
+            List<String> authorWords = RepositorySupport.searchWords(book.getAuthor());
+            int hits = 0;
+            boolean all = true;
+            for (String word : words) {
+                if (startsAny(titleWords, word)) {
+                    hits++;
+                } else if (!startsAny(authorWords, word)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                matches.add(row.toBook());
+                titleHits.add(hits);
+            }
+        }
+
+        List<Integer> order = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingInt(i -> -titleHits.get(i))
+                .thenComparing(i -> matches.get(i).getTitle()));
+        List<Book> books = new ArrayList<>(Math.min(limit, order.size()));
+        for (int i = 0; i < order.size() && books.size() < limit; i++) {
+            books.add(matches.get(order.get(i)));
+        }
+        return books;
+    }
+
+    private static boolean startsAny(List<String> words, String prefix) {
+        for (String word : words) {
+            if (word.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Book findByIsbn(String isbn) {
+        BookRow row = isbn == null ? null : rows.get(isbn);
+        return row == null ? null : row.toBook();
+    }
+
+    @Override
+    public boolean update(Book book) {
+        BookRow row = rows.get(book.getIsbn());
+        if (row == null) {
+            return false;
+        }
+        synchronized (row) {
+            if (row.deleted) {
+                return false;
+            }
+            unindex(row);
+            row.book = RepositorySupport.copyBook(book);
+            row.available.set(book.isAvailable());
+            index(row);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean delete(String isbn) {
+        BookRow row = rows.remove(isbn);
+        if (row == null) {
+            return false;
+        }
+        synchronized (row) {
+            row.deleted = true;
+            unindex(row);
+        }
+        return true;
+    }
+
+    @Override
+    public Page<Book> findPage(String sortColumn, String cursor, int pageSize) {
+        List<Book> books = new ArrayList<>(rows.size());
+        for (BookRow row : rows.values()) {
+            books.add(row.book);
+        }
+        Page<Book> page = InMemoryStorageEngine.page("books", SORT_COLUMNS, sortColumn, cursor, pageSize, books,
+                book -> RepositorySupport.sortValueOf(sortColumn, book), Book::getIsbn);
+        List<Book> copies = new ArrayList<>(page.getItems().size());
+        for (Book book : page.getItems()) {
+            BookRow row = rows.get(book.getIsbn());
+            copies.add(row != null ? row.toBook() : RepositorySupport.copyBook(book));
+        }
+        return new Page<>(copies, page.getNextCursor());
+    }
+
+    @Override
+    public String findCursor(String sortColumn, String from, int rows) {
+        List<Book> books = new ArrayList<>(this.rows.size());
+        for (BookRow row : this.rows.values()) {
+            books.add(row.book);
+        }
+        return InMemoryStorageEngine.cursor("books", SORT_COLUMNS, sortColumn, from, rows, books,
+                book -> RepositorySupport.sortValueOf(sortColumn, book), Book::getIsbn);
+    }
+
+    /**
+     * Walks the ISBN index from the cursor, so a page costs O(log n + pageSize)
+     */
+    @Override
+    public Page<Book> findAvailablePage(String cursor, int pageSize) {
+        NavigableSet<String> isbns = cursor == null
+                ? availableIsbns
+                : availableIsbns.tailSet(RepositorySupport.decodeCursor(cursor, "isbn")[1], false);
+        List<Book> books = new ArrayList<>(Math.min(pageSize, 1024));
+        String nextCursor = null;
+        for (String isbn : isbns) {
+            BookRow row = rows.get(isbn);
+            Book book = row == null ? null : row.toBook();
+            // The index may briefly disagree with a row being edited
+            if (book == null || !book.isAvailable()) {
+                continue;
+            }
+            if (books.size() == pageSize) {
+                String last = books.get(books.size() - 1).getIsbn();
+                nextCursor = RepositorySupport.encodeCursor("isbn", last, last);
+                break;
+            }
+            books.add(book);
+        }
+        return new Page<>(books, nextCursor);
+    }
+
+    @Override
+    public String findAvailableCursor(String from, int rows) {
+        if (rows == 0) {
+            return from;
+        }
+        String at = from == null ? null : RepositorySupport.decodeCursor(from, "isbn")[1];
+        boolean backward = rows < 0;
+        NavigableSet<String> isbns;
+        if (backward) {
+            isbns = at == null ? availableIsbns.descendingSet() : availableIsbns.headSet(at, false).descendingSet();
+        } else {
+            isbns = at == null ? availableIsbns : availableIsbns.tailSet(at, false);
+        }
+        // A cursor names the last row before its position; from the end there is no such row
+        int skip = backward && at == null ? -rows : Math.abs(rows) - 1;
+        for (String isbn : isbns) {
+            BookRow row = this.rows.get(isbn);
+            if (row == null || !row.available.get()) {
+                continue;
+            }
+            if (skip-- == 0) {
+                return RepositorySupport.encodeCursor("isbn", isbn, isbn);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return rows.values().stream().map(BookRow::toBook);
+    }
+
+    // ========== Availability ==========
+
+    /**
+     * Take the book off the shelf if it is on it
+     * @return true if this call claimed the book
+     */
+    boolean claim(String isbn) {
+        BookRow row = rows.get(isbn);
+        if (row == null || !row.available.compareAndSet(true, false)) {
+            return false;
+        }
+        synchronized (row) {
+            if (!row.available.get()) {
+                availableIsbns.remove(isbn);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Put a claimed book back on the shelf; ignored if the book was deleted meanwhile
+     */
+    void release(String isbn) {
+        BookRow row = rows.get(isbn);
+        if (row == null) {
+            return;
+        }
+        synchronized (row) {
+            if (!row.deleted) {
+                row.available.set(true);
+                availableIsbns.add(isbn);
+            }
+        }
+    }
+
+    // ========== Indexes ==========
+
+    /**
+     * Add the row to the secondary indexes; callers hold the row's lock
+     */
+    private void index(BookRow row) {
+        String isbn = row.book.getIsbn();
+        isbnsByCategory.computeIfAbsent(row.book.getCategory(), category -> new ConcurrentSkipListSet<>()).add(isbn);
+        if (row.available.get()) {
+            availableIsbns.add(isbn);
+        }
+    }
+
+    /**
+     * Remove the row from the secondary indexes; callers hold the row's lock
+     */
+    private void unindex(BookRow row) {
+        String isbn = row.book.getIsbn();
+        Set<String> isbns = isbnsByCategory.get(row.book.getCategory());
+        if (isbns != null) {
+            isbns.remove(isbn);
+        }
+        availableIsbns.remove(isbn);
+    }
+}
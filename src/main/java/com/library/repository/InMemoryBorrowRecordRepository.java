@@ -0,0 +1,187 @@
+package com.library.repository;
+
+import com.library.model.BorrowRecord;
+import com.library.util.Page;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * InMemoryBorrowRecordRepository class for loans held in memory.
+ *
+ * Purpose: BorrowRecordRepository on a skip-list map ordered by record ID,
+ * with indexes of the records per user and of the open record per book.
+ * Borrowing claims the book's availability flag first and only stores the
+ * record if that succeeded, mirroring the conditional update of SQLite.
+ * Date-range queries scan all records.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements BorrowRecordRepository
+ * - Encapsulation: Records are stored as private copies
+ *
+ * Design Pattern: None (created by InMemoryStorageEngine)
+ */
+public class InMemoryBorrowRecordRepository implements BorrowRecordRepository {
+    // Open loans first, then newest first, like SELECT_BORROW_RECORDS_BY_USER_SQL
+    private static final Comparator<BorrowRecord> BY_USER_ORDER = Comparator
+            .comparing(BorrowRecord::isReturned)
+            .thenComparing(BorrowRecord::getBorrowDate, Comparator.reverseOrder())
+            .thenComparing(BorrowRecord::getRecordId, Comparator.reverseOrder());
+
+    private final InMemoryBookRepository books;
+    private final ConcurrentSkipListMap<String, BorrowRecord> records = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> recordIdsByUser = new ConcurrentHashMap<>();
+    private final Map<String, BorrowRecord> openByBook = new ConcurrentHashMap<>();
+
+    InMemoryBorrowRecordRepository(InMemoryBookRepository books) {
+        this.books = books;
+    }
+
+    @Override
+    public int count() {
+        return records.size();
+    }
+
+    @Override
+    public boolean borrow(BorrowRecord record) {
+        if (!books.claim(record.getBookIsbn())) {
+            return false;
+        }
+        BorrowRecord stored = RepositorySupport.copyBorrowRecord(record);
+        stored.setReturned(false);
+        stored.setReturnDate(null);
+        records.put(stored.getRecordId(), stored);
+        recordIdsByUser.computeIfAbsent(stored.getUserId(), userId -> ConcurrentHashMap.newKeySet())
+                .add(stored.getRecordId());
+        openByBook.put(stored.getBookIsbn(), stored);
+        return true;
+    }
+
+    @Override
+    public boolean giveBack(String userId, String bookIsbn, LocalDate returnDate) {
+        BorrowRecord open = openByBook.get(bookIsbn);
+        if (open == null || !open.getUserId().equals(userId) || !openByBook.remove(bookIsbn, open)) {
+            return false;
+        }
+        synchronized (open) {
+            open.setReturnDate(returnDate);
+            open.setReturned(true);
+        }
+        books.release(bookIsbn);
+        return true;
+    }
+
+    @Override
+    public List<BorrowRecord> findAll() {
+        return collect(records.values().stream(), record -> true);
+    }
+
+    @Override
+    public List<BorrowRecord> findByUser(String userId) {
+        List<BorrowRecord> found = collectByUser(userId, record -> true);
+        found.sort(BY_USER_ORDER);
+        return found;
+    }
+
+    @Override
+    public List<BorrowRecord> findActiveByUser(String userId) {
+        List<BorrowRecord> found = collectByUser(userId, record -> !record.isReturned());
+        found.sort(BY_USER_ORDER);
+        return found;
+    }
+
+    @Override
+    public BorrowRecord findOpenByBook(String bookIsbn) {
+        BorrowRecord open = bookIsbn == null ? null : openByBook.get(bookIsbn);
+        return open == null ? null : copy(open);
+    }
+
+    @Override
+    public List<BorrowRecord> findBorrowedBetween(LocalDate from, LocalDate to) {
+        List<BorrowRecord> found = collect(records.values().stream(),
+                record -> !record.getBorrowDate().isBefore(from) && !record.getBorrowDate().isAfter(to));
+        found.sort(Comparator.comparing(BorrowRecord::getBorrowDate).thenComparing(BorrowRecord::getRecordId));
+        return found;
+    }
+
+    @Override
+    public List<BorrowRecord> findReturnedBetween(LocalDate from, LocalDate to) {
+        List<BorrowRecord> found = collect(records.values().stream(), record -> record.getReturnDate() != null
+                && !record.getReturnDate().isBefore(from) && !record.getReturnDate().isAfter(to));
+        found.sort(Comparator.comparing(BorrowRecord::getReturnDate).thenComparing(BorrowRecord::getRecordId));
+        return found;
+    }
+
+    @Override
+    public List<BorrowRecord> findOpenBorrowedBefore(LocalDate day) {
+        List<BorrowRecord> found = collect(openByBook.values().stream(),
+                record -> !record.isReturned() && record.getBorrowDate().isBefore(day));
+        found.sort(Comparator.comparing(BorrowRecord::getBorrowDate).thenComparing(BorrowRecord::getRecordId));
+        return found;
+    }
+
+    @Override
+    public Page<BorrowRecord> findPage(String sortColumn, String cursor, int pageSize) {
+        Page<BorrowRecord> page = InMemoryStorageEngine.page("borrow_records", SORT_COLUMNS, sortColumn, cursor,
+                pageSize, records.values(), record -> RepositorySupport.sortValueOf(sortColumn, record),
+                BorrowRecord::getRecordId);
+        List<BorrowRecord> copies = new ArrayList<>(page.getItems().size());
+        for (BorrowRecord record : page.getItems()) {
+            copies.add(copy(record));
+        }
+        return new Page<>(copies, page.getNextCursor());
+    }
+
+    @Override
+    public String findCursor(String sortColumn, String from, int rows) {
+        return InMemoryStorageEngine.cursor("borrow_records", SORT_COLUMNS, sortColumn, from, rows,
+                records.values(), record -> RepositorySupport.sortValueOf(sortColumn, record),
+                BorrowRecord::getRecordId);
+    }
+
+    @Override
+    public Stream<BorrowRecord> stream() {
+        return records.values().stream().map(InMemoryBorrowRecordRepository::copy);
+    }
+
+    private List<BorrowRecord> collectByUser(String userId, Predicate<BorrowRecord> filter) {
+        Set<String> recordIds = userId == null ? null : recordIdsByUser.get(userId);
+        if (recordIds == null) {
+            return new ArrayList<>();
+        }
+        return collect(recordIds.stream().map(records::get), filter);
+    }
+
+    /**
+     * Copy the records that pass the filter; the filter sees a consistent copy
+     */
+    private static List<BorrowRecord> collect(Stream<BorrowRecord> stored, Predicate<BorrowRecord> filter) {
+        List<BorrowRecord> found = new ArrayList<>();
+        stored.forEach(record -> {
+            if (record != null) {
+                BorrowRecord copy = copy(record);
+                if (filter.test(copy)) {
+                    found.add(copy);
+                }
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Copy a stored record while no return is being written to it
+     */
+    private static BorrowRecord copy(BorrowRecord record) {
+        synchronized (record) {
+            return RepositorySupport.copyBorrowRecord(record);
+        }
+    }
+}
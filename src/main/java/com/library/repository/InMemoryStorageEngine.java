@@ -0,0 +1,167 @@
+package com.library.repository;
+
+import com.library.factory.UserFactory;
+import com.library.util.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * InMemoryStorageEngine class for keeping the library in concurrent maps.
+ *
+ * Purpose: A store that needs no database file, for load tests and for an
+ * ephemeral training mode (-Dlibrary.storage=memory) whose data is gone when
+ * the application exits. Rows live in concurrent hash and skip-list maps with
+ * secondary indexes for the lookups LibraryService makes; book availability is
+ * an atomic flag, so borrowing is a compare-and-set instead of a transaction.
+ * The default admin account is created like in a new database.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements StorageEngine
+ * - Composition: Owns one repository per table
+ *
+ * Design Pattern: None (created by StorageEngineFactory)
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+    private final InMemoryBookRepository books;
+    private final InMemoryUserRepository users;
+    private final InMemoryBorrowRecordRepository borrowRecords;
+
+    public InMemoryStorageEngine() {
+        this.books = new InMemoryBookRepository();
+        this.users = new InMemoryUserRepository();
+        this.borrowRecords = new InMemoryBorrowRecordRepository(books);
+        users.add(UserFactory.createUser("Admin", "admin001", "admin", "admin123", "admin@library.com"));
+    }
+
+    @Override
+    public BookRepository books() {
+        return books;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public BorrowRecordRepository borrowRecords() {
+        return borrowRecords;
+    }
+
+    @Override
+    public String getStatistics() {
+        return "in-memory[books=" + books.count() + ", users=" + users.count()
+                + ", borrowRecords=" + borrowRecords.count() + "]";
+    }
+
+    /**
+     * Nothing to release; the data is dropped with the engine
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Get one page of rows in (sortColumn, key) order. There is no index per sort
+     * column, so every call scans the rows, keeping only the best pageSize + 1 in a
+     * heap: O(n log pageSize) per page. Cursors are the same as SQLite's.
+     * @param rows Snapshot or weakly consistent view of all rows
+     */
+    static <T> Page<T> page(String table, List<String> sortColumns, String sortColumn, String cursor,
+                            int pageSize, Collection<T> rows, Function<T, String> sortValue,
+                            Function<T, String> key) {
+        RepositorySupport.checkSortColumn(table, sortColumns, sortColumn);
+        boolean numeric = RepositorySupport.INTEGER_SORT_COLUMNS.contains(sortColumn);
+        Comparator<String> values = numeric
+                ? Comparator.comparingLong(Long::parseLong)
+                : Comparator.<String>naturalOrder();
+        Comparator<T> order = Comparator.comparing(sortValue, values).thenComparing(key);
+        String[] position = cursor == null ? null : RepositorySupport.decodeCursor(cursor, sortColumn);
+
+        // Max-heap of the smallest rows after the cursor seen so far
+        PriorityQueue<T> best = new PriorityQueue<>(pageSize + 1, order.reversed());
+        for (T row : rows) {
+            if (position != null) {
+                int c = values.compare(sortValue.apply(row), position[0]);
+                if (c < 0 || (c == 0 && key.apply(row).compareTo(position[1]) <= 0)) {
+                    continue;
+                }
+            }
+            if (best.size() <= pageSize) {
+                best.add(row);
+            } else if (order.compare(row, best.peek()) < 0) {
+                best.poll();
+                best.add(row);
+            }
+        }
+
+        List<T> sorted = new ArrayList<>(best);
+        Collections.sort(sorted, order);
+        String nextCursor = null;
+        if (sorted.size() > pageSize) {
+            sorted.remove(sorted.size() - 1);
+            T last = sorted.get(sorted.size() - 1);
+            nextCursor = RepositorySupport.encodeCursor(sortColumn, sortValue.apply(last), key.apply(last));
+        }
+        return new Page<>(sorted, nextCursor);
+    }
+
+    /**
+     * Find the cursor of a position some rows away from a known one, like
+     * SqliteStorageEngine.queryCursor(). The rows up to the position are kept
+     * in a heap, so the cost grows with the distance.
+     * @param from Cursor of a page; null for the start of the rows when rows is
+     *             positive and for their end when rows is negative
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @param all Snapshot or weakly consistent view of all rows
+     * @return Cursor making page() start at the new position, or null if that is
+     * the start of the rows or lies past their end
+     */
+    static <T> String cursor(String table, List<String> sortColumns, String sortColumn, String from, int rows,
+                             Collection<T> all, Function<T, String> sortValue, Function<T, String> key) {
+        RepositorySupport.checkSortColumn(table, sortColumns, sortColumn);
+        if (rows == 0) {
+            return from;
+        }
+        Comparator<String> values = RepositorySupport.INTEGER_SORT_COLUMNS.contains(sortColumn)
+                ? Comparator.comparingLong(Long::parseLong)
+                : Comparator.<String>naturalOrder();
+        boolean backward = rows < 0;
+        Comparator<T> ascending = Comparator.comparing(sortValue, values).thenComparing(key);
+        Comparator<T> order = backward ? ascending.reversed() : ascending;
+        String[] position = from == null ? null : RepositorySupport.decodeCursor(from, sortColumn);
+        // A cursor names the last row before its position; from the end there is no such row
+        int skip = backward && position == null ? -rows : Math.abs(rows) - 1;
+
+        // Max-heap of the first skip + 1 rows past the position in the direction of travel
+        PriorityQueue<T> nearest = new PriorityQueue<>(Math.min(skip, all.size()) + 1, order.reversed());
+        for (T row : all) {
+            if (position != null) {
+                int c = values.compare(sortValue.apply(row), position[0]);
+                if (c == 0) {
+                    c = key.apply(row).compareTo(position[1]);
+                }
+                if (backward ? c >= 0 : c <= 0) {
+                    continue;
+                }
+            }
+            if (nearest.size() <= skip) {
+                nearest.add(row);
+            } else if (order.compare(row, nearest.peek()) < 0) {
+                nearest.poll();
+                nearest.add(row);
+            }
+        }
+        if (nearest.size() <= skip) {
+            return null;
+        }
+        T found = nearest.peek();
+        return RepositorySupport.encodeCursor(sortColumn, sortValue.apply(found), key.apply(found));
+    }
+}
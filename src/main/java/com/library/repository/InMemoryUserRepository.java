@@ -0,0 +1,157 @@
+package com.library.repository;
+
+import com.library.model.User;
+import com.library.util.BatchResult;
+import com.library.util.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * InMemoryUserRepository class for users held in memory.
+ *
+ * Purpose: UserRepository on a skip-list map ordered by user ID, with a
+ * username index. Both IDs and usernames must stay unique, so writes are
+ * serialized on one lock; reads take none.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements UserRepository
+ * - Encapsulation: Rows are stored as private copies
+ *
+ * Design Pattern: None (created by InMemoryStorageEngine)
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final ConcurrentSkipListMap<String, User> usersById = new ConcurrentSkipListMap<>();
+    private final Map<String, String> userIdsByUsername = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    InMemoryUserRepository() {
+    }
+
+    @Override
+    public int count() {
+        return usersById.size();
+    }
+
+    @Override
+    public boolean add(User user) {
+        return insert(user) == null;
+    }
+
+    /**
+     * @return Reason the user was not stored, or null if it was
+     */
+    private String insert(User user) {
+        String invalid = RepositorySupport.validateUser(user);
+        if (invalid != null) {
+            return invalid;
+        }
+        synchronized (writeLock) {
+            if (usersById.containsKey(user.getUserId()) || userIdsByUsername.containsKey(user.getUsername())) {
+                return "Duplicate user ID or username";
+            }
+            userIdsByUsername.put(user.getUsername(), user.getUserId());
+            usersById.put(user.getUserId(), RepositorySupport.copyUser(user));
+        }
+        return null;
+    }
+
+    /**
+     * Rows are stored one by one; chunkSize is only validated, as there are no transactions to size
+     */
+    @Override
+    public BatchResult addAll(Collection<? extends User> users, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        BatchResult result = new BatchResult();
+        int index = 0;
+        for (User user : users) {
+            String rejected = insert(user);
+            if (rejected == null) {
+                result.recordSuccess(index);
+            } else {
+                result.recordFailure(index, RepositorySupport.userIdOf(user), rejected);
+            }
+            index++;
+        }
+        return result;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>(usersById.size());
+        for (User user : usersById.values()) {
+            users.add(RepositorySupport.copyUser(user));
+        }
+        return users;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        String userId = username == null ? null : userIdsByUsername.get(username);
+        User user = userId == null ? null : usersById.get(userId);
+        // A concurrent rename may have moved the user to another username
+        if (user == null || !user.getUsername().equals(username)) {
+            return null;
+        }
+        return RepositorySupport.copyUser(user);
+    }
+
+    @Override
+    public boolean update(User user) {
+        synchronized (writeLock) {
+            User current = usersById.get(user.getUserId());
+            if (current == null) {
+                return false;
+            }
+            String ownerOfName = userIdsByUsername.get(user.getUsername());
+            if (ownerOfName != null && !ownerOfName.equals(user.getUserId())) {
+                return false;
+            }
+            userIdsByUsername.remove(current.getUsername());
+            userIdsByUsername.put(user.getUsername(), user.getUserId());
+            usersById.put(user.getUserId(), RepositorySupport.copyUser(user));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean delete(String userId) {
+        synchronized (writeLock) {
+            User removed = usersById.remove(userId);
+            if (removed == null) {
+                return false;
+            }
+            userIdsByUsername.remove(removed.getUsername());
+        }
+        return true;
+    }
+
+    @Override
+    public Page<User> findPage(String sortColumn, String cursor, int pageSize) {
+        Page<User> page = InMemoryStorageEngine.page("users", SORT_COLUMNS, sortColumn, cursor, pageSize,
+                usersById.values(), user -> RepositorySupport.sortValueOf(sortColumn, user), User::getUserId);
+        List<User> copies = new ArrayList<>(page.getItems().size());
+        for (User user : page.getItems()) {
+            copies.add(RepositorySupport.copyUser(user));
+        }
+        return new Page<>(copies, page.getNextCursor());
+    }
+
+    @Override
+    public String findCursor(String sortColumn, String from, int rows) {
+        return InMemoryStorageEngine.cursor("users", SORT_COLUMNS, sortColumn, from, rows, usersById.values(),
+                user -> RepositorySupport.sortValueOf(sortColumn, user), User::getUserId);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return usersById.values().stream().map(RepositorySupport::copyUser);
+    }
+}
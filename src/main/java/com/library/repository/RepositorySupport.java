@@ -0,0 +1,178 @@
+package com.library.repository;
+
+import com.library.factory.BookFactory;
+import com.library.factory.UserFactory;
+import com.library.model.Book;
+import com.library.model.BorrowRecord;
+import com.library.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RepositorySupport class with helpers shared by all storage engines.
+ *
+ * Purpose: Row validation, defensive copies and page cursors, so every
+ * engine accepts the same rows and issues cursors in the same format.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Package-private; not part of the repository API
+ *
+ * Design Pattern: None
+ */
+final class RepositorySupport {
+    /** Columns holding numbers; their cursor values are compared as numbers */
+    static final List<String> INTEGER_SORT_COLUMNS = Arrays.asList("year", "borrowDate");
+    private static final String CURSOR_SEPARATOR = "\u0000";
+
+    private RepositorySupport() {
+    }
+
+    // ========== Validation ==========
+
+    /**
+     * Check the fields the books table requires
+     * @return Reason the book cannot be stored, or null if it is valid
+     */
+    static String validateBook(Book book) {
+        if (book == null) {
+            return "Missing book";
+        }
+        if (book.getIsbn() == null || book.getIsbn().trim().isEmpty()) {
+            return "Missing ISBN";
+        }
+        if (book.getTitle() == null || book.getAuthor() == null) {
+            return "Missing title or author";
+        }
+        return null;
+    }
+
+    /**
+     * Check the fields the users table requires
+     * @return Reason the user cannot be stored, or null if it is valid
+     */
+    static String validateUser(User user) {
+        if (user == null) {
+            return "Missing user";
+        }
+        if (user.getUserId() == null || user.getUserId().trim().isEmpty()) {
+            return "Missing user ID";
+        }
+        if (user.getUsername() == null || user.getPassword() == null || user.getEmail() == null) {
+            return "Missing username, password or email";
+        }
+        return null;
+    }
+
+    static String isbnOf(Book book) {
+        return book == null ? null : book.getIsbn();
+    }
+
+    static String userIdOf(User user) {
+        return user == null ? null : user.getUserId();
+    }
+
+    // ========== Copies ==========
+
+    static Book copyBook(Book book) {
+        Book copy = BookFactory.createBook(book.getCategory(), book.getIsbn(), book.getTitle(),
+                book.getAuthor(), book.getYear());
+        copy.setAvailable(book.isAvailable());
+        return copy;
+    }
+
+    static User copyUser(User user) {
+        return UserFactory.createUser(user.getRole(), user.getUserId(), user.getUsername(),
+                user.getPassword(), user.getEmail());
+    }
+
+    static BorrowRecord copyBorrowRecord(BorrowRecord record) {
+        BorrowRecord copy = new BorrowRecord(record.getRecordId(), record.getUserId(), record.getBookIsbn(),
+                record.getBorrowDate());
+        copy.setReturnDate(record.getReturnDate());
+        copy.setReturned(record.isReturned());
+        return copy;
+    }
+
+    // ========== Search ==========
+
+    /**
+     * Lower-case words of user input; anything but letters and digits separates words
+     */
+    static List<String> searchWords(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // ========== Page Cursors ==========
+
+    /**
+     * @throws IllegalArgumentException if the column is not one of sortColumns
+     */
+    static void checkSortColumn(String table, List<String> sortColumns, String sortColumn) {
+        if (!sortColumns.contains(sortColumn)) {
+            throw new IllegalArgumentException("Cannot sort " + table + " by " + sortColumn);
+        }
+    }
+
+    static String sortValueOf(String sortColumn, Book book) {
+        switch (sortColumn) {
+            case "title": return book.getTitle();
+            case "author": return book.getAuthor();
+            case "year": return Integer.toString(book.getYear());
+            default: return book.getIsbn();
+        }
+    }
+
+    static String sortValueOf(String sortColumn, User user) {
+        switch (sortColumn) {
+            case "username": return user.getUsername();
+            default: return user.getUserId();
+        }
+    }
+
+    static String sortValueOf(String sortColumn, BorrowRecord record) {
+        switch (sortColumn) {
+            case "borrowDate": return Long.toString(record.getBorrowDate().toEpochDay());
+            default: return record.getRecordId();
+        }
+    }
+
+    /**
+     * Encode the position after the last row of a page: sort column, its value and the row key
+     */
+    static String encodeCursor(String sortColumn, String sortValue, String key) {
+        String raw = sortColumn + CURSOR_SEPARATOR + sortValue + CURSOR_SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return {sortValue, key}
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort column
+     */
+    static String[] decodeCursor(String cursor, String sortColumn) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        String[] parts = raw.split(CURSOR_SEPARATOR, -1);
+        if (parts.length != 3 || !parts[0].equals(sortColumn)) {
+            throw new IllegalArgumentException("Page cursor does not match sort column " + sortColumn);
+        }
+        return new String[] { parts[1], parts[2] };
+    }
+}
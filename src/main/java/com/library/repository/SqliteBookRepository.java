@@ -0,0 +1,337 @@
+package com.library.repository;
+
+import com.library.model.Book;
+import com.library.singleton.Logger;
+import com.library.util.BatchResult;
+import com.library.util.LruCache;
+import com.library.util.Page;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SqliteBookRepository class for books in the books table.
+ *
+ * Purpose: BookRepository on SQLite. Search uses the books_fts full-text
+ * index; lookups by ISBN go through the engine's book cache.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements BookRepository
+ * - Encapsulation: SQL and cache handling stay inside the class
+ *
+ * Design Pattern: None (created by SqliteStorageEngine)
+ */
+public class SqliteBookRepository implements BookRepository {
+    private static final String INSERT_BOOK_SQL =
+        "INSERT INTO books (isbn, title, author, year, category, isAvailable) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOK_IGNORE_SQL =
+        "INSERT OR IGNORE INTO books (isbn, title, author, year, category, isAvailable) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Lookup and update statements. Each one must be answered through an index;
+    // SqliteQueryPlanTest checks them against the schema.
+    public static final String SELECT_AVAILABLE_BOOKS_SQL =
+        "SELECT * FROM books WHERE isAvailable = 1 ORDER BY isbn";
+    public static final String SELECT_AVAILABLE_BOOKS_BY_CATEGORY_SQL =
+        "SELECT * FROM books WHERE isAvailable = 1 AND category = ? ORDER BY isbn";
+    public static final String SELECT_BOOK_BY_ISBN_SQL = "SELECT * FROM books WHERE isbn = ?";
+    public static final String UPDATE_BOOK_SQL =
+        "UPDATE books SET title = ?, author = ?, year = ?, category = ?, isAvailable = ? WHERE isbn = ?";
+    public static final String DELETE_BOOK_SQL = "DELETE FROM books WHERE isbn = ?";
+    /** Condition of the paged queries over the shelf; served by idx_books_available */
+    public static final String AVAILABLE_FILTER = "isAvailable = 1";
+    public static final String COUNT_BOOKS_SQL = "SELECT COUNT(*) FROM books";
+    public static final String COUNT_AVAILABLE_BOOKS_SQL = "SELECT COUNT(*) FROM books WHERE isAvailable = 1";
+    // Full-text search. bm25() is lower for better matches and weights title hits twice as
+    // high as author hits. Every match is ranked; with the LIMIT SQLite keeps only the best
+    // rows in a bounded sorter, so a broad query such as a single common prefix costs one
+    // pass over its matches and no more memory than the page it returns.
+    // CROSS JOIN keeps SQLite from driving the join from books instead of the matches.
+    public static final String SEARCH_BOOKS_SQL =
+        "SELECT b.* FROM books_fts CROSS JOIN books b ON b.rowid = books_fts.rowid " +
+        "WHERE books_fts MATCH ? ORDER BY bm25(books_fts, 2.0, 1.0) LIMIT ?";
+    public static final String SEARCH_AVAILABLE_BOOKS_SQL =
+        "SELECT b.* FROM books_fts CROSS JOIN books b ON b.rowid = books_fts.rowid " +
+        "WHERE books_fts MATCH ? AND b.isAvailable = 1 ORDER BY bm25(books_fts, 2.0, 1.0) LIMIT ?";
+
+    private final SqliteStorageEngine engine;
+    private final Logger logger;
+    private final LruCache<String, Book> cache;
+
+    SqliteBookRepository(SqliteStorageEngine engine) {
+        this.engine = engine;
+        this.logger = engine.logger();
+        this.cache = engine.bookCache();
+    }
+
+    @Override
+    public boolean add(Book book) {
+        try {
+            int result = engine.write(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(INSERT_BOOK_SQL);
+                bindInsert(stmt, book);
+                int count = stmt.executeUpdate();
+                stmt.close();
+                return count;
+            });
+            return result > 0;
+        } catch (SQLException e) {
+            logger.logError("Error adding book: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Rows whose ISBN already exists (or repeats earlier in the input) are
+     * skipped and reported as failures; the rest of the chunk is still committed.
+     */
+    @Override
+    public BatchResult addAll(Collection<? extends Book> books, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        BatchResult result = new BatchResult();
+        List<Book> chunk = new ArrayList<>(Math.min(chunkSize, books.size()));
+        try (Connection conn = engine.getWriteConnection()) {
+            for (Book book : books) {
+                chunk.add(book);
+                if (chunk.size() == chunkSize) {
+                    insertChunk(conn, chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(conn, chunk, result);
+            }
+        } catch (SQLException e) {
+            logger.logError("Error adding books: " + e.getMessage());
+            // Rows not reached yet are reported as failed
+            int index = 0;
+            for (Book book : books) {
+                if (index++ >= result.getTotalCount()) {
+                    result.recordFailure(index - 1, RepositorySupport.isbnOf(book), "Not attempted: " + e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Insert one chunk of books in a single transaction and record the outcome of every row
+     */
+    private void insertChunk(Connection conn, List<Book> chunk, BatchResult result) {
+        int offset = result.getTotalCount();
+        String[] rejected = new String[chunk.size()];
+        try {
+            conn.setAutoCommit(false);
+            PreparedStatement stmt = conn.prepareStatement(INSERT_BOOK_IGNORE_SQL);
+            int batched = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                Book book = chunk.get(i);
+                rejected[i] = RepositorySupport.validateBook(book);
+                if (rejected[i] != null) {
+                    continue;
+                }
+                bindInsert(stmt, book);
+                stmt.addBatch();
+                batched++;
+            }
+            int[] counts = batched > 0 ? stmt.executeBatch() : new int[0];
+            stmt.close();
+            conn.commit();
+
+            int next = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                if (rejected[i] != null) {
+                    result.recordFailure(offset + i, RepositorySupport.isbnOf(chunk.get(i)), rejected[i]);
+                } else {
+                    int count = counts[next++];
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        result.recordSuccess(offset + i);
+                    } else {
+                        result.recordFailure(offset + i, RepositorySupport.isbnOf(chunk.get(i)), "Duplicate ISBN");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            engine.rollbackQuietly(conn);
+            logger.logError("Error adding book batch: " + e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                String reason = rejected[i] != null ? rejected[i] : "Batch rolled back: " + e.getMessage();
+                result.recordFailure(offset + i, RepositorySupport.isbnOf(chunk.get(i)), reason);
+            }
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.logError("Error restoring auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void bindInsert(PreparedStatement stmt, Book book) throws SQLException {
+        stmt.setString(1, book.getIsbn());
+        stmt.setString(2, book.getTitle());
+        stmt.setString(3, book.getAuthor());
+        stmt.setInt(4, book.getYear());
+        stmt.setString(5, book.getCategory());
+        stmt.setInt(6, book.isAvailable() ? 1 : 0);
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return engine.queryList("SELECT * FROM books", SqliteStorageEngine.StatementBinder.NONE,
+                SqliteStorageEngine::mapBook, "Error getting books");
+    }
+
+    @Override
+    public List<Book> findAvailable() {
+        return engine.queryList(SELECT_AVAILABLE_BOOKS_SQL, SqliteStorageEngine.StatementBinder.NONE,
+                SqliteStorageEngine::mapBook, "Error getting available books");
+    }
+
+    @Override
+    public List<Book> findAvailableByCategory(String category) {
+        return engine.queryList(SELECT_AVAILABLE_BOOKS_BY_CATEGORY_SQL, stmt -> stmt.setString(1, category),
+                SqliteStorageEngine::mapBook, "Error getting available books");
+    }
+
+    /**
+     * Results are ordered by bm25 relevance, title hits weighing twice as much as author hits
+     */
+    @Override
+    public List<Book> search(String query, int limit, boolean availableOnly) {
+        String match = toFtsQuery(query);
+        if (match.isEmpty() || limit < 1) {
+            return new ArrayList<>();
+        }
+        return engine.queryList(availableOnly ? SEARCH_AVAILABLE_BOOKS_SQL : SEARCH_BOOKS_SQL, stmt -> {
+            stmt.setString(1, match);
+            stmt.setInt(2, limit);
+        }, SqliteStorageEngine::mapBook, "Error searching books");
+    }
+
+    /**
+     * Turn user input into an FTS5 query of quoted prefix terms, e.g.
+     * {@code prag "prog} becomes {@code "prag"* "prog"*}. Quoting every term keeps
+     * FTS5 operators such as AND, NOT or column filters in the input from being interpreted.
+     */
+    static String toFtsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(word).append("\"*");
+        }
+        return match.toString();
+    }
+
+    @Override
+    public Book findByIsbn(String isbn) {
+        Book cached = cache.get(isbn);
+        if (cached != null) {
+            return RepositorySupport.copyBook(cached);
+        }
+        long stamp = cache.stamp();
+        Book book = engine.queryOne(SELECT_BOOK_BY_ISBN_SQL, stmt -> stmt.setString(1, isbn),
+                SqliteStorageEngine::mapBook, "Error getting book");
+        if (book != null) {
+            cache.put(isbn, RepositorySupport.copyBook(book), stamp);
+        }
+        return book;
+    }
+
+    @Override
+    public boolean update(Book book) {
+        try {
+            int result = engine.write(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_BOOK_SQL);
+                stmt.setString(1, book.getTitle());
+                stmt.setString(2, book.getAuthor());
+                stmt.setInt(3, book.getYear());
+                stmt.setString(4, book.getCategory());
+                stmt.setInt(5, book.isAvailable() ? 1 : 0);
+                stmt.setString(6, book.getIsbn());
+
+                int count = stmt.executeUpdate();
+                stmt.close();
+                return count;
+            });
+            cache.invalidate(book.getIsbn());
+            return result > 0;
+        } catch (SQLException e) {
+            logger.logError("Error updating book: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean delete(String isbn) {
+        try {
+            int result = engine.write(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(DELETE_BOOK_SQL);
+                stmt.setString(1, isbn);
+
+                int count = stmt.executeUpdate();
+                stmt.close();
+                return count;
+            });
+            cache.invalidate(isbn);
+            return result > 0;
+        } catch (SQLException e) {
+            logger.logError("Error deleting book: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public Page<Book> findPage(String sortColumn, String cursor, int pageSize) {
+        return engine.queryPage("books", null, "isbn", SORT_COLUMNS, sortColumn, cursor, pageSize,
+                SqliteStorageEngine::mapBook, book -> RepositorySupport.sortValueOf(sortColumn, book), Book::getIsbn);
+    }
+
+    @Override
+    public String findCursor(String sortColumn, String from, int rows) {
+        return engine.queryCursor("books", null, "isbn", SORT_COLUMNS, sortColumn, from, rows);
+    }
+
+    @Override
+    public Page<Book> findAvailablePage(String cursor, int pageSize) {
+        return engine.queryPage("books", AVAILABLE_FILTER, "isbn", SORT_COLUMNS, "isbn", cursor, pageSize,
+                SqliteStorageEngine::mapBook, Book::getIsbn, Book::getIsbn);
+    }
+
+    @Override
+    public String findAvailableCursor(String from, int rows) {
+        return engine.queryCursor("books", AVAILABLE_FILTER, "isbn", SORT_COLUMNS, "isbn", from, rows);
+    }
+
+    @Override
+    public int count() {
+        return engine.count(COUNT_BOOKS_SQL, SqliteStorageEngine.StatementBinder.NONE, "Error counting books");
+    }
+
+    @Override
+    public int countAvailable() {
+        return engine.count(COUNT_AVAILABLE_BOOKS_SQL, SqliteStorageEngine.StatementBinder.NONE,
+                "Error counting available books");
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return engine.streamQuery("SELECT * FROM books ORDER BY isbn", SqliteStorageEngine::mapBook, "books");
+    }
+}
@@ -0,0 +1,242 @@
+package com.library.repository;
+
+import com.library.model.BorrowRecord;
+import com.library.singleton.Logger;
+import com.library.util.CirculationJournal;
+import com.library.util.Page;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SqliteBorrowRecordRepository class for loans in the borrow_records table.
+ *
+ * Purpose: BorrowRecordRepository on SQLite. Dates are stored as epoch days,
+ * so date ranges are integer comparisons. Databases created before schema
+ * version 3 store ISO text until the background conversion of migration 3
+ * has completed; until then dates are bound as text (see bindDay), in the
+ * form the connection running the statement sees. Borrowing and returning each run
+ * as one transaction (one savepoint of a batch under group commit) and are
+ * appended to the engine's circulation journal once committed.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements BorrowRecordRepository
+ * - Encapsulation: SQL stays inside the class
+ *
+ * Design Pattern: None (created by SqliteStorageEngine)
+ */
+public class SqliteBorrowRecordRepository implements BorrowRecordRepository {
+    private static final String INSERT_BORROW_RECORD_SQL =
+        "INSERT INTO borrow_records (recordId, userId, bookIsbn, borrowDate, isReturned) VALUES (?, ?, ?, ?, ?)";
+
+    // Checked against the schema by SqliteQueryPlanTest
+    public static final String CLAIM_BOOK_SQL = "UPDATE books SET isAvailable = 0 WHERE isbn = ? AND isAvailable = 1";
+    public static final String SELECT_OPEN_LOAN_SQL =
+        "SELECT recordId FROM borrow_records WHERE userId = ? AND bookIsbn = ? AND isReturned = 0";
+    public static final String CLOSE_BORROW_RECORD_SQL =
+        "UPDATE borrow_records SET returnDate = ?, isReturned = ? WHERE recordId = ? AND isReturned = 0";
+    public static final String RELEASE_BOOK_SQL = "UPDATE books SET isAvailable = 1 WHERE isbn = ?";
+    public static final String SELECT_BORROW_RECORDS_BY_USER_SQL =
+        "SELECT * FROM borrow_records WHERE userId = ? ORDER BY isReturned, borrowDate DESC, recordId DESC";
+    public static final String SELECT_ACTIVE_BORROW_RECORDS_BY_USER_SQL =
+        "SELECT * FROM borrow_records WHERE userId = ? AND isReturned = 0 ORDER BY borrowDate DESC, recordId DESC";
+    public static final String SELECT_OPEN_BORROW_RECORD_BY_BOOK_SQL =
+        "SELECT * FROM borrow_records WHERE bookIsbn = ? AND isReturned = 0";
+    public static final String SELECT_BORROWED_BETWEEN_SQL =
+        "SELECT * FROM borrow_records WHERE borrowDate BETWEEN ? AND ? ORDER BY borrowDate, recordId";
+    public static final String SELECT_RETURNED_BETWEEN_SQL =
+        "SELECT * FROM borrow_records WHERE returnDate BETWEEN ? AND ? ORDER BY returnDate, recordId";
+    public static final String COUNT_BORROW_RECORDS_SQL = "SELECT COUNT(*) FROM borrow_records";
+    public static final String SELECT_OPEN_BORROWED_BEFORE_SQL =
+        "SELECT * FROM borrow_records WHERE isReturned = 0 AND borrowDate < ? ORDER BY borrowDate, recordId";
+
+    private final SqliteStorageEngine engine;
+    private final Logger logger;
+
+    /**
+     * Bind a date in the form borrow_records stores it. Both forms sort in date
+     * order, but a comparison only works against values of the same form.
+     * @param stmt Statement to bind
+     * @param index Parameter index
+     * @param day Date to bind
+     * @param epochDays true once migration 3 has converted the table (SqliteStorageEngine.storesEpochDays())
+     */
+    public static void bindDay(PreparedStatement stmt, int index, LocalDate day, boolean epochDays)
+            throws SQLException {
+        if (epochDays) {
+            stmt.setLong(index, day.toEpochDay());
+        } else {
+            stmt.setString(index, day.toString());
+        }
+    }
+
+    SqliteBorrowRecordRepository(SqliteStorageEngine engine) {
+        this.engine = engine;
+        this.logger = engine.logger();
+    }
+
+    /**
+     * The conditional availability update is the concurrency gate, so two desks
+     * can never lend the same copy, and the record is only kept if the book was
+     * actually claimed.
+     */
+    @Override
+    public boolean borrow(BorrowRecord record) {
+        try {
+            boolean borrowed = engine.write(conn -> {
+                // Claim the copy; zero rows means unknown ISBN or already lent
+                PreparedStatement claim = conn.prepareStatement(CLAIM_BOOK_SQL);
+                claim.setString(1, record.getBookIsbn());
+                int claimed = claim.executeUpdate();
+                claim.close();
+
+                if (claimed == 0) {
+                    return false;
+                }
+
+                PreparedStatement stmt = conn.prepareStatement(INSERT_BORROW_RECORD_SQL);
+                stmt.setString(1, record.getRecordId());
+                stmt.setString(2, record.getUserId());
+                stmt.setString(3, record.getBookIsbn());
+                bindDay(stmt, 4, record.getBorrowDate(), engine.storesEpochDays());
+                stmt.setInt(5, 0);
+                stmt.executeUpdate();
+                stmt.close();
+                return true;
+            });
+            if (borrowed) {
+                engine.bookCache().invalidate(record.getBookIsbn());
+                CirculationJournal journal = engine.journal();
+                if (journal != null) {
+                    journal.appendBorrow(record);
+                }
+            }
+            return borrowed;
+        } catch (SQLException e) {
+            logger.logError("Error borrowing book: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * The loan is closed by its record ID, which is journaled with the return,
+     * so a replay closes this loan and not a later one of the same user and book.
+     */
+    @Override
+    public boolean giveBack(String userId, String bookIsbn, LocalDate returnDate) {
+        try {
+            String recordId = engine.write(conn -> {
+                PreparedStatement find = conn.prepareStatement(SELECT_OPEN_LOAN_SQL);
+                find.setString(1, userId);
+                find.setString(2, bookIsbn);
+                ResultSet rs = find.executeQuery();
+                String open = rs.next() ? rs.getString(1) : null;
+                rs.close();
+                find.close();
+
+                if (open == null) {
+                    return null;
+                }
+
+                PreparedStatement stmt = conn.prepareStatement(CLOSE_BORROW_RECORD_SQL);
+                bindDay(stmt, 1, returnDate, engine.storesEpochDays());
+                stmt.setInt(2, 1);
+                stmt.setString(3, open);
+                stmt.executeUpdate();
+                stmt.close();
+
+                PreparedStatement release = conn.prepareStatement(RELEASE_BOOK_SQL);
+                release.setString(1, bookIsbn);
+                release.executeUpdate();
+                release.close();
+                return open;
+            });
+            if (recordId == null) {
+                return false;
+            }
+            engine.bookCache().invalidate(bookIsbn);
+            CirculationJournal journal = engine.journal();
+            if (journal != null) {
+                journal.appendReturn(recordId, userId, bookIsbn, returnDate);
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.logError("Error returning book: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public List<BorrowRecord> findAll() {
+        return engine.queryList("SELECT * FROM borrow_records", SqliteStorageEngine.StatementBinder.NONE,
+                SqliteStorageEngine::mapBorrowRecord, "Error getting borrow records");
+    }
+
+    @Override
+    public List<BorrowRecord> findByUser(String userId) {
+        return engine.queryList(SELECT_BORROW_RECORDS_BY_USER_SQL, stmt -> stmt.setString(1, userId),
+                SqliteStorageEngine::mapBorrowRecord, "Error getting borrow records for user " + userId);
+    }
+
+    @Override
+    public List<BorrowRecord> findActiveByUser(String userId) {
+        return engine.queryList(SELECT_ACTIVE_BORROW_RECORDS_BY_USER_SQL, stmt -> stmt.setString(1, userId),
+                SqliteStorageEngine::mapBorrowRecord, "Error getting borrow records for user " + userId);
+    }
+
+    @Override
+    public BorrowRecord findOpenByBook(String bookIsbn) {
+        return engine.queryOne(SELECT_OPEN_BORROW_RECORD_BY_BOOK_SQL, stmt -> stmt.setString(1, bookIsbn),
+                SqliteStorageEngine::mapBorrowRecord, "Error getting open borrow record");
+    }
+
+    @Override
+    public List<BorrowRecord> findBorrowedBetween(LocalDate from, LocalDate to) {
+        return engine.queryListByDay(SELECT_BORROWED_BETWEEN_SQL, (stmt, epochDays) -> {
+            bindDay(stmt, 1, from, epochDays);
+            bindDay(stmt, 2, to, epochDays);
+        }, SqliteStorageEngine::mapBorrowRecord, "Error getting borrow records borrowed between " + from + " and " + to);
+    }
+
+    @Override
+    public List<BorrowRecord> findReturnedBetween(LocalDate from, LocalDate to) {
+        return engine.queryListByDay(SELECT_RETURNED_BETWEEN_SQL, (stmt, epochDays) -> {
+            bindDay(stmt, 1, from, epochDays);
+            bindDay(stmt, 2, to, epochDays);
+        }, SqliteStorageEngine::mapBorrowRecord, "Error getting borrow records returned between " + from + " and " + to);
+    }
+
+    @Override
+    public List<BorrowRecord> findOpenBorrowedBefore(LocalDate day) {
+        return engine.queryListByDay(SELECT_OPEN_BORROWED_BEFORE_SQL,
+                (stmt, epochDays) -> bindDay(stmt, 1, day, epochDays), SqliteStorageEngine::mapBorrowRecord, "Error getting borrow records open and borrowed before " + day);
+    }
+
+    @Override
+    public Page<BorrowRecord> findPage(String sortColumn, String cursor, int pageSize) {
+        return engine.queryPage("borrow_records", null, "recordId", SORT_COLUMNS, sortColumn, cursor, pageSize,
+                SqliteStorageEngine::mapBorrowRecord, record -> RepositorySupport.sortValueOf(sortColumn, record),
+                BorrowRecord::getRecordId);
+    }
+
+    @Override
+    public String findCursor(String sortColumn, String from, int rows) {
+        return engine.queryCursor("borrow_records", null, "recordId", SORT_COLUMNS, sortColumn, from, rows);
+    }
+
+    @Override
+    public int count() {
+        return engine.count(COUNT_BORROW_RECORDS_SQL, SqliteStorageEngine.StatementBinder.NONE,
+                "Error counting borrow records");
+    }
+
+    @Override
+    public Stream<BorrowRecord> stream() {
+        return engine.streamQuery("SELECT * FROM borrow_records ORDER BY recordId",
+                SqliteStorageEngine::mapBorrowRecord, "borrow records");
+    }
+}
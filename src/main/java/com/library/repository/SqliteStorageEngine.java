@@ -0,0 +1,734 @@
+package com.library.repository;
+
+import com.library.factory.BookFactory;
+import com.library.factory.UserFactory;
+import com.library.migration.Migrations;
+import com.library.migration.SchemaMigrator;
+import com.library.model.Book;
+import com.library.model.BorrowRecord;
+import com.library.model.User;
+import com.library.singleton.DatabaseConnectionManager;
+import com.library.singleton.Logger;
+import com.library.util.CacheStatistics;
+import com.library.util.CirculationJournal;
+import com.library.util.GroupCommitWriter;
+import com.library.util.LruCache;
+import com.library.util.Page;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * SqliteStorageEngine class for keeping the library in the SQLite database.
+ *
+ * Purpose: Repositories backed by the database of DatabaseConnectionManager,
+ * plus the JDBC plumbing they share. All queries go through prepareStatement()
+ * so the pooled connection's statement cache can reuse the compiled SQL;
+ * closing a statement returns it to that cache. Reads use the read-only
+ * connections and writes the single writer connection, or the group commit
+ * writer if it is enabled.
+ *
+ * Single-row lookups by ISBN and by username are served from read-through
+ * caches holding private copies. Writes through this engine invalidate the
+ * affected entries; the TTL bounds staleness for writes made by other
+ * processes, such as ImportTool.
+ *
+ * Committed borrows and returns are also appended to a CirculationJournal
+ * (directory library.journal.dir, default "journal"; disabled with
+ * -Dlibrary.journal.enabled=false), from which JournalReplayTool can rebuild
+ * the loan history if the database is damaged.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: JDBC resources, caches and transactions are private
+ * - Polymorphism: Implements StorageEngine
+ *
+ * Design Pattern: None (uses the DatabaseConnectionManager Singleton)
+ */
+public class SqliteStorageEngine implements StorageEngine {
+    /**
+     * Maps the current row of a result set to an object
+     */
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /** Rows fetched per round trip by the streaming queries */
+    public static final int STREAM_FETCH_SIZE = 1000;
+
+    private final DatabaseConnectionManager dbManager;
+    private final Logger logger = Logger.getInstance();
+    private final LruCache<String, Book> bookCache;
+    private final LruCache<String, User> userCache;
+    private final SqliteBookRepository books;
+    private final SqliteUserRepository users;
+    private final SqliteBorrowRecordRepository borrowRecords;
+    private final CirculationJournal journal;
+
+    /**
+     * Constructor for SqliteStorageEngine. Cache sizes and TTL come from the system
+     * properties library.cache.books.maxSize, library.cache.users.maxSize and library.cache.ttlMillis.
+     * @param dbManager Connection manager of the database
+     */
+    public SqliteStorageEngine(DatabaseConnectionManager dbManager) {
+        this.dbManager = dbManager;
+        long cacheTtlMillis = Long.getLong("library.cache.ttlMillis", 60000L);
+        this.bookCache = new LruCache<>("books", Integer.getInteger("library.cache.books.maxSize", 1024), cacheTtlMillis);
+        this.userCache = new LruCache<>("users", Integer.getInteger("library.cache.users.maxSize", 256), cacheTtlMillis);
+        this.books = new SqliteBookRepository(this);
+        this.users = new SqliteUserRepository(this);
+        this.borrowRecords = new SqliteBorrowRecordRepository(this);
+        this.journal = openJournal();
+    }
+
+    /**
+     * @return The journal configured by the library.journal.* properties, or null if disabled or unavailable
+     */
+    private CirculationJournal openJournal() {
+        if (!Boolean.parseBoolean(System.getProperty("library.journal.enabled", "true"))) {
+            return null;
+        }
+        String dir = System.getProperty("library.journal.dir", "journal");
+        try {
+            return CirculationJournal.open(Paths.get(dir),
+                    Integer.getInteger("library.journal.segmentRecords", CirculationJournal.DEFAULT_SEGMENT_RECORDS),
+                    Long.getLong("library.journal.syncIntervalMillis", 1000L));
+        } catch (IOException e) {
+            logger.logWarning("Circulation journal disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public BookRepository books() {
+        return books;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public BorrowRecordRepository borrowRecords() {
+        return borrowRecords;
+    }
+
+    /**
+     * Get statistics of the book lookup cache
+     * @return Snapshot of size and hit/miss/eviction counters
+     */
+    public CacheStatistics getBookCacheStatistics() {
+        return bookCache.getStatistics();
+    }
+
+    /**
+     * Get statistics of the user lookup cache
+     * @return Snapshot of size and hit/miss/eviction counters
+     */
+    public CacheStatistics getUserCacheStatistics() {
+        return userCache.getStatistics();
+    }
+
+    /**
+     * Drop all cached rows, e.g. after the database was changed outside this engine
+     */
+    public void invalidateCaches() {
+        bookCache.invalidateAll();
+        userCache.invalidateAll();
+    }
+
+    @Override
+    public String getStatistics() {
+        return "caches[" + bookCache.getStatistics() + "; " + userCache.getStatistics() + "]"
+                + (journal != null ? ", journal[" + journal.getStatistics() + "]" : "");
+    }
+
+    @Override
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+        dbManager.closeConnection();
+    }
+
+    Logger logger() {
+        return logger;
+    }
+
+    LruCache<String, Book> bookCache() {
+        return bookCache;
+    }
+
+    LruCache<String, User> userCache() {
+        return userCache;
+    }
+
+    /**
+     * @return Journal of committed borrows and returns, or null if disabled
+     */
+    CirculationJournal journal() {
+        return journal;
+    }
+
+    // ========== Queries ==========
+
+    /**
+     * Run a query on a read connection and map every row
+     * @param binder Sets the statement parameters
+     * @param errorMessage Logged with the error message if the query fails
+     * @return Mapped rows; empty if the query failed
+     */
+    <T> List<T> queryList(String sql, StatementBinder binder, RowMapper<T> mapper, String errorMessage) {
+        List<T> rows = new ArrayList<>();
+        try (Connection conn = dbManager.getReadConnection()) {
+            readRows(conn, sql, binder, mapper, rows);
+        } catch (SQLException e) {
+            logger.logError(errorMessage + ": " + e.getMessage());
+        }
+        return rows;
+    }
+
+    /**
+     * Run a query that binds borrow_records dates, in the form the read
+     * connection running it sees (see withDayForm)
+     * @param binder Sets the statement parameters for the given date form
+     * @param errorMessage Logged with the error message if the query fails
+     * @return Mapped rows; empty if the query failed
+     */
+    <T> List<T> queryListByDay(String sql, DayBinder binder, RowMapper<T> mapper, String errorMessage) {
+        List<T> rows = new ArrayList<>();
+        try (Connection conn = dbManager.getReadConnection()) {
+            withDayForm(conn, epochDays -> {
+                readRows(conn, sql, stmt -> binder.bind(stmt, epochDays), mapper, rows);
+                return null;
+            });
+        } catch (SQLException e) {
+            logger.logError(errorMessage + ": " + e.getMessage());
+        }
+        return rows;
+    }
+
+    private <T> void readRows(Connection conn, String sql, StatementBinder binder, RowMapper<T> mapper,
+                              List<T> rows) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        binder.bind(stmt);
+        ResultSet rs = stmt.executeQuery();
+
+        while (rs.next()) {
+            rows.add(mapper.map(rs));
+        }
+
+        rs.close();
+        stmt.close();
+    }
+
+    /**
+     * Sets the parameters of a prepared statement
+     */
+    interface StatementBinder {
+        StatementBinder NONE = stmt -> { };
+
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Sets the parameters of a prepared statement that compares borrow_records dates
+     */
+    interface DayBinder {
+        /**
+         * @param epochDays true to bind dates as epoch days, false as ISO text
+         *                  (see SqliteBorrowRecordRepository.bindDay)
+         */
+        void bind(PreparedStatement stmt, boolean epochDays) throws SQLException;
+    }
+
+    /**
+     * Reads on a connection that depend on the date form of borrow_records
+     */
+    interface DayQuery<R> {
+        R run(boolean epochDays) throws SQLException;
+    }
+
+    /**
+     * @return The first mapped row, or null if there is none or the query failed
+     */
+    <T> T queryOne(String sql, StatementBinder binder, RowMapper<T> mapper, String errorMessage) {
+        try (Connection conn = dbManager.getReadConnection()) {
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            binder.bind(stmt);
+            ResultSet rs = stmt.executeQuery();
+
+            T row = rs.next() ? mapper.map(rs) : null;
+            rs.close();
+            stmt.close();
+            return row;
+        } catch (SQLException e) {
+            logger.logError(errorMessage + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    // ========== Paged Queries ==========
+
+    /**
+     * Get one page using keyset pagination: each page seeks past the last row
+     * of the previous one, so cost does not grow with the page number. One row
+     * more than the page size is fetched to find out whether another page follows.
+     * @param filter SQL condition the rows must meet, e.g. "isAvailable = 1", or null for all rows
+     */
+    <T> Page<T> queryPage(String table, String filter, String keyColumn, List<String> sortColumns,
+                          String sortColumn, String cursor, int pageSize, RowMapper<T> mapper,
+                          Function<T, String> sortValue, Function<T, String> key) {
+        RepositorySupport.checkSortColumn(table, sortColumns, sortColumn);
+        String[] position = cursor == null ? null : RepositorySupport.decodeCursor(cursor, sortColumn);
+        String sql = seekSql(table, filter, keyColumn, sortColumn, position != null);
+        List<T> rows = new ArrayList<>();
+        String nextCursor = null;
+        try (Connection conn = dbManager.getReadConnection()) {
+            DayQuery<String> seek = epochDays -> {
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                int index = bindPosition(stmt, 1, keyColumn, sortColumn, position, epochDays);
+                stmt.setInt(index, pageSize + 1);
+                ResultSet rs = stmt.executeQuery();
+                String more = null;
+                while (rs.next()) {
+                    if (rows.size() == pageSize) {
+                        T last = rows.get(rows.size() - 1);
+                        more = RepositorySupport.encodeCursor(sortColumn, sortValue.apply(last), key.apply(last));
+                        break;
+                    }
+                    rows.add(mapper.map(rs));
+                }
+                rs.close();
+                stmt.close();
+                return more;
+            };
+            nextCursor = bindsDay(sortColumn, position) ? withDayForm(conn, seek) : seek.run(true);
+        } catch (SQLException e) {
+            logger.logError("Error getting page of " + table + ": " + e.getMessage());
+        }
+        return new Page<>(rows, nextCursor);
+    }
+
+    /**
+     * Find the cursor of a position some rows away from a known one, e.g. for a
+     * table view scrolled far. Only the sort index is read, not the rows in
+     * between, but its cost still grows with the distance; a cursor from the
+     * nearest page already read keeps it small.
+     * @param from Cursor of a page; null for the start of the table when rows is
+     *             positive and for its end when rows is negative
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor making queryPage() start at the new position, or null if that
+     * is the start of the table, lies past its end, or the query failed
+     */
+    String queryCursor(String table, String filter, String keyColumn, List<String> sortColumns,
+                       String sortColumn, String from, int rows) {
+        RepositorySupport.checkSortColumn(table, sortColumns, sortColumn);
+        if (rows == 0) {
+            return from;
+        }
+        String[] position = from == null ? null : RepositorySupport.decodeCursor(from, sortColumn);
+        boolean backward = rows < 0;
+        // A cursor names the last row before its position; from the end there is no such row
+        int skip = backward && position == null ? -rows : Math.abs(rows) - 1;
+        String sql = cursorSql(table, filter, keyColumn, sortColumn, position != null, backward);
+        try (Connection conn = dbManager.getReadConnection()) {
+            DayQuery<String> find = epochDays -> {
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                int index = bindPosition(stmt, 1, keyColumn, sortColumn, position, epochDays);
+                stmt.setInt(index, skip);
+                ResultSet rs = stmt.executeQuery();
+                String found = null;
+                if (rs.next()) {
+                    String rowKey = rs.getString(keyColumn);
+                    String value = sortColumn.equals(keyColumn) ? rowKey : mapSortValue(rs, sortColumn);
+                    found = RepositorySupport.encodeCursor(sortColumn, value, rowKey);
+                }
+                rs.close();
+                stmt.close();
+                return found;
+            };
+            return bindsDay(sortColumn, position) ? withDayForm(conn, find) : find.run(true);
+        } catch (SQLException e) {
+            logger.logError("Error finding position in " + table + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the position is bound as a date, so its form depends on the table
+     */
+    private static boolean bindsDay(String sortColumn, String[] position) {
+        return position != null && "borrowDate".equals(sortColumn);
+    }
+
+    /**
+     * Bind the (sortValue, key) position of a decoded cursor, if there is one
+     * @return Index of the next parameter
+     */
+    private static int bindPosition(PreparedStatement stmt, int index, String keyColumn, String sortColumn,
+                                    String[] position, boolean epochDays) throws SQLException {
+        if (position == null) {
+            return index;
+        }
+        if (!sortColumn.equals(keyColumn)) {
+            if ("borrowDate".equals(sortColumn)) {
+                SqliteBorrowRecordRepository.bindDay(stmt, index++,
+                        LocalDate.ofEpochDay(Long.parseLong(position[0])), epochDays);
+            } else if (RepositorySupport.INTEGER_SORT_COLUMNS.contains(sortColumn)) {
+                stmt.setLong(index++, Long.parseLong(position[0]));
+            } else {
+                stmt.setString(index++, position[0]);
+            }
+        }
+        stmt.setString(index++, position[1]);
+        return index;
+    }
+
+    /**
+     * Read a sort value in the form cursors carry it, like RepositorySupport.sortValueOf()
+     */
+    private static String mapSortValue(ResultSet rs, String sortColumn) throws SQLException {
+        if ("borrowDate".equals(sortColumn)) {
+            return Long.toString(mapDay(rs, sortColumn).toEpochDay());
+        }
+        if (RepositorySupport.INTEGER_SORT_COLUMNS.contains(sortColumn)) {
+            return Long.toString(rs.getLong(sortColumn));
+        }
+        return rs.getString(sortColumn);
+    }
+
+    /**
+     * SQL of a seek query: rows after the cursor position in (sortColumn, keyColumn) order.
+     * Each sort column is backed by an index on (column, key) created by a schema migration,
+     * or on (filter column, key) for a filtered query.
+     * @param filter SQL condition the rows must meet, or null for all rows
+     * @param afterCursor false for the first page
+     */
+    public static String seekSql(String table, String filter, String keyColumn, String sortColumn,
+                                 boolean afterCursor) {
+        return "SELECT * FROM " + table + where(filter, keyColumn, sortColumn, afterCursor, ">")
+                + orderBy(keyColumn, sortColumn, "") + " LIMIT ?";
+    }
+
+    /**
+     * SQL of a cursor query: the (sortColumn, keyColumn) of the row a number of rows
+     * after or before a position, with that number as the OFFSET. It selects only
+     * columns of the sort index, so the rows skipped are never read from the table.
+     * @param filter SQL condition the rows must meet, or null for all rows
+     * @param fromCursor false to count from the start, or from the end when backward
+     * @param backward true to count back in descending order
+     */
+    public static String cursorSql(String table, String filter, String keyColumn, String sortColumn,
+                                   boolean fromCursor, boolean backward) {
+        String columns = sortColumn.equals(keyColumn) ? keyColumn : sortColumn + ", " + keyColumn;
+        return "SELECT " + columns + " FROM " + table
+                + where(filter, keyColumn, sortColumn, fromCursor, backward ? "<" : ">")
+                + orderBy(keyColumn, sortColumn, backward ? " DESC" : "") + " LIMIT 1 OFFSET ?";
+    }
+
+    private static String where(String filter, String keyColumn, String sortColumn, boolean atCursor,
+                                String comparison) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null) {
+            conditions.add(filter);
+        }
+        if (atCursor) {
+            conditions.add(sortColumn.equals(keyColumn)
+                    ? keyColumn + " " + comparison + " ?"
+                    : "(" + sortColumn + ", " + keyColumn + ") " + comparison + " (?, ?)");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String orderBy(String keyColumn, String sortColumn, String direction) {
+        return sortColumn.equals(keyColumn)
+                ? " ORDER BY " + keyColumn + direction
+                : " ORDER BY " + sortColumn + direction + ", " + keyColumn + direction;
+    }
+
+    /**
+     * @return The count returned by a SELECT COUNT(*) query, or 0 if it failed
+     */
+    int count(String sql, StatementBinder binder, String errorMessage) {
+        Integer count = queryOne(sql, binder, rs -> rs.getInt(1), errorMessage);
+        return count == null ? 0 : count;
+    }
+
+    // ========== Streaming Queries ==========
+
+    /**
+     * Run a query and expose its rows as a lazily consumed stream. Closing the
+     * stream (or reaching its end) closes the result set, statement and connection.
+     */
+    <T> Stream<T> streamQuery(String sql, RowMapper<T> mapper, String description) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            logger.logError("Error streaming " + description + ": " + e.getMessage());
+            closeQuietly(null, stmt, conn);
+            return Stream.empty();
+        }
+
+        ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(conn, stmt, rs, mapper, description);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Spliterator over an open result set; owns and closes the JDBC resources
+     */
+    private class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private final String description;
+        private boolean closed;
+
+        ResultSetSpliterator(Connection conn, PreparedStatement stmt, ResultSet rs,
+                             RowMapper<T> mapper, String description) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.mapper = mapper;
+            this.description = description;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                close();
+                logger.logError("Error streaming " + description + ": " + e.getMessage());
+                throw new IllegalStateException("Error streaming " + description + ": " + e.getMessage(), e);
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                closeQuietly(rs, stmt, conn);
+            }
+        }
+    }
+
+    /**
+     * Close JDBC resources in reverse order of creation, ignoring nulls and errors
+     */
+    private void closeQuietly(ResultSet rs, Statement stmt, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            logger.logError("Error closing result set: " + e.getMessage());
+        }
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            logger.logError("Error closing statement: " + e.getMessage());
+        }
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            logger.logError("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    // ========== Transactions ==========
+
+    /**
+     * Run a write in a transaction of its own, or as part of the next batch
+     * of the group commit writer if group commit is enabled. Either way it
+     * has committed when this returns.
+     * @param operation Write to run; must not commit or roll back itself
+     * @return Result of the operation
+     * @throws SQLException if the operation or the commit failed; nothing was written then
+     */
+    <T> T write(GroupCommitWriter.Operation<T> operation) throws SQLException {
+        GroupCommitWriter writer = dbManager.getGroupCommitWriter();
+        if (writer != null) {
+            // join() waits through interrupts and sets the interrupt flag again afterwards:
+            // a queued operation commits anyway, so giving up early would report a
+            // committed write as failed and skip the caller's follow-up work
+            try {
+                return writer.submit(operation).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new SQLException(e.getCause());
+            }
+        }
+
+        try (Connection conn = dbManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = operation.execute(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(conn);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Tell in which form borrow_records stores dates. Check it inside write(),
+     * or after taking the writer connection, to know the form the write meets.
+     * Reads use withDayForm() instead.
+     * @return true for epoch days, false for ISO text before migration 3 has completed
+     */
+    boolean storesEpochDays() {
+        SchemaMigrator migrator = dbManager.getSchemaMigrator();
+        return migrator != null && migrator.hasCompleted(Migrations.EPOCH_DAYS_BACKFILL);
+    }
+
+    /**
+     * Run reads on a read connection with the date form that connection sees.
+     * Once migration 3 has completed every later read sees epoch days. Before
+     * that the conversion can swap the table in at any moment, so the column's
+     * declared type is read in the same read transaction as the query.
+     * @param conn Read connection in auto-commit mode
+     * @param query Reads to run
+     * @return Result of the reads
+     */
+    <R> R withDayForm(Connection conn, DayQuery<R> query) throws SQLException {
+        if (storesEpochDays()) {
+            return query.run(true);
+        }
+        conn.setAutoCommit(false);
+        try {
+            boolean epochDays;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT type FROM pragma_table_info('borrow_records') WHERE name = 'borrowDate'")) {
+                epochDays = rs.next() && "INTEGER".equalsIgnoreCase(rs.getString(1));
+            }
+            return query.run(epochDays);
+        } finally {
+            // Nothing to keep; this only ends the read transaction
+            rollbackQuietly(conn);
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Get the writer connection for multi-transaction work such as batch inserts
+     * @return Connection; close it to give it back
+     * @throws SQLException if the writer does not become available in time
+     */
+    Connection getWriteConnection() throws SQLException {
+        return dbManager.getConnection();
+    }
+
+    /**
+     * Roll back the current transaction, logging instead of throwing
+     * so the original error is the one reported
+     */
+    void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            logger.logError("Error rolling back transaction: " + e.getMessage());
+        }
+    }
+
+    // ========== Row Mapping ==========
+
+    /**
+     * Build a Book from the current row of a books result set
+     */
+    static Book mapBook(ResultSet rs) throws SQLException {
+        Book book = BookFactory.createBook(
+            rs.getString("category"),
+            rs.getString("isbn"),
+            rs.getString("title"),
+            rs.getString("author"),
+            rs.getInt("year")
+        );
+        book.setAvailable(rs.getInt("isAvailable") == 1);
+        return book;
+    }
+
+    /**
+     * Build a User from the current row of a users result set
+     */
+    static User mapUser(ResultSet rs) throws SQLException {
+        return UserFactory.createUser(
+            rs.getString("role"),
+            rs.getString("userId"),
+            rs.getString("username"),
+            rs.getString("password"),
+            rs.getString("email")
+        );
+    }
+
+    /**
+     * Build a BorrowRecord from the current row of a borrow_records result set.
+     * Dates are stored as epoch days.
+     */
+    static BorrowRecord mapBorrowRecord(ResultSet rs) throws SQLException {
+        BorrowRecord record = new BorrowRecord(
+            rs.getString("recordId"),
+            rs.getString("userId"),
+            rs.getString("bookIsbn"),
+            mapDay(rs, "borrowDate")
+        );
+        record.setReturnDate(mapDay(rs, "returnDate"));
+        record.setReturned(rs.getInt("isReturned") == 1);
+        return record;
+    }
+
+    /**
+     * Read a date stored as epoch days, or as ISO text before migration 3 has
+     * converted the table. Reading both keeps a query that meets the table just
+     * after the conversion correct.
+     */
+    private static LocalDate mapDay(ResultSet rs, String column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return LocalDate.ofEpochDay(((Number) value).longValue());
+        }
+        return LocalDate.parse(value.toString());
+    }
+}
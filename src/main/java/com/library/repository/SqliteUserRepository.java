@@ -0,0 +1,250 @@
+package com.library.repository;
+
+import com.library.model.User;
+import com.library.singleton.Logger;
+import com.library.util.BatchResult;
+import com.library.util.LruCache;
+import com.library.util.Page;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SqliteUserRepository class for users in the users table.
+ *
+ * Purpose: UserRepository on SQLite. Lookups by username go through the
+ * engine's user cache.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements UserRepository
+ * - Encapsulation: SQL and cache handling stay inside the class
+ *
+ * Design Pattern: None (created by SqliteStorageEngine)
+ */
+public class SqliteUserRepository implements UserRepository {
+    private static final String INSERT_USER_SQL =
+        "INSERT INTO users (userId, username, password, email, role) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_IGNORE_SQL =
+        "INSERT OR IGNORE INTO users (userId, username, password, email, role) VALUES (?, ?, ?, ?, ?)";
+
+    // Checked against the schema by SqliteQueryPlanTest
+    public static final String SELECT_USER_BY_USERNAME_SQL = "SELECT * FROM users WHERE username = ?";
+    public static final String UPDATE_USER_SQL =
+        "UPDATE users SET username = ?, password = ?, email = ?, role = ? WHERE userId = ?";
+    public static final String DELETE_USER_SQL = "DELETE FROM users WHERE userId = ?";
+    public static final String COUNT_USERS_SQL = "SELECT COUNT(*) FROM users";
+
+    private final SqliteStorageEngine engine;
+    private final Logger logger;
+    private final LruCache<String, User> cache;
+
+    SqliteUserRepository(SqliteStorageEngine engine) {
+        this.engine = engine;
+        this.logger = engine.logger();
+        this.cache = engine.userCache();
+    }
+
+    @Override
+    public boolean add(User user) {
+        try {
+            int result = engine.write(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(INSERT_USER_SQL);
+                bindInsert(stmt, user);
+                int count = stmt.executeUpdate();
+                stmt.close();
+                return count;
+            });
+            return result > 0;
+        } catch (SQLException e) {
+            logger.logError("Error adding user: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Rows whose user ID or username already exists are skipped and reported as failures
+     */
+    @Override
+    public BatchResult addAll(Collection<? extends User> users, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        BatchResult result = new BatchResult();
+        List<User> chunk = new ArrayList<>(Math.min(chunkSize, users.size()));
+        try (Connection conn = engine.getWriteConnection()) {
+            for (User user : users) {
+                chunk.add(user);
+                if (chunk.size() == chunkSize) {
+                    insertChunk(conn, chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(conn, chunk, result);
+            }
+        } catch (SQLException e) {
+            logger.logError("Error adding users: " + e.getMessage());
+            int index = 0;
+            for (User user : users) {
+                if (index++ >= result.getTotalCount()) {
+                    result.recordFailure(index - 1, RepositorySupport.userIdOf(user), "Not attempted: " + e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Insert one chunk of users in a single transaction and record the outcome of every row
+     */
+    private void insertChunk(Connection conn, List<User> chunk, BatchResult result) {
+        int offset = result.getTotalCount();
+        String[] rejected = new String[chunk.size()];
+        try {
+            conn.setAutoCommit(false);
+            PreparedStatement stmt = conn.prepareStatement(INSERT_USER_IGNORE_SQL);
+            int batched = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                User user = chunk.get(i);
+                rejected[i] = RepositorySupport.validateUser(user);
+                if (rejected[i] != null) {
+                    continue;
+                }
+                bindInsert(stmt, user);
+                stmt.addBatch();
+                batched++;
+            }
+            int[] counts = batched > 0 ? stmt.executeBatch() : new int[0];
+            stmt.close();
+            conn.commit();
+
+            int next = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                if (rejected[i] != null) {
+                    result.recordFailure(offset + i, RepositorySupport.userIdOf(chunk.get(i)), rejected[i]);
+                } else {
+                    int count = counts[next++];
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        result.recordSuccess(offset + i);
+                    } else {
+                        result.recordFailure(offset + i, RepositorySupport.userIdOf(chunk.get(i)),
+                                "Duplicate user ID or username");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            engine.rollbackQuietly(conn);
+            logger.logError("Error adding user batch: " + e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                String reason = rejected[i] != null ? rejected[i] : "Batch rolled back: " + e.getMessage();
+                result.recordFailure(offset + i, RepositorySupport.userIdOf(chunk.get(i)), reason);
+            }
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.logError("Error restoring auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void bindInsert(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getUserId());
+        stmt.setString(2, user.getUsername());
+        stmt.setString(3, user.getPassword());
+        stmt.setString(4, user.getEmail());
+        stmt.setString(5, user.getRole());
+    }
+
+    @Override
+    public List<User> findAll() {
+        return engine.queryList("SELECT * FROM users", SqliteStorageEngine.StatementBinder.NONE,
+                SqliteStorageEngine::mapUser, "Error getting users");
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        User cached = cache.get(username);
+        if (cached != null) {
+            return RepositorySupport.copyUser(cached);
+        }
+        long stamp = cache.stamp();
+        User user = engine.queryOne(SELECT_USER_BY_USERNAME_SQL, stmt -> stmt.setString(1, username),
+                SqliteStorageEngine::mapUser, "Error getting user");
+        if (user != null) {
+            cache.put(username, RepositorySupport.copyUser(user), stamp);
+        }
+        return user;
+    }
+
+    @Override
+    public boolean update(User user) {
+        try {
+            int result = engine.write(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_USER_SQL);
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getPassword());
+                stmt.setString(3, user.getEmail());
+                stmt.setString(4, user.getRole());
+                stmt.setString(5, user.getUserId());
+
+                int count = stmt.executeUpdate();
+                stmt.close();
+                return count;
+            });
+            // The cache is keyed by username, which the update may have changed
+            cache.invalidateIf(cached -> cached.getUserId().equals(user.getUserId()));
+            return result > 0;
+        } catch (SQLException e) {
+            logger.logError("Error updating user: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean delete(String userId) {
+        try {
+            int result = engine.write(conn -> {
+                PreparedStatement stmt = conn.prepareStatement(DELETE_USER_SQL);
+                stmt.setString(1, userId);
+
+                int count = stmt.executeUpdate();
+                stmt.close();
+                return count;
+            });
+            cache.invalidateIf(cached -> cached.getUserId().equals(userId));
+            return result > 0;
+        } catch (SQLException e) {
+            logger.logError("Error deleting user: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public Page<User> findPage(String sortColumn, String cursor, int pageSize) {
+        return engine.queryPage("users", null, "userId", SORT_COLUMNS, sortColumn, cursor, pageSize,
+                SqliteStorageEngine::mapUser, user -> RepositorySupport.sortValueOf(sortColumn, user), User::getUserId);
+    }
+
+    @Override
+    public String findCursor(String sortColumn, String from, int rows) {
+        return engine.queryCursor("users", null, "userId", SORT_COLUMNS, sortColumn, from, rows);
+    }
+
+    @Override
+    public int count() {
+        return engine.count(COUNT_USERS_SQL, SqliteStorageEngine.StatementBinder.NONE, "Error counting users");
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return engine.streamQuery("SELECT * FROM users ORDER BY userId", SqliteStorageEngine::mapUser, "users");
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.repository;
+
+/**
+ * StorageEngine interface for a complete set of repositories.
+ *
+ * Purpose: Groups the repositories that share one store, e.g. one SQLite
+ * database or one in-memory store, so operations that span tables (such as
+ * borrowing) stay consistent. LibraryService works against any engine.
+ *
+ * OOP Concepts Used:
+ * - Abstraction: LibraryService does not know which engine it uses
+ *
+ * Design Pattern: None (created by StorageEngineFactory)
+ */
+public interface StorageEngine {
+
+    BookRepository books();
+
+    UserRepository users();
+
+    BorrowRecordRepository borrowRecords();
+
+    /**
+     * @return Usage statistics for the log, e.g. cache hit rates
+     */
+    String getStatistics();
+
+    /**
+     * Release the resources of the engine
+     */
+    void close();
+}
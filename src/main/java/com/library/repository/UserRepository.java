@@ -0,0 +1,94 @@
+package com.library.repository;
+
+import com.library.model.User;
+import com.library.util.BatchResult;
+import com.library.util.Page;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * UserRepository interface for storing and finding users.
+ *
+ * Purpose: Storage operations on users, independent of where they are kept.
+ * User IDs and usernames are both unique.
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Callers depend on the interface, not on SQLite or memory
+ *
+ * Design Pattern: None (obtained from a StorageEngine)
+ */
+public interface UserRepository {
+
+    /** Columns findPage() and findCursor() can sort on; the primary key breaks ties */
+    List<String> SORT_COLUMNS = Collections.unmodifiableList(Arrays.asList("userId", "username"));
+
+    /**
+     * @param user User to store
+     * @return true if stored, false if the user ID or username exists or storing failed
+     */
+    boolean add(User user);
+
+    /**
+     * Store many users, chunkSize rows per transaction
+     * @param users Users to store
+     * @param chunkSize Number of rows per transaction
+     * @return Per-row outcome, indexed by position in the input collection
+     */
+    BatchResult addAll(Collection<? extends User> users, int chunkSize);
+
+    /**
+     * @return All users in no particular order
+     */
+    List<User> findAll();
+
+    /**
+     * @param username Username to look up
+     * @return User, or null if not found
+     */
+    User findByUsername(String username);
+
+    /**
+     * @param user User with updated fields, identified by its user ID
+     * @return true if a user was updated
+     */
+    boolean update(User user);
+
+    /**
+     * @param userId ID of the user to delete
+     * @return true if a user was deleted
+     */
+    boolean delete(String userId);
+
+    /**
+     * @param sortColumn One of userId or username
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of users to return
+     * @return Page of users in (sortColumn, userId) order
+     */
+    Page<User> findPage(String sortColumn, String cursor, int pageSize);
+
+    /**
+     * Find the cursor of a position some rows away from a known one. Cost grows with the distance.
+     * @param sortColumn One of userId or username
+     * @param from Cursor of a page; null for the start of the table when rows is
+     *             positive and for its end when rows is negative
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor making findPage() start at the new position, or null if that
+     * is the start of the table, lies past its end, or the query failed
+     */
+    String findCursor(String sortColumn, String from, int rows);
+
+    /**
+     * @return Number of users
+     */
+    int count();
+
+    /**
+     * @return Every user in user ID order; close the stream when done
+     */
+    Stream<User> stream();
+}
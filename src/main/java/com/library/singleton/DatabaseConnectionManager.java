@@ -1,47 +1,106 @@
 package com.library.singleton;
 
+import com.library.migration.Migrations;
+import com.library.migration.SchemaMigrator;
+import com.library.util.BackupManager;
+import com.library.util.ConnectionPool;
+import com.library.util.GroupCommitWriter;
+import com.library.util.PoolStatistics;
+
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * DatabaseConnectionManager class implementing Singleton Pattern.
  * 
- * Purpose: Manages database connection for the library system.
- * Ensures only one database connection instance exists throughout the application.
+ * Purpose: Manages database connections for the library system.
+ * Ensures only one set of connection pools exists throughout the application.
+ * The database runs in WAL mode with one writer connection (getConnection())
+ * and a pool of read-only connections (getReadConnection()). With group commit
+ * enabled, LibraryService sends its single-row writes through one
+ * GroupCommitWriter that commits them in batches. Online backups of the
+ * database are taken by its BackupManager, on demand or on a schedule.
  * 
  * OOP Concepts Used:
  * - Encapsulation: Private constructor and instance variable
  * 
  * Design Pattern: Singleton Pattern
  * Why Singleton: Database connections are expensive resources. 
- * Having a single connection instance ensures:
- * 1. Resource efficiency (one connection instead of multiple)
- * 2. Consistency (all parts of application use same connection)
+ * Having a single pool instance ensures:
+ * 1. Resource efficiency (a bounded number of connections is shared)
+ * 2. Consistency (all parts of application use the same pool and settings)
  * 3. Centralized connection management
+ *
+ * Pool settings can be overridden with system properties:
+ * library.db.url, library.db.pool.minSize, library.db.pool.maxSize (reader pool),
+ * library.db.pool.acquireTimeoutMillis, library.db.writer.acquireTimeoutMillis,
+ * library.db.pool.leakThresholdMillis, library.db.pool.leakTrace, library.db.statementCacheSize,
+ * library.db.busyTimeoutMillis, library.db.synchronous, library.db.cacheSizeKb,
+ * library.db.mmapSizeBytes, library.db.backfill.chunkSize, library.db.backfill.pauseMillis,
+ * library.db.groupCommit, library.db.groupCommit.maxBatchSize, library.db.groupCommit.maxDelayMillis,
+ * library.backup.dir, library.backup.keep, library.backup.compress,
+ * library.backup.intervalMinutes (0 disables scheduled backups)
  */
 public class DatabaseConnectionManager {
     // Singleton: Private static instance
     private static DatabaseConnectionManager instance;
     
-    // Encapsulation: Private connection
-    private Connection connection;
-    private String url = "jdbc:sqlite:library.db";
+    // Encapsulation: Private connection pools. SQLite allows one writer at a time,
+    // so all writes share a single connection; reads use read-only connections
+    // that WAL mode lets run alongside the writer.
+    private ConnectionPool pool;
+    private ConnectionPool readPool;
+    private SchemaMigrator migrator;
+    private GroupCommitWriter groupCommitWriter;
+    private BackupManager backupManager;
+    private String url = System.getProperty("library.db.url", "jdbc:sqlite:library.db");
+    private int minPoolSize = Integer.getInteger("library.db.pool.minSize", 1);
+    private int maxPoolSize = Integer.getInteger("library.db.pool.maxSize", 4);
+    private long acquireTimeoutMillis = Long.getLong("library.db.pool.acquireTimeoutMillis", 5000L);
+    private long writerAcquireTimeoutMillis = Long.getLong("library.db.writer.acquireTimeoutMillis", 30000L);
+    private long leakThresholdMillis = Long.getLong("library.db.pool.leakThresholdMillis", 30000L);
+    // Off by default: it captures a stack trace on every borrow
+    private boolean leakTrace = Boolean.getBoolean("library.db.pool.leakTrace");
+    private int statementCacheSize = Integer.getInteger("library.db.statementCacheSize", 64);
+    private int busyTimeoutMillis = Integer.getInteger("library.db.busyTimeoutMillis", 5000);
+    private boolean groupCommit = Boolean.getBoolean("library.db.groupCommit");
+    private int groupCommitMaxBatchSize = Integer.getInteger("library.db.groupCommit.maxBatchSize", 64);
+    private long groupCommitMaxDelayMillis = Long.getLong("library.db.groupCommit.maxDelayMillis", 2L);
+    // With group commit one fsync is shared by a whole batch, so every commit can afford to be durable
+    private String synchronousMode = System.getProperty("library.db.synchronous", groupCommit ? "FULL" : "NORMAL");
+    private int cacheSizeKb = Integer.getInteger("library.db.cacheSizeKb", 8192);
+    private long mmapSizeBytes = Long.getLong("library.db.mmapSizeBytes", 256L * 1024 * 1024);
+    private int backfillChunkSize = Integer.getInteger("library.db.backfill.chunkSize", 500);
+    private long backfillPauseMillis = Long.getLong("library.db.backfill.pauseMillis", 50L);
+    private String backupDir = System.getProperty("library.backup.dir", "backups");
+    private int backupKeep = Integer.getInteger("library.backup.keep", 7);
+    private boolean backupCompress = Boolean.getBoolean("library.backup.compress");
+    private long backupIntervalMinutes = Long.getLong("library.backup.intervalMinutes", 0L);
     
     // Singleton: Private constructor to prevent instantiation
+    // Throws IllegalStateException if the database cannot be initialized
     private DatabaseConnectionManager() {
-        try {
-            // Initialize SQLite database connection
-            connection = DriverManager.getConnection(url);
-            initializeDatabase();
-        } catch (SQLException e) {
-            System.err.println("Error creating database connection: " + e.getMessage());
+        pool = new ConnectionPool(url, 1, 1, writerAcquireTimeoutMillis,
+                leakThresholdMillis, leakTrace, statementCacheSize, this::configureWriteConnection);
+        initializeDatabase();
+        readPool = new ConnectionPool(url, minPoolSize, maxPoolSize, acquireTimeoutMillis,
+                leakThresholdMillis, leakTrace, statementCacheSize, this::configureReadConnection);
+        if (groupCommit) {
+            groupCommitWriter = new GroupCommitWriter(pool, groupCommitMaxBatchSize, groupCommitMaxDelayMillis);
+        }
+        backupManager = new BackupManager(url, Paths.get(backupDir), backupKeep, backupCompress, busyTimeoutMillis);
+        if (backupIntervalMinutes > 0) {
+            backupManager.schedule(backupIntervalMinutes);
         }
     }
     
     /**
      * Singleton: Global access point to get the instance
      * @return The single instance of DatabaseConnectionManager
+     * @throws IllegalStateException if the database cannot be opened or migrated
      */
     public static synchronized DatabaseConnectionManager getInstance() {
         if (instance == null) {
@@ -51,81 +110,148 @@ public class DatabaseConnectionManager {
     }
     
     /**
-     * Get the database connection
+     * Get the writer connection. There is only one, so keep it for as short
+     * as possible and do not request a second one while holding it.
+     * Closing the returned connection gives it back to the pool. Unlike the
+     * single shared connection this replaced, a failure to get one is thrown
+     * instead of printed, so callers handle it with the SQLExceptions of
+     * their statements rather than running on with a closed connection.
      * @return Connection object
+     * @throws SQLException if the writer does not become available within the acquire timeout
      */
-    public Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(url);
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+    
+    /**
+     * Get a read-only connection. Reads on it see the last committed state and
+     * neither block nor are blocked by the writer.
+     * Closing the returned connection gives it back to the pool.
+     * @return Connection object that rejects writes
+     * @throws SQLException if no connection becomes available within the acquire timeout
+     */
+    public Connection getReadConnection() throws SQLException {
+        return readPool.getConnection();
+    }
+    
+    /**
+     * Get the group commit writer
+     * @return Writer that batches single-row writes, or null if group commit is disabled
+     */
+    public GroupCommitWriter getGroupCommitWriter() {
+        return groupCommitWriter;
+    }
+    
+    /**
+     * Get the backup manager
+     * @return Manager that takes online snapshots of this database
+     */
+    public BackupManager getBackupManager() {
+        return backupManager;
+    }
+    
+    /**
+     * Get writer pool statistics
+     * @return Snapshot of active, idle and waiting counts and wait times
+     */
+    public PoolStatistics getPoolStatistics() {
+        return pool.getStatistics();
+    }
+    
+    /**
+     * Get reader pool statistics
+     * @return Snapshot of active, idle and waiting counts and wait times
+     */
+    public PoolStatistics getReadPoolStatistics() {
+        return readPool.getStatistics();
+    }
+    
+    /**
+     * Apply settings to the writer connection. Switching to WAL is persistent
+     * in the database file, so every later connection uses it too.
+     */
+    private void configureWriteConnection(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            configureCommon(stmt);
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = WAL")) {
+                String mode = rs.next() ? rs.getString(1) : "unknown";
+                if (!"wal".equalsIgnoreCase(mode)) {
+                    // e.g. in-memory databases, which cannot use WAL
+                    Logger.getInstance().logWarning("WAL journal mode not available, using " + mode);
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting database connection: " + e.getMessage());
+            // In WAL mode NORMAL only syncs at checkpoints; a power loss can drop the
+            // last commits but cannot corrupt the database
+            stmt.execute("PRAGMA synchronous = " + synchronousMode);
         }
-        return connection;
     }
     
     /**
-     * Initialize database tables
+     * Apply settings to a reader connection
+     */
+    private void configureReadConnection(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            configureCommon(stmt);
+            stmt.execute("PRAGMA query_only = 1");
+        }
+    }
+    
+    private void configureCommon(Statement stmt) throws SQLException {
+        // Wait for SQLite file locks held by other connections instead of failing
+        stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+        // Negative cache_size is in KiB rather than pages
+        stmt.execute("PRAGMA cache_size = -" + cacheSizeKb);
+        stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+    }
+    
+    /**
+     * Bring the schema up to date and start pending backfills. A failure is
+     * fatal: repositories pick the stored date form from the migrator, so
+     * running on without it could write values the schema does not expect.
+     * @throws IllegalStateException if the database cannot be initialized
      */
     private void initializeDatabase() {
+        migrator = new SchemaMigrator(pool, Migrations.all(), backfillChunkSize, backfillPauseMillis);
         try {
-            // Create books table
-            connection.createStatement().execute(
-                "CREATE TABLE IF NOT EXISTS books (" +
-                "isbn TEXT PRIMARY KEY, " +
-                "title TEXT NOT NULL, " +
-                "author TEXT NOT NULL, " +
-                "year INTEGER, " +
-                "category TEXT NOT NULL, " +
-                "isAvailable INTEGER DEFAULT 1)"
-            );
-            
-            // Create users table
-            connection.createStatement().execute(
-                "CREATE TABLE IF NOT EXISTS users (" +
-                "userId TEXT PRIMARY KEY, " +
-                "username TEXT UNIQUE NOT NULL, " +
-                "password TEXT NOT NULL, " +
-                "email TEXT NOT NULL, " +
-                "role TEXT NOT NULL)"
-            );
-            
-            // Create borrow_records table
-            connection.createStatement().execute(
-                "CREATE TABLE IF NOT EXISTS borrow_records (" +
-                "recordId TEXT PRIMARY KEY, " +
-                "userId TEXT NOT NULL, " +
-                "bookIsbn TEXT NOT NULL, " +
-                "borrowDate TEXT NOT NULL, " +
-                "returnDate TEXT, " +
-                "isReturned INTEGER DEFAULT 0, " +
-                "FOREIGN KEY (userId) REFERENCES users(userId), " +
-                "FOREIGN KEY (bookIsbn) REFERENCES books(isbn))"
-            );
+            migrator.migrate();
             
             // Create default admin user if not exists
-            connection.createStatement().execute(
-                "INSERT OR IGNORE INTO users (userId, username, password, email, role) " +
-                "VALUES ('admin001', 'admin', 'admin123', 'admin@library.com', 'Admin')"
-            );
+            try (Connection connection = pool.getConnection()) {
+                connection.createStatement().execute(
+                    "INSERT OR IGNORE INTO users (userId, username, password, email, role) " +
+                    "VALUES ('admin001', 'admin', 'admin123', 'admin@library.com', 'Admin')"
+                );
+            }
             
+            migrator.startBackfills();
         } catch (SQLException e) {
-            System.err.println("Error initializing database: " + e.getMessage());
+            Logger.getInstance().logError("Error initializing database: " + e.getMessage());
+            pool.close();
+            throw new IllegalStateException("Error initializing database: " + e.getMessage(), e);
         }
     }
     
     /**
-     * Close the database connection
+     * Get the schema migrator, e.g. to check backfill progress
+     * @return Migrator used at startup
+     */
+    public SchemaMigrator getSchemaMigrator() {
+        return migrator;
+    }
+    
+    /**
+     * Close all pooled database connections
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+        migrator.stop();
+        backupManager.close();
+        if (groupCommitWriter != null) {
+            groupCommitWriter.close();
         }
+        Logger.getInstance().logInfo("Closing reader pool: " + readPool.getStatistics());
+        readPool.close();
+        Logger.getInstance().logInfo("Closing writer pool: " + pool.getStatistics());
+        pool.close();
     }
 }
 
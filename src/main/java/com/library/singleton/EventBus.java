@@ -0,0 +1,256 @@
+package com.library.singleton;
+
+import com.library.event.EventsDropped;
+import com.library.event.LibraryEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * EventBus class implementing Singleton Pattern.
+ *
+ * Purpose: Carries the change events LibraryService publishes after each
+ * committed write (see com.library.event) to every subscriber in the
+ * process, e.g. a second window or a cache, so they can update without
+ * polling the database.
+ *
+ * publish() never blocks and never runs subscriber code: it puts the event
+ * into each subscriber's buffer and asks the subscriber's executor to drain
+ * it. Each subscriber receives its events in publish order, in batches, one
+ * batch at a time. A buffer holds at most one event per key: a newer event
+ * for the same book, loan or user replaces the waiting one, so a subscriber
+ * that falls behind skips intermediate states. A buffer holds at most
+ * capacity keys; when it overflows its events are discarded and the
+ * subscriber gets a single EventsDropped instead, telling it to re-read.
+ * A slow subscriber therefore costs memory of its own buffer only and
+ * never holds up writers or other subscribers.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Subscriber buffers and delivery are private
+ *
+ * Design Pattern: Singleton Pattern (and Observer Pattern)
+ * Why Singleton: LibraryService is created per screen and per tool, but a
+ * change made through any of them must reach every subscriber in the process.
+ */
+public class EventBus {
+
+    /**
+     * A subscriber's buffer and delivery state. Close it to stop receiving events.
+     */
+    public static class Subscription implements AutoCloseable {
+        private final EventBus bus;
+        private final String name;
+        private final Executor executor;
+        private final int capacity;
+        private final Consumer<List<LibraryEvent>> handler;
+        // Waiting events by key, oldest first; guarded by this
+        private final LinkedHashMap<String, LibraryEvent> pending = new LinkedHashMap<>();
+        private long dropped;
+        private boolean scheduled;
+        private boolean closed;
+        private long delivered;
+        private long coalesced;
+        private long droppedTotal;
+
+        Subscription(EventBus bus, String name, Executor executor, int capacity,
+                     Consumer<List<LibraryEvent>> handler) {
+            this.bus = bus;
+            this.name = name;
+            this.executor = executor;
+            this.capacity = capacity;
+            this.handler = handler;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Stop receiving events. A batch being delivered is finished; waiting events are discarded.
+         */
+        @Override
+        public void close() {
+            bus.subscriptions.remove(this);
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+                dropped = 0;
+            }
+        }
+
+        /**
+         * @return Events delivered, replaced by a newer one, and dropped on overflow
+         */
+        public synchronized String getStatistics() {
+            return name + "[delivered=" + delivered + ", coalesced=" + coalesced + ", dropped=" + droppedTotal
+                    + ", waiting=" + pending.size() + "]";
+        }
+
+        void offer(LibraryEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (dropped > 0) {
+                    // Already overflowed; the subscriber re-reads after EventsDropped anyway
+                    dropped++;
+                    droppedTotal++;
+                } else if (pending.remove(event.getKey()) != null) {
+                    coalesced++;
+                    pending.put(event.getKey(), event);
+                } else if (pending.size() < capacity) {
+                    pending.put(event.getKey(), event);
+                } else {
+                    dropped = pending.size() + 1;
+                    droppedTotal += dropped;
+                    pending.clear();
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    scheduled = false;
+                }
+                Logger.getInstance().logError("Event delivery to " + name + " rejected: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Deliver one batch, then hand the executor back before the next one
+         */
+        private void drain() {
+            List<LibraryEvent> batch;
+            synchronized (this) {
+                if (dropped > 0) {
+                    batch = Collections.singletonList(new EventsDropped(dropped));
+                    dropped = 0;
+                } else if (!pending.isEmpty()) {
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                } else {
+                    scheduled = false;
+                    return;
+                }
+                delivered += batch.size();
+            }
+            try {
+                handler.accept(Collections.unmodifiableList(batch));
+            } catch (RuntimeException e) {
+                Logger.getInstance().logError("Event subscriber " + name + " failed: " + e);
+            }
+            synchronized (this) {
+                if (pending.isEmpty() && dropped == 0) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            schedule();
+        }
+    }
+
+    /** Keys a subscriber's buffer holds unless a capacity is given */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("library.events.bufferSize", 1000);
+
+    private static EventBus instance;
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong published = new AtomicLong();
+    // Delivers to subscribers that bring no executor; one busy subscriber cannot hold up another
+    private final ExecutorService deliveryPool;
+
+    private EventBus() {
+        AtomicInteger count = new AtomicInteger();
+        deliveryPool = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "library-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the single instance of EventBus
+     * @return EventBus instance
+     */
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribe with the default buffer size, delivered on the bus's own threads
+     * @param name Name used in logs and statistics
+     * @param handler Receives batches of events, oldest first
+     * @return Subscription to close when done
+     */
+    public Subscription subscribe(String name, Consumer<List<LibraryEvent>> handler) {
+        return subscribe(name, deliveryPool, DEFAULT_CAPACITY, handler);
+    }
+
+    /**
+     * Subscribe to all events published from now on
+     * @param name Name used in logs and statistics
+     * @param executor Runs the deliveries, e.g. Platform::runLater for a screen; must not block
+     * @param capacity Most events waiting for this subscriber before they are dropped
+     * @param handler Receives batches of events, oldest first; never called concurrently
+     * @return Subscription to close when done
+     */
+    public Subscription subscribe(String name, Executor executor, int capacity,
+                                  Consumer<List<LibraryEvent>> handler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Event buffer capacity must be positive: " + capacity);
+        }
+        Subscription subscription = new Subscription(this, name, executor, capacity, handler);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Hand an event to every subscriber. Only call this once the change is committed.
+     * @param event Event to publish
+     */
+    public void publish(LibraryEvent event) {
+        published.incrementAndGet();
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * @return true if anyone is subscribed, so publishers can skip building events
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * @return Events published and the state of each subscriber
+     */
+    public String getStatistics() {
+        StringBuilder statistics = new StringBuilder("published=").append(published.get());
+        for (Subscription subscription : subscriptions) {
+            statistics.append(", ").append(subscription.getStatistics());
+        }
+        return statistics.toString();
+    }
+}
@@ -0,0 +1,906 @@
+package com.library.singleton;
+
+import com.library.model.Book;
+import com.library.util.IsbnValidator;
+import com.library.util.LibraryService;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * TypeaheadIndex class implementing Singleton Pattern.
+ *
+ * Purpose: In-memory prefix index over book title, author and ISBN for
+ * as-you-type lookup at the borrow desk. Suggestions are answered from memory
+ * without a database round trip.
+ *
+ * The bulk of the index is an immutable base made of flat arrays: the text of
+ * all books in one UTF-8 byte array, a sorted dictionary of distinct words in
+ * another, and each word's book list in one int array (compressed sparse row
+ * layout). There is no per-book or per-word object, so memory stays close to
+ * the size of the text itself. Edits go to a small delta plus a set of deleted
+ * base entries; once the delta grows past MAX_DELTA entries a background
+ * thread merges it into a new base.
+ *
+ * Reads are lock-free: every query works on one immutable snapshot that is
+ * swapped atomically by writers. Builds and merges are stamped in the order
+ * they start; a result older than the installed one is dropped, so a merge of
+ * a stale snapshot can never replace a newer build. LibraryService keeps the index current on
+ * addBook(s), updateBook and deleteBook once build() has been called.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Index layout is private; callers see suggest(), put() and remove()
+ *
+ * Design Pattern: Singleton Pattern
+ * Why Singleton: LibraryService is created per screen, but there must be one
+ * index per process that every screen reads and every write keeps current.
+ */
+public class TypeaheadIndex {
+
+    /**
+     * One suggested book
+     */
+    public static class Suggestion {
+        private final String isbn;
+        private final String title;
+        private final String author;
+
+        Suggestion(String isbn, String title, String author) {
+            this.isbn = isbn;
+            this.title = title;
+            this.author = author;
+        }
+
+        public String getIsbn() {
+            return isbn;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        @Override
+        public String toString() {
+            return title + " — " + author + " (" + isbn + ")";
+        }
+    }
+
+    /** Delta entries (edited books plus deleted base entries) that trigger a merge into a new base */
+    public static final int MAX_DELTA = 4096;
+    /** Postings examined per query at most; bounds one-letter queries on huge catalogs */
+    private static final int MAX_POSTINGS_SCANNED = 50000;
+    private static final char FIELD_SEPARATOR = '\u0001';
+    private static final Pattern ISBN_QUERY = Pattern.compile("[0-9Xx][0-9Xx\\- ]*");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static TypeaheadIndex instance;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(Base.EMPTY, new DeltaDoc[0], new BitSet());
+    private volatile boolean active;
+    // Edits made while builds or merges run; each result replays those made since it started.
+    // Guarded by writeLock, like the counters below.
+    private List<DeltaDoc> pendingEdits;
+    // Stamp of the last build or merge started, and of the one whose base is installed
+    private long startedStamp;
+    private long installedStamp;
+    private int running;
+
+    private TypeaheadIndex() {
+    }
+
+    /**
+     * Singleton: Global access point to get the instance
+     * @return The single instance of TypeaheadIndex
+     */
+    public static synchronized TypeaheadIndex getInstance() {
+        if (instance == null) {
+            instance = new TypeaheadIndex();
+        }
+        return instance;
+    }
+
+    // ========== Building ==========
+
+    /**
+     * Load the whole catalog from the database, replacing the current content.
+     * Edits made while the build runs are applied afterwards.
+     * @param libraryService Service to stream the catalog from
+     */
+    public void build(LibraryService libraryService) {
+        Build build = begin(true);
+        long start = System.currentTimeMillis();
+        Base base = null;
+        try (Stream<Book> books = libraryService.streamBooks()) {
+            base = Base.build(books.iterator());
+        } finally {
+            install(base, build);
+        }
+        Logger.getInstance().logInfo("Typeahead index built: " + base.docCount + " books, " + base.termCount()
+                + " words, " + (base.memoryBytes() / 1024) + " KiB in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Build the index on a background daemon thread
+     * @param libraryService Service to stream the catalog from
+     */
+    public void buildInBackground(LibraryService libraryService) {
+        Thread thread = new Thread(() -> build(libraryService), "typeahead-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Build the index from books that are already in memory, e.g. for benchmarks
+     * @param books Catalog to index
+     */
+    public void build(Iterator<? extends Book> books) {
+        Build build = begin(true);
+        Base base = null;
+        try {
+            base = Base.build(books);
+        } finally {
+            install(base, build);
+        }
+    }
+
+    /**
+     * @return true once build() has been called; edits are only tracked from then on
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return Number of books in the index
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current.base.docCount - current.deleted.cardinality() + current.delta.length;
+    }
+
+    /**
+     * @return Approximate heap size of the base arrays in bytes
+     */
+    public long memoryBytes() {
+        return snapshot.base.memoryBytes();
+    }
+
+    // ========== Edits ==========
+
+    /**
+     * Add a book or replace the entry with the same ISBN
+     * @param book Book as stored in the database
+     */
+    public void put(Book book) {
+        if (active) {
+            edit(Collections.singletonList(new DeltaDoc(book.getIsbn(), book.getTitle(), book.getAuthor())));
+        }
+    }
+
+    /**
+     * Add or replace several books with one snapshot swap
+     * @param books Books as stored in the database
+     */
+    public void putAll(Collection<? extends Book> books) {
+        if (!active || books.isEmpty()) {
+            return;
+        }
+        List<DeltaDoc> docs = new ArrayList<>(books.size());
+        for (Book book : books) {
+            docs.add(new DeltaDoc(book.getIsbn(), book.getTitle(), book.getAuthor()));
+        }
+        edit(docs);
+    }
+
+    /**
+     * Remove the entry with the given ISBN
+     * @param isbn ISBN of the deleted book
+     */
+    public void remove(String isbn) {
+        if (active) {
+            edit(Collections.singletonList(new DeltaDoc(isbn, null, null)));
+        }
+    }
+
+    /**
+     * Apply edits; a DeltaDoc without title is a removal
+     */
+    private void edit(List<DeltaDoc> edits) {
+        synchronized (writeLock) {
+            if (pendingEdits != null) {
+                pendingEdits.addAll(edits);
+            }
+            snapshot = snapshot.apply(edits);
+            maybeMerge();
+        }
+    }
+
+    /**
+     * Start a background merge of the delta into a new base if it has grown too large.
+     * Called with writeLock held.
+     */
+    private void maybeMerge() {
+        Snapshot source = snapshot;
+        if (running > 0 || source.delta.length + source.deleted.cardinality() < MAX_DELTA) {
+            return;
+        }
+        Build build = begin(false);
+        Thread thread = new Thread(() -> {
+            Base base = null;
+            try {
+                base = Base.build(source.liveDocs());
+            } finally {
+                install(base, build);
+            }
+        }, "typeahead-merge");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stamp a build or merge and start recording the edits made while it runs
+     * @param activate true for a build, which turns edit tracking on
+     */
+    private Build begin(boolean activate) {
+        synchronized (writeLock) {
+            if (activate) {
+                active = true;
+            }
+            if (pendingEdits == null) {
+                pendingEdits = new ArrayList<>();
+            }
+            running++;
+            return new Build(++startedStamp, pendingEdits.size());
+        }
+    }
+
+    /**
+     * Swap in a new base and replay the edits made while it was being built,
+     * unless a build or merge started later is already installed
+     * @param base New base, or null if building it failed
+     */
+    private void install(Base base, Build build) {
+        synchronized (writeLock) {
+            running--;
+            if (base != null && build.stamp > installedStamp) {
+                installedStamp = build.stamp;
+                List<DeltaDoc> edits = pendingEdits.subList(build.firstEdit, pendingEdits.size());
+                snapshot = new Snapshot(base, new DeltaDoc[0], new BitSet()).apply(edits);
+            }
+            if (running == 0) {
+                pendingEdits = null;
+            }
+            maybeMerge();
+        }
+    }
+
+    // ========== Queries ==========
+
+    /**
+     * Suggest books for what has been typed so far. Every word of the query
+     * must be the start of a word in the title or author. A query that looks
+     * like an ISBN is also matched against the start of the ISBN, so "978-0"
+     * finds ISBNs while "1984" still finds the title as well.
+     * @param query Text as typed
+     * @param limit Maximum number of suggestions
+     * @return Matching books in title order; empty if the query has no words
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        List<String[]> alternatives = queryAlternatives(query);
+        if (alternatives.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        List<Candidate> candidates = new ArrayList<>();
+        for (String[] words : alternatives) {
+            current.base.collect(words, limit, current.deleted, candidates);
+            for (DeltaDoc doc : current.delta) {
+                if (matches(doc.words, words)) {
+                    candidates.add(new Candidate(doc.title, doc.isbn, -1, doc));
+                }
+            }
+        }
+        candidates.sort(null);
+
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+        Candidate previous = null;
+        for (Candidate candidate : candidates) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            // A book matching both alternatives comes up twice, next to itself
+            if (previous != null && previous.compareTo(candidate) == 0) {
+                continue;
+            }
+            previous = candidate;
+            suggestions.add(candidate.delta != null
+                    ? new Suggestion(candidate.delta.isbn, candidate.delta.title, candidate.delta.author)
+                    : current.base.suggestion(candidate.baseDoc));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return Word lists a book may match: the query's words, and its ISBN term
+     *         if it looks like an ISBN and differs from them
+     */
+    private static List<String[]> queryAlternatives(String query) {
+        List<String[]> alternatives = new ArrayList<>(2);
+        if (query == null) {
+            return alternatives;
+        }
+        String trimmed = query.trim();
+        String[] words = words(trimmed).toArray(new String[0]);
+        if (words.length > 0) {
+            alternatives.add(words);
+        }
+        if (trimmed.length() >= 3 && ISBN_QUERY.matcher(trimmed).matches()) {
+            String[] isbn = {isbnTerm(trimmed)};
+            if (!Arrays.equals(isbn, words)) {
+                alternatives.add(isbn);
+            }
+        }
+        return alternatives;
+    }
+
+    // ========== Text normalization ==========
+
+    /**
+     * Lower-case, accent-free words of a text
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return words;
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        if (!isAscii(folded)) {
+            folded = COMBINING_MARKS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFD)).replaceAll("");
+        }
+        // Scanned by hand rather than with a regex split: this runs for every book on a build
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static String isbnTerm(String isbn) {
+        return IsbnValidator.normalize(isbn).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every query word is the start of some word of the book
+     */
+    private static boolean matches(List<String> docWords, String[] queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String docWord : docWords) {
+                if (docWord.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========== Internal structures ==========
+
+    /**
+     * A running build or merge: its stamp and the first pending edit it has not seen
+     */
+    private static class Build {
+        final long stamp;
+        final int firstEdit;
+
+        Build(long stamp, int firstEdit) {
+            this.stamp = stamp;
+            this.firstEdit = firstEdit;
+        }
+    }
+
+    /**
+     * A book edited since the base was built; title null means deleted
+     */
+    private static class DeltaDoc {
+        final String isbn;
+        final String title;
+        final String author;
+        final List<String> words;
+
+        DeltaDoc(String isbn, String title, String author) {
+            this.isbn = isbn;
+            this.title = title;
+            this.author = author;
+            this.words = title == null ? null : docWords(isbn, title, author);
+        }
+    }
+
+    private static List<String> docWords(String isbn, String title, String author) {
+        List<String> words = words(title);
+        words.addAll(words(author));
+        if (isbn != null && !isbn.isEmpty()) {
+            words.add(isbnTerm(isbn));
+        }
+        return words;
+    }
+
+    /**
+     * A matching book, ordered like the base: by title, then ISBN
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        final String title;
+        final String isbn;
+        final int baseDoc;
+        final DeltaDoc delta;
+
+        Candidate(String title, String isbn, int baseDoc, DeltaDoc delta) {
+            this.title = title;
+            this.isbn = isbn;
+            this.baseDoc = baseDoc;
+            this.delta = delta;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return compareTitles(title, isbn, other.title, other.isbn);
+        }
+    }
+
+    private static int compareTitles(String titleA, String isbnA, String titleB, String isbnB) {
+        int byTitle = titleA.compareToIgnoreCase(titleB);
+        return byTitle != 0 ? byTitle : isbnA.compareTo(isbnB);
+    }
+
+    /**
+     * Immutable view used by queries: base, delta and deleted base entries
+     */
+    private static class Snapshot {
+        final Base base;
+        final DeltaDoc[] delta;
+        final BitSet deleted;
+
+        Snapshot(Base base, DeltaDoc[] delta, BitSet deleted) {
+            this.base = base;
+            this.delta = delta;
+            this.deleted = deleted;
+        }
+
+        /**
+         * @return New snapshot with the edits applied; this one is unchanged
+         */
+        Snapshot apply(List<DeltaDoc> edits) {
+            if (edits.isEmpty()) {
+                return this;
+            }
+            Map<String, DeltaDoc> latest = new HashMap<>();
+            for (DeltaDoc edit : edits) {
+                latest.put(edit.isbn, edit);
+            }
+            BitSet newDeleted = deleted;
+            for (String isbn : latest.keySet()) {
+                int doc = base.find(isbn);
+                if (doc >= 0 && !newDeleted.get(doc)) {
+                    if (newDeleted == deleted) {
+                        newDeleted = (BitSet) deleted.clone();
+                    }
+                    newDeleted.set(doc);
+                }
+            }
+            List<DeltaDoc> newDelta = new ArrayList<>(delta.length + latest.size());
+            for (DeltaDoc doc : delta) {
+                if (!latest.containsKey(doc.isbn)) {
+                    newDelta.add(doc);
+                }
+            }
+            for (DeltaDoc doc : latest.values()) {
+                if (doc.title != null) {
+                    newDelta.add(doc);
+                }
+            }
+            return new Snapshot(base, newDelta.toArray(new DeltaDoc[0]), newDeleted);
+        }
+
+        /**
+         * @return All books in this snapshot, for merging into a new base
+         */
+        Iterator<String[]> liveDocs() {
+            List<String[]> docs = new ArrayList<>(base.docCount + delta.length);
+            for (int doc = 0; doc < base.docCount; doc++) {
+                if (!deleted.get(doc)) {
+                    docs.add(base.fields(doc));
+                }
+            }
+            for (DeltaDoc doc : delta) {
+                docs.add(new String[] {doc.isbn, doc.title, doc.author});
+            }
+            return docs.iterator();
+        }
+    }
+
+    /**
+     * Immutable array-based index over a set of books. Books are numbered in
+     * title order, so each word's book list is already sorted by title.
+     */
+    private static class Base {
+        static final Base EMPTY = new Base(0, new byte[0], new int[1], new byte[0], new int[1], new int[1], new int[0]);
+
+        final int docCount;
+        // UTF-8 "isbn \1 title \1 author" of book i at docText[docOffsets[i] .. docOffsets[i + 1])
+        final byte[] docText;
+        final int[] docOffsets;
+        // Distinct words, sorted by UTF-8 bytes (= code point order)
+        final byte[] termText;
+        final int[] termOffsets;
+        // Books containing word t: postingDocs[postingStart[t] .. postingStart[t + 1])
+        final int[] postingStart;
+        final int[] postingDocs;
+
+        Base(int docCount, byte[] docText, int[] docOffsets, byte[] termText, int[] termOffsets,
+             int[] postingStart, int[] postingDocs) {
+            this.docCount = docCount;
+            this.docText = docText;
+            this.docOffsets = docOffsets;
+            this.termText = termText;
+            this.termOffsets = termOffsets;
+            this.postingStart = postingStart;
+            this.postingDocs = postingDocs;
+        }
+
+        int termCount() {
+            return termOffsets.length - 1;
+        }
+
+        long memoryBytes() {
+            return docText.length + termText.length
+                    + 4L * (docOffsets.length + termOffsets.length + postingStart.length + postingDocs.length);
+        }
+
+        static Base build(Iterator<?> source) {
+            // Collect the books; source yields Book or String[] {isbn, title, author}
+            List<String[]> docs = new ArrayList<>();
+            while (source.hasNext()) {
+                Object next = source.next();
+                if (next instanceof Book) {
+                    Book book = (Book) next;
+                    docs.add(new String[] {book.getIsbn(), book.getTitle(), book.getAuthor()});
+                } else {
+                    docs.add((String[]) next);
+                }
+            }
+            docs.sort((a, b) -> compareTitles(a[1], a[0], b[1], b[0]));
+            int docCount = docs.size();
+
+            // Text arena and word ids; each book's word ids are kept until the postings are laid out
+            ByteArrayBuilder text = new ByteArrayBuilder(docCount * 48);
+            int[] docOffsets = new int[docCount + 1];
+            Map<String, Integer> termIds = new HashMap<>();
+            List<String> terms = new ArrayList<>();
+            int[][] docTerms = new int[docCount][];
+            for (int doc = 0; doc < docCount; doc++) {
+                String[] fields = docs.get(doc);
+                docOffsets[doc] = text.size();
+                text.append(fields[0] + FIELD_SEPARATOR + fields[1] + FIELD_SEPARATOR + fields[2]);
+                List<String> words = docWords(fields[0], fields[1], fields[2]);
+                int[] ids = new int[words.size()];
+                int distinct = 0;
+                for (String word : words) {
+                    Integer id = termIds.get(word);
+                    if (id == null) {
+                        id = terms.size();
+                        termIds.put(word, id);
+                        terms.add(word);
+                    }
+                    if (!contains(ids, distinct, id)) {
+                        ids[distinct++] = id;
+                    }
+                }
+                docTerms[doc] = distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+                docs.set(doc, null);
+            }
+            docOffsets[docCount] = text.size();
+
+            // Sort the dictionary by UTF-8 bytes and remap ids to sorted positions. String order
+            // is the same except around surrogate pairs, which need the slower byte comparison.
+            int termCount = terms.size();
+            String[] sorted = terms.toArray(new String[0]);
+            Arrays.sort(sorted);
+            if (hasSurrogates(sorted)) {
+                Arrays.sort(sorted, (a, b) -> compareBytes(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8)));
+            }
+            int[] rank = new int[termCount];
+            ByteArrayBuilder termText = new ByteArrayBuilder(termCount * 8);
+            int[] termOffsets = new int[termCount + 1];
+            for (int r = 0; r < termCount; r++) {
+                rank[termIds.get(sorted[r])] = r;
+                termOffsets[r] = termText.size();
+                termText.append(sorted[r].getBytes(StandardCharsets.UTF_8));
+            }
+            termOffsets[termCount] = termText.size();
+
+            // Postings: count per word, prefix sums, then fill in book order
+            int[] postingStart = new int[termCount + 1];
+            for (int[] ids : docTerms) {
+                for (int id : ids) {
+                    postingStart[rank[id] + 1]++;
+                }
+            }
+            for (int t = 0; t < termCount; t++) {
+                postingStart[t + 1] += postingStart[t];
+            }
+            int[] fill = Arrays.copyOf(postingStart, termCount);
+            int[] postingDocs = new int[postingStart[termCount]];
+            for (int doc = 0; doc < docCount; doc++) {
+                for (int id : docTerms[doc]) {
+                    postingDocs[fill[rank[id]]++] = doc;
+                }
+            }
+            return new Base(docCount, text.toArray(), docOffsets, termText.toArray(), termOffsets,
+                    postingStart, postingDocs);
+        }
+
+        /**
+         * Add up to limit matches for the query to the candidates, in title order.
+         * The book lists of all words matching the most selective query word are
+         * merged by book number, which is title order, so the first matches found
+         * are the first in title order; the other query words are checked on the text.
+         */
+        void collect(String[] words, int limit, BitSet deleted, List<Candidate> candidates) {
+            if (docCount == 0) {
+                return;
+            }
+            int[] driver = null;
+            for (String word : words) {
+                int[] range = prefixRange(word.getBytes(StandardCharsets.UTF_8));
+                if (driver == null || postings(range) < postings(driver)) {
+                    driver = range;
+                }
+            }
+            if (postings(driver) == 0) {
+                return;
+            }
+
+            // Min-heap of word ids keyed by the book at their current list position
+            int[] heap = new int[driver[1] - driver[0]];
+            int[] position = new int[heap.length];
+            int size = 0;
+            for (int term = driver[0]; term < driver[1]; term++) {
+                if (postingStart[term] < postingStart[term + 1]) {
+                    position[term - driver[0]] = postingStart[term];
+                    heap[size++] = term - driver[0];
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(heap, size, i, position);
+            }
+
+            int found = 0;
+            int scanned = 0;
+            int previous = -1;
+            while (size > 0 && found < limit && scanned < MAX_POSTINGS_SCANNED) {
+                int top = heap[0];
+                int doc = postingDocs[position[top]];
+                scanned++;
+                if (++position[top] == postingStart[driver[0] + top + 1]) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, size, 0, position);
+
+                // A book that contains several matching words comes up once per word
+                if (doc == previous || deleted.get(doc)) {
+                    continue;
+                }
+                previous = doc;
+                String[] fields = fields(doc);
+                if (words.length == 1 || matches(docWords(fields[0], fields[1], fields[2]), words)) {
+                    candidates.add(new Candidate(fields[1], fields[0], doc, null));
+                    found++;
+                }
+            }
+        }
+
+        private void siftDown(int[] heap, int size, int i, int[] position) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && postingDocs[position[heap[left]]] < postingDocs[position[heap[smallest]]]) {
+                    smallest = left;
+                }
+                if (right < size && postingDocs[position[heap[right]]] < postingDocs[position[heap[smallest]]]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int swap = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = swap;
+                i = smallest;
+            }
+        }
+
+        private int postings(int[] range) {
+            return postingStart[range[1]] - postingStart[range[0]];
+        }
+
+        /**
+         * @return [first, end) of the dictionary words starting with the prefix
+         */
+        int[] prefixRange(byte[] prefix) {
+            int low = 0;
+            int high = termCount();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparePrefix(mid, prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int first = low;
+            high = termCount();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparePrefix(mid, prefix) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return new int[] {first, low};
+        }
+
+        /**
+         * Compare word t with a prefix: 0 if the word starts with it
+         */
+        private int comparePrefix(int term, byte[] prefix) {
+            int start = termOffsets[term];
+            int length = termOffsets[term + 1] - start;
+            for (int i = 0; i < prefix.length; i++) {
+                if (i == length) {
+                    return -1;
+                }
+                int diff = (termText[start + i] & 0xFF) - (prefix[i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return Book number of the ISBN, or -1
+         */
+        int find(String isbn) {
+            if (isbn == null || isbn.isEmpty() || docCount == 0) {
+                return -1;
+            }
+            byte[] term = isbnTerm(isbn).getBytes(StandardCharsets.UTF_8);
+            int[] range = prefixRange(term);
+            for (int t = range[0]; t < range[1]; t++) {
+                if (termOffsets[t + 1] - termOffsets[t] != term.length) {
+                    continue;
+                }
+                for (int p = postingStart[t]; p < postingStart[t + 1]; p++) {
+                    int doc = postingDocs[p];
+                    if (fields(doc)[0].equals(isbn)) {
+                        return doc;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        String[] fields(int doc) {
+            String text = new String(docText, docOffsets[doc], docOffsets[doc + 1] - docOffsets[doc], StandardCharsets.UTF_8);
+            int first = text.indexOf(FIELD_SEPARATOR);
+            int second = text.indexOf(FIELD_SEPARATOR, first + 1);
+            return new String[] {text.substring(0, first), text.substring(first + 1, second), text.substring(second + 1)};
+        }
+
+        Suggestion suggestion(int doc) {
+            String[] fields = fields(doc);
+            return new Suggestion(fields[0], fields[1], fields[2]);
+        }
+    }
+
+    private static boolean contains(int[] ids, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSurrogates(String[] terms) {
+        for (String term : terms) {
+            for (int i = 0; i < term.length(); i++) {
+                if (Character.isSurrogate(term.charAt(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * Growable byte array
+     */
+    private static class ByteArrayBuilder {
+        private byte[] bytes;
+        private int size;
+
+        ByteArrayBuilder(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void append(String text) {
+            append(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void append(byte[] data) {
+            if (size + data.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + data.length));
+            }
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
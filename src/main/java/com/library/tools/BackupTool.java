@@ -0,0 +1,95 @@
+package com.library.tools;
+
+import com.library.singleton.DatabaseConnectionManager;
+import com.library.singleton.Logger;
+import com.library.util.BackupManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+/**
+ * BackupTool class - headless entry point for database backups.
+ *
+ * Purpose: Takes an online snapshot of the database, lists the snapshots in
+ * the backup directory, or restores one. backup and list may run while the
+ * application is open; restore must run while it is stopped. The backup
+ * directory and retention come from the library.backup.* properties.
+ *
+ * Usage: BackupTool backup | list | restore BACKUP_FILE
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Argument handling is private
+ *
+ * Design Pattern: None
+ */
+public class BackupTool {
+
+    /**
+     * Main method to run a backup command
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length == 0 || ("restore".equals(args[0]) ? args.length != 2 : args.length != 1)) {
+            usage();
+        }
+
+        int exitCode = 0;
+        try {
+            switch (args[0]) {
+                case "backup":
+                    backup();
+                    break;
+                case "list":
+                    list();
+                    break;
+                case "restore":
+                    restore(Paths.get(args[1]));
+                    break;
+                default:
+                    usage();
+            }
+        } catch (IOException | SQLException | IllegalArgumentException e) {
+            System.err.println(args[0] + " failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            Logger.getInstance().close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static void backup() throws IOException, SQLException {
+        DatabaseConnectionManager dbManager = DatabaseConnectionManager.getInstance();
+        try {
+            Path backup = dbManager.getBackupManager().backupNow();
+            System.out.println("Backup written to " + backup + " (" + Files.size(backup) + " bytes)");
+        } finally {
+            dbManager.closeConnection();
+        }
+    }
+
+    private static void list() throws IOException {
+        Path directory = Paths.get(System.getProperty("library.backup.dir", "backups"));
+        for (Path backup : BackupManager.listBackups(directory)) {
+            System.out.println(backup + "\t" + Files.size(backup) + " bytes");
+        }
+    }
+
+    private static void restore(Path backup) throws IOException, SQLException {
+        if (!Files.isRegularFile(backup)) {
+            throw new IOException("No such backup: " + backup);
+        }
+        Path database = BackupManager.databasePath(System.getProperty("library.db.url", "jdbc:sqlite:library.db"));
+        BackupManager.restore(backup, database);
+        System.out.println("Restored " + database + " from " + backup + "; the previous database was kept as "
+                + database + ".before-restore");
+        System.out.println("Loans made after the backup can be recovered with JournalReplayTool --apply");
+    }
+
+    private static void usage() {
+        System.err.println("Usage: BackupTool backup | list | restore BACKUP_FILE");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.tools;
+
+import com.library.singleton.DatabaseConnectionManager;
+import com.library.singleton.Logger;
+import com.library.util.BorrowHistoryExporter;
+import com.library.util.LibraryService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * ExportTool class - headless entry point for exporting borrow history.
+ *
+ * Purpose: Runs BorrowHistoryExporter from the command line, e.g. for nightly
+ * reports and audits.
+ *
+ * Usage: ExportTool csv|ndjson FILE
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Argument handling is private
+ *
+ * Design Pattern: None
+ */
+public class ExportTool {
+
+    /**
+     * Main method to run an export
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: ExportTool csv|ndjson FILE");
+            System.exit(2);
+        }
+        BorrowHistoryExporter.Format format;
+        try {
+            format = BorrowHistoryExporter.Format.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown format: " + args[0]);
+            System.exit(2);
+            return;
+        }
+
+        int exitCode = 0;
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            long count = new BorrowHistoryExporter(new LibraryService()).export(out, format);
+            System.out.println("Exported " + count + " borrow records");
+        } catch (IOException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            DatabaseConnectionManager.getInstance().closeConnection();
+            Logger.getInstance().close();
+        }
+        System.exit(exitCode);
+    }
+}
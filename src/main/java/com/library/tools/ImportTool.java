@@ -0,0 +1,94 @@
+package com.library.tools;
+
+import com.library.singleton.DatabaseConnectionManager;
+import com.library.singleton.Logger;
+import com.library.util.CatalogImporter;
+import com.library.util.ImportSummary;
+import com.library.util.LibraryService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * ImportTool class - headless entry point for bulk imports.
+ *
+ * Purpose: Runs CatalogImporter from the command line without starting the GUI.
+ *
+ * Usage: ImportTool books|users FILE [--threads N] [--chunk N]
+ * The format is taken from the file extension (.json, .jsonl and .ndjson are
+ * JSON Lines, anything else is CSV with a header line). Rejected lines go to
+ * FILE.rejects; an interrupted import resumes from FILE.checkpoint.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Argument handling is private
+ *
+ * Design Pattern: None
+ */
+public class ImportTool {
+
+    /**
+     * Main method to run an import
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ImportTool books|users FILE [--threads N] [--chunk N]");
+            System.exit(2);
+        }
+
+        CatalogImporter.RecordType type;
+        if (args[0].equalsIgnoreCase("books")) {
+            type = CatalogImporter.RecordType.BOOKS;
+        } else if (args[0].equalsIgnoreCase("users")) {
+            type = CatalogImporter.RecordType.USERS;
+        } else {
+            System.err.println("Unknown record type: " + args[0]);
+            System.exit(2);
+            return;
+        }
+        Path input = Paths.get(args[1]);
+
+        CatalogImporter importer = new CatalogImporter(new LibraryService());
+        for (int i = 2; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.err.println("Missing value for " + args[i]);
+                System.exit(2);
+            }
+            int value = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--threads":
+                    importer.setWorkerCount(value);
+                    break;
+                case "--chunk":
+                    importer.setChunkSize(value);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        importer.setProgressListener(progress -> System.out.println("Progress: " + progress));
+
+        int exitCode = 0;
+        try {
+            ImportSummary summary = importer.importFile(input, type, formatOf(input));
+            System.out.println("Done: " + summary);
+        } catch (IOException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            DatabaseConnectionManager.getInstance().closeConnection();
+            Logger.getInstance().close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static CatalogImporter.Format formatOf(Path input) {
+        String name = input.getFileName().toString().toLowerCase();
+        if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return CatalogImporter.Format.JSON_LINES;
+        }
+        return CatalogImporter.Format.CSV;
+    }
+}
@@ -0,0 +1,90 @@
+package com.library.tools;
+
+import com.library.singleton.DatabaseConnectionManager;
+import com.library.singleton.Logger;
+import com.library.util.CirculationJournal;
+import com.library.util.JournalReplayer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+/**
+ * JournalReplayTool class - headless entry point for recovering loans.
+ *
+ * Purpose: Reads the circulation journal and replays it into the database
+ * (see JournalReplayer), e.g. after restoring an older copy of library.db or
+ * after the borrow_records table was damaged. Run it while the application
+ * is stopped. Without --apply it only reports what it would change.
+ *
+ * Usage: JournalReplayTool [--apply] [--rebuild] [--list] [JOURNAL_DIR]
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Argument handling is private
+ *
+ * Design Pattern: None
+ */
+public class JournalReplayTool {
+
+    /**
+     * Main method to run a replay
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        boolean apply = false;
+        boolean rebuild = false;
+        boolean list = false;
+        String directory = System.getProperty("library.journal.dir", "journal");
+        for (String arg : args) {
+            switch (arg) {
+                case "--apply":
+                    apply = true;
+                    break;
+                case "--rebuild":
+                    rebuild = true;
+                    break;
+                case "--list":
+                    list = true;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        System.err.println("Usage: JournalReplayTool [--apply] [--rebuild] [--list] [JOURNAL_DIR]");
+                        System.exit(2);
+                    }
+                    directory = arg;
+            }
+        }
+        Path journal = Paths.get(directory);
+
+        int exitCode = 0;
+        try {
+            if (list) {
+                CirculationJournal.ScanSummary summary = CirculationJournal.scan(journal, System.out::println);
+                System.out.println(summary);
+                for (String slot : summary.getCorruptSlots()) {
+                    System.out.println("Corrupt record: " + slot);
+                }
+            } else {
+                JournalReplayer.Result result = new JournalReplayer(DatabaseConnectionManager.getInstance())
+                        .replay(journal, rebuild, !apply);
+                System.out.println(result);
+                for (String slot : result.getScan().getCorruptSlots()) {
+                    System.out.println("Skipped corrupt record: " + slot);
+                }
+                if (!apply) {
+                    System.out.println("Nothing was changed; run with --apply to replay");
+                }
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("Replay failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            if (!list) {
+                DatabaseConnectionManager.getInstance().closeConnection();
+            }
+            Logger.getInstance().close();
+        }
+        System.exit(exitCode);
+    }
+}
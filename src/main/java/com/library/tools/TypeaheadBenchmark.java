@@ -0,0 +1,211 @@
+package com.library.tools;
+
+import com.library.factory.BookFactory;
+import com.library.model.Book;
+import com.library.singleton.TypeaheadIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * TypeaheadBenchmark class - headless benchmark for TypeaheadIndex.
+ *
+ * Purpose: Builds the index over a synthetic catalog, measures suggestion
+ * latency for as-you-type queries (also while books are being edited) and
+ * compares a sample of answers with a brute-force scan. Exits with status 1
+ * if an answer differs.
+ *
+ * Usage: TypeaheadBenchmark [BOOKS] [QUERIES]   (default 1000000 x 100000)
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Data generation and checks are private
+ *
+ * Design Pattern: None
+ */
+public class TypeaheadBenchmark {
+    private static final int LIMIT = 10;
+    private static final int CHECKED_QUERIES = 200;
+    private static final String[] SYLLABLES = {
+        "ba", "ce", "di", "fo", "gu", "ha", "ke", "li", "mo", "nu", "pa", "re", "si", "to", "vu", "ra",
+        "an", "el", "in", "or", "ur", "ta", "ne", "lo"
+    };
+
+    /**
+     * Main method to run the benchmark
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        Random random = new Random(42);
+
+        String[] vocabulary = new String[20000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = randomWord(random);
+        }
+        List<Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            books.add(randomBook(random, vocabulary, i));
+        }
+
+        TypeaheadIndex index = TypeaheadIndex.getInstance();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        index.build(books.iterator());
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("Built %d books in %d ms; index arrays %d MiB, heap growth %d MiB%n",
+                index.size(), buildMillis, index.memoryBytes() >> 20, Math.max(0, heapAfter - heapBefore) >> 20);
+
+        String[] queries = new String[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = randomQuery(random, books.get(random.nextInt(bookCount)));
+        }
+        // Warm up the JIT before measuring
+        for (int i = 0; i < Math.min(queryCount, 20000); i++) {
+            index.suggest(queries[i], LIMIT);
+        }
+        report("Queries", measure(index, queries));
+
+        // Edit books while querying: enough to fill the delta and trigger background merges
+        Thread editor = new Thread(() -> {
+            Random editRandom = new Random(7);
+            for (int i = 0; i < 3 * TypeaheadIndex.MAX_DELTA; i++) {
+                int target = editRandom.nextInt(bookCount);
+                if (i % 3 == 0) {
+                    index.put(randomBook(editRandom, vocabulary, bookCount + i));
+                } else if (i % 3 == 1) {
+                    Book old = books.get(target);
+                    index.put(BookFactory.createBook(old.getCategory(), old.getIsbn(),
+                            old.getTitle() + " revised", old.getAuthor(), old.getYear()));
+                } else {
+                    index.remove(books.get(target).getIsbn());
+                }
+            }
+        }, "typeahead-editor");
+        editor.start();
+        report("Queries during edits", measure(index, queries));
+        try {
+            editor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Correctness against a brute-force scan of the original catalog
+        TypeaheadIndex.getInstance().build(books.iterator());
+        int mismatches = 0;
+        for (int i = 0; i < CHECKED_QUERIES; i++) {
+            String query = queries[i];
+            List<String> expected = bruteForce(books, query);
+            List<String> actual = new ArrayList<>();
+            for (TypeaheadIndex.Suggestion suggestion : index.suggest(query, LIMIT)) {
+                actual.add(suggestion.getIsbn());
+            }
+            if (!expected.equals(actual)) {
+                mismatches++;
+                System.out.println("Mismatch for '" + query + "': expected " + expected + ", got " + actual);
+            }
+        }
+        System.out.println("Checked " + CHECKED_QUERIES + " queries against a full scan: " + mismatches + " mismatches");
+        System.exit(mismatches == 0 ? 0 : 1);
+    }
+
+    private static long[] measure(TypeaheadIndex index, String[] queries) {
+        long[] nanos = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            index.suggest(queries[i], LIMIT);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String label, long[] nanos) {
+        System.out.printf("%s: %d, p50 %.1f us, p99 %.1f us, max %.1f us%n", label, nanos.length,
+                nanos[nanos.length / 2] / 1e3, nanos[(int) (nanos.length * 0.99)] / 1e3, nanos[nanos.length - 1] / 1e3);
+    }
+
+    /**
+     * Top suggestions by scanning every book: all query words must start a word, ordered by title then ISBN
+     */
+    private static List<String> bruteForce(List<Book> books, String query) {
+        String[] queryWords = query.toLowerCase(Locale.ROOT).trim().split(" +");
+        List<Book> matches = new ArrayList<>();
+        for (Book book : books) {
+            String[] words = (book.getTitle() + " " + book.getAuthor()).toLowerCase(Locale.ROOT).split(" +");
+            boolean all = true;
+            for (String queryWord : queryWords) {
+                boolean found = false;
+                for (String word : words) {
+                    if (word.startsWith(queryWord)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                matches.add(book);
+            }
+        }
+        matches.sort(Comparator.comparing(Book::getTitle, String.CASE_INSENSITIVE_ORDER).thenComparing(Book::getIsbn));
+        List<String> isbns = new ArrayList<>();
+        for (int i = 0; i < Math.min(LIMIT, matches.size()); i++) {
+            isbns.add(matches.get(i).getIsbn());
+        }
+        return isbns;
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static Book randomBook(Random random, String[] vocabulary, int number) {
+        StringBuilder title = new StringBuilder();
+        int words = 2 + random.nextInt(5);
+        for (int i = 0; i < words; i++) {
+            // Skewed towards the start of the vocabulary, like real titles
+            String word = vocabulary[(int) (vocabulary.length * Math.pow(random.nextDouble(), 3))];
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        String author = capitalize(randomWord(random)) + " " + capitalize(randomWord(random));
+        String isbn = String.format("978%010d", number);
+        return BookFactory.createBook(BookFactory.SOFTWARE_ENGINEERING, isbn, title.toString(), author, 1950 + random.nextInt(75));
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * What a user has typed so far while looking for the book: one or two words, the last one partial
+     */
+    private static String randomQuery(Random random, Book book) {
+        String[] words = (book.getTitle() + " " + book.getAuthor()).split(" ");
+        String first = words[random.nextInt(words.length)];
+        if (random.nextBoolean()) {
+            return first.substring(0, 1 + random.nextInt(first.length()));
+        }
+        String second = words[random.nextInt(words.length)];
+        return first + " " + second.substring(0, 1 + random.nextInt(second.length()));
+    }
+}
@@ -0,0 +1,340 @@
+package com.library.util;
+
+import com.library.model.Book;
+import com.library.model.BorrowRecord;
+import com.library.model.User;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * AsyncLibraryService class for running library operations in the background.
+ *
+ * Purpose: Offers every LibraryService operation as a CompletableFuture, run
+ * on a bounded pool of worker threads, so a dashboard or batch job can start
+ * many independent queries at once and combine the results. The futures can
+ * be cancelled, and withTimeout() gives a view whose calls fail with a
+ * TimeoutException when they take too long. Cancelling or timing out a call
+ * that has not started yet keeps it from running. One already running is
+ * never interrupted but left to finish, and its result is discarded: a write
+ * that is under way may commit whatever its caller does, so stopping it
+ * halfway would only skip the journal, cache and event work that follows.
+ *
+ * SQLite runs at most library.db.pool.maxSize reads and one write at a time,
+ * so more workers than that only queue inside the connection pools. The
+ * worker count is library.async.threads (default 4) and at most
+ * library.async.queueCapacity calls (default 1000) wait for a worker; calls
+ * beyond that fail with a RejectedExecutionException.
+ *
+ * Streaming queries are not offered, as their results hold a connection
+ * until the caller closes them.
+ *
+ * OOP Concepts Used:
+ * - Composition: Wraps a LibraryService
+ * - Encapsulation: Worker pool and cancellation are private
+ *
+ * Design Pattern: Facade Pattern (over LibraryService)
+ */
+public class AsyncLibraryService implements AutoCloseable {
+
+    /**
+     * Future of a submitted call; cancelling it also withdraws the call if it has not started
+     */
+    private static final class CallFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            stopTask();
+            return cancelled;
+        }
+
+        void stopTask() {
+            Future<?> queued = task;
+            if (queued != null) {
+                // Never interrupt: a running call is left to finish
+                queued.cancel(false);
+            }
+        }
+    }
+
+    private final LibraryService service;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final long timeoutMillis;
+
+    public AsyncLibraryService() {
+        this(new LibraryService());
+    }
+
+    /**
+     * @param service Service the calls run against
+     */
+    public AsyncLibraryService(LibraryService service) {
+        this(service, createExecutor(Integer.getInteger("library.async.threads", 4),
+                Integer.getInteger("library.async.queueCapacity", 1000)), true, 0);
+    }
+
+    /**
+     * @param service Service the calls run against
+     * @param executor Executor to run the calls on; not shut down by close()
+     */
+    public AsyncLibraryService(LibraryService service, ExecutorService executor) {
+        this(service, executor, false, 0);
+    }
+
+    private AsyncLibraryService(LibraryService service, ExecutorService executor, boolean ownsExecutor,
+                                long timeoutMillis) {
+        this.service = service;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Get a view of this service whose calls time out. The view shares the
+     * worker pool; closing it does nothing.
+     * @param timeout Longest time a call may take, including time spent waiting for a worker
+     * @param unit Unit of timeout
+     * @return Service whose futures fail with a TimeoutException after the timeout
+     */
+    public AsyncLibraryService withTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        return new AsyncLibraryService(service, executor, false, unit.toMillis(timeout));
+    }
+
+    /**
+     * Run any operation on the service in the background, e.g. several
+     * calls that belong together
+     * @param operation Operation to run
+     * @return Future of the operation's result
+     */
+    public <T> CompletableFuture<T> call(Function<LibraryService, T> operation) {
+        CallFuture<T> future = new CallFuture<>();
+        try {
+            future.task = executor.submit(() -> {
+                // Skip calls cancelled or timed out while they were queued
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(operation.apply(service));
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (timeoutMillis > 0) {
+            future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                future.stopTask();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Stop the worker pool if this service created it. Calls already
+     * submitted still run.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService createExecutor(int threads, int queueCapacity) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "library-async-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // ========== Book Operations ==========
+
+    public CompletableFuture<Boolean> addBook(Book book) {
+        return call(s -> s.addBook(book));
+    }
+
+    public CompletableFuture<BatchResult> addBooks(Collection<? extends Book> books) {
+        return call(s -> s.addBooks(books));
+    }
+
+    public CompletableFuture<BatchResult> addBooks(Collection<? extends Book> books, int chunkSize) {
+        return call(s -> s.addBooks(books, chunkSize));
+    }
+
+    public CompletableFuture<List<Book>> getAllBooks() {
+        return call(LibraryService::getAllBooks);
+    }
+
+    public CompletableFuture<List<Book>> getAvailableBooks() {
+        return call(LibraryService::getAvailableBooks);
+    }
+
+    public CompletableFuture<List<Book>> getAvailableBooksByCategory(String category) {
+        return call(s -> s.getAvailableBooksByCategory(category));
+    }
+
+    public CompletableFuture<List<Book>> searchBooks(String query, int limit) {
+        return call(s -> s.searchBooks(query, limit));
+    }
+
+    public CompletableFuture<List<Book>> searchBooks(String query, int limit, boolean availableOnly) {
+        return call(s -> s.searchBooks(query, limit, availableOnly));
+    }
+
+    public CompletableFuture<Book> getBookByIsbn(String isbn) {
+        return call(s -> s.getBookByIsbn(isbn));
+    }
+
+    public CompletableFuture<Boolean> updateBook(Book book) {
+        return call(s -> s.updateBook(book));
+    }
+
+    public CompletableFuture<Boolean> deleteBook(String isbn) {
+        return call(s -> s.deleteBook(isbn));
+    }
+
+    // ========== User Operations ==========
+
+    public CompletableFuture<Boolean> addUser(User user) {
+        return call(s -> s.addUser(user));
+    }
+
+    public CompletableFuture<BatchResult> addUsers(Collection<? extends User> users, int chunkSize) {
+        return call(s -> s.addUsers(users, chunkSize));
+    }
+
+    public CompletableFuture<List<User>> getAllUsers() {
+        return call(LibraryService::getAllUsers);
+    }
+
+    public CompletableFuture<User> getUserByUsername(String username) {
+        return call(s -> s.getUserByUsername(username));
+    }
+
+    public CompletableFuture<Boolean> updateUser(User user) {
+        return call(s -> s.updateUser(user));
+    }
+
+    public CompletableFuture<Boolean> deleteUser(String userId) {
+        return call(s -> s.deleteUser(userId));
+    }
+
+    // ========== Borrow/Return Operations ==========
+
+    public CompletableFuture<Boolean> borrowBook(String userId, String bookIsbn) {
+        return call(s -> s.borrowBook(userId, bookIsbn));
+    }
+
+    public CompletableFuture<Boolean> returnBook(String userId, String bookIsbn) {
+        return call(s -> s.returnBook(userId, bookIsbn));
+    }
+
+    public CompletableFuture<List<BorrowRecord>> getAllBorrowRecords() {
+        return call(LibraryService::getAllBorrowRecords);
+    }
+
+    public CompletableFuture<List<BorrowRecord>> getBorrowRecordsByUser(String userId) {
+        return call(s -> s.getBorrowRecordsByUser(userId));
+    }
+
+    public CompletableFuture<List<BorrowRecord>> getActiveBorrowRecordsByUser(String userId) {
+        return call(s -> s.getActiveBorrowRecordsByUser(userId));
+    }
+
+    public CompletableFuture<BorrowRecord> getOpenBorrowRecordForBook(String bookIsbn) {
+        return call(s -> s.getOpenBorrowRecordForBook(bookIsbn));
+    }
+
+    public CompletableFuture<List<BorrowRecord>> getBorrowRecordsBorrowedBetween(LocalDate from, LocalDate to) {
+        return call(s -> s.getBorrowRecordsBorrowedBetween(from, to));
+    }
+
+    public CompletableFuture<List<BorrowRecord>> getBorrowRecordsReturnedBetween(LocalDate from, LocalDate to) {
+        return call(s -> s.getBorrowRecordsReturnedBetween(from, to));
+    }
+
+    public CompletableFuture<List<BorrowRecord>> getOpenBorrowRecordsBorrowedBefore(LocalDate day) {
+        return call(s -> s.getOpenBorrowRecordsBorrowedBefore(day));
+    }
+
+    // ========== Paged Queries ==========
+
+    public CompletableFuture<Page<Book>> getBooksPage(String cursor, int pageSize) {
+        return call(s -> s.getBooksPage(cursor, pageSize));
+    }
+
+    public CompletableFuture<Page<Book>> getBooksPage(String sortColumn, String cursor, int pageSize) {
+        return call(s -> s.getBooksPage(sortColumn, cursor, pageSize));
+    }
+
+    public CompletableFuture<Page<User>> getUsersPage(String sortColumn, String cursor, int pageSize) {
+        return call(s -> s.getUsersPage(sortColumn, cursor, pageSize));
+    }
+
+    public CompletableFuture<Page<BorrowRecord>> getBorrowRecordsPage(String sortColumn, String cursor, int pageSize) {
+        return call(s -> s.getBorrowRecordsPage(sortColumn, cursor, pageSize));
+    }
+
+    public CompletableFuture<Page<Book>> getAvailableBooksPage(String cursor, int pageSize) {
+        return call(s -> s.getAvailableBooksPage(cursor, pageSize));
+    }
+
+    // ========== Page Cursors ==========
+
+    public CompletableFuture<String> getBooksCursor(String sortColumn, String from, int rows) {
+        return call(s -> s.getBooksCursor(sortColumn, from, rows));
+    }
+
+    public CompletableFuture<String> getAvailableBooksCursor(String from, int rows) {
+        return call(s -> s.getAvailableBooksCursor(from, rows));
+    }
+
+    public CompletableFuture<String> getUsersCursor(String sortColumn, String from, int rows) {
+        return call(s -> s.getUsersCursor(sortColumn, from, rows));
+    }
+
+    public CompletableFuture<String> getBorrowRecordsCursor(String sortColumn, String from, int rows) {
+        return call(s -> s.getBorrowRecordsCursor(sortColumn, from, rows));
+    }
+
+    public CompletableFuture<Integer> countBooks() {
+        return call(LibraryService::countBooks);
+    }
+
+    public CompletableFuture<Integer> countAvailableBooks() {
+        return call(LibraryService::countAvailableBooks);
+    }
+
+    public CompletableFuture<Integer> countUsers() {
+        return call(LibraryService::countUsers);
+    }
+
+    public CompletableFuture<Integer> countBorrowRecords() {
+        return call(LibraryService::countBorrowRecords);
+    }
+}
@@ -0,0 +1,299 @@
+package com.library.util;
+
+import com.library.singleton.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * BackupManager class for online snapshots of the database.
+ *
+ * Purpose: Writes consistent copies of the live database without stopping
+ * the application. A snapshot is taken with VACUUM INTO on a connection of
+ * its own: it reads the database inside one read transaction, which in WAL
+ * mode sees a fixed snapshot and neither waits for nor holds up the writer,
+ * so circulation carries on while the copy is written. The WAL that grew
+ * meanwhile is checkpointed on the same connection afterwards. Each snapshot is
+ * checked with PRAGMA quick_check, optionally gzipped, and only then renamed
+ * to library-yyyyMMdd-HHmmss-SSS.db (or .db.gz), so a half-written file never
+ * looks like a backup. After each snapshot only the newest keepCount are kept.
+ *
+ * Snapshots can be taken on demand (backupNow()) or on a schedule; restore()
+ * puts one back while the application is stopped.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Snapshot, compression and retention are private
+ *
+ * Design Pattern: None (owned by DatabaseConnectionManager)
+ */
+public class BackupManager {
+    private static final String PREFIX = "library-";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String SQLITE_URL_PREFIX = "jdbc:sqlite:";
+
+    private final String url;
+    private final Path directory;
+    private final int keepCount;
+    private final boolean compress;
+    private final int busyTimeoutMillis;
+    private final Logger logger = Logger.getInstance();
+    // Held while a snapshot is written, so scheduled and manual backups never overlap
+    private final Object backupLock = new Object();
+    private ScheduledExecutorService scheduler;
+    private volatile long backupCount;
+    private volatile long lastDurationMillis;
+    private volatile Path lastBackup;
+
+    /**
+     * Constructor for BackupManager
+     * @param url JDBC URL of the database to back up
+     * @param directory Directory the snapshots are written to; created if missing
+     * @param keepCount Snapshots to keep; older ones are deleted after each backup
+     * @param compress true to gzip snapshots
+     * @param busyTimeoutMillis How long the snapshot connection waits for SQLite locks
+     */
+    public BackupManager(String url, Path directory, int keepCount, boolean compress, int busyTimeoutMillis) {
+        if (keepCount < 1) {
+            throw new IllegalArgumentException("At least one backup must be kept");
+        }
+        this.url = url;
+        this.directory = directory;
+        this.keepCount = keepCount;
+        this.compress = compress;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * Take a snapshot every intervalMinutes on a background thread, the first
+     * one after a full interval
+     * @param intervalMinutes Minutes between snapshots
+     */
+    public synchronized void schedule(long intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            throw new IllegalArgumentException("Backup interval must be positive");
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "library-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledBackup, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        logger.logInfo("Backups scheduled every " + intervalMinutes + " minutes to " + directory);
+    }
+
+    /**
+     * Stop scheduled backups, waiting for one in progress to finish
+     */
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            running.awaitTermination(5, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take a snapshot now. Only one snapshot is written at a time.
+     * @return The new backup file
+     * @throws IOException if the snapshot cannot be written or compressed
+     * @throws SQLException if the database cannot be read or the snapshot fails its integrity check
+     */
+    public Path backupNow() throws IOException, SQLException {
+        synchronized (backupLock) {
+            long started = System.nanoTime();
+            Files.createDirectories(directory);
+            String name = PREFIX + LocalDateTime.now().format(TIMESTAMP) + ".db";
+            Path snapshot = directory.resolve(name + ".part");
+            Path target = directory.resolve(compress ? name + ".gz" : name);
+            try {
+                Files.deleteIfExists(snapshot);
+                try (Connection conn = DriverManager.getConnection(url);
+                     Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+                    stmt.execute("VACUUM INTO '" + snapshot.toString().replace("'", "''") + "'");
+                    // The WAL could not be checkpointed past the snapshot while it was read; catch up
+                    // here rather than in the next commit's automatic checkpoint, which would stall circulation
+                    stmt.execute("PRAGMA wal_checkpoint(PASSIVE)");
+                }
+                checkIntegrity(snapshot);
+                if (compress) {
+                    Path compressed = directory.resolve(name + ".gz.part");
+                    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), 65536)) {
+                        Files.copy(snapshot, out);
+                    }
+                    Files.delete(snapshot);
+                    snapshot = compressed;
+                }
+                Files.move(snapshot, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(directory.resolve(name + ".part"));
+                Files.deleteIfExists(directory.resolve(name + ".gz.part"));
+            }
+
+            lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            lastBackup = target;
+            backupCount++;
+            logger.logInfo("Backup written to " + target + " (" + Files.size(target) + " bytes, "
+                    + lastDurationMillis + " ms)");
+            prune();
+            return target;
+        }
+    }
+
+    /**
+     * List the backups in the backup directory
+     * @return Backup files, newest first
+     * @throws IOException if the directory cannot be read
+     */
+    public List<Path> listBackups() throws IOException {
+        return listBackups(directory);
+    }
+
+    /**
+     * @return Snapshots taken, last backup and its duration
+     */
+    public String getStatistics() {
+        return "backups=" + backupCount + ", last=" + (lastBackup == null ? "none" : lastBackup.getFileName())
+                + ", lastDurationMillis=" + lastDurationMillis;
+    }
+
+    /**
+     * List the backups in a directory
+     * @param directory Backup directory
+     * @return Backup files, newest first; empty if the directory does not exist
+     * @throws IOException if the directory cannot be read
+     */
+    public static List<Path> listBackups(Path directory) throws IOException {
+        List<Path> backups = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return backups;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*.{db,db.gz}")) {
+            for (Path file : files) {
+                backups.add(file);
+            }
+        }
+        // The timestamp in the name sorts chronologically
+        backups.sort(Collections.reverseOrder());
+        return backups;
+    }
+
+    /**
+     * Replace a database file with a backup. The application must be stopped.
+     * The current database and its WAL files are kept beside it with the
+     * suffix .before-restore.
+     * @param backup Backup file (.db or .db.gz)
+     * @param database Database file to replace
+     * @throws IOException if the files cannot be copied or moved
+     * @throws SQLException if the backup fails its integrity check; nothing was replaced then
+     */
+    public static void restore(Path backup, Path database) throws IOException, SQLException {
+        Path absolute = database.toAbsolutePath();
+        Path restoring = Paths.get(absolute + ".restoring");
+        try {
+            if (backup.getFileName().toString().endsWith(".gz")) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(backup), 65536)) {
+                    Files.copy(in, restoring, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                Files.copy(backup, restoring, StandardCopyOption.REPLACE_EXISTING);
+            }
+            checkIntegrity(restoring);
+
+            // Move the database together with its WAL, which may hold commits not yet checkpointed
+            for (String suffix : new String[] {"", "-wal", "-shm"}) {
+                Path file = Paths.get(absolute + suffix);
+                if (Files.exists(file)) {
+                    Files.move(file, Paths.get(absolute + ".before-restore" + suffix),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(restoring, absolute, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(restoring);
+        }
+        Logger.getInstance().logInfo("Restored " + absolute + " from " + backup);
+    }
+
+    /**
+     * Get the database file of a SQLite JDBC URL
+     * @param url JDBC URL, e.g. jdbc:sqlite:library.db
+     * @return Path of the database file
+     * @throws IllegalArgumentException if the URL does not name a SQLite file
+     */
+    public static Path databasePath(String url) {
+        if (!url.startsWith(SQLITE_URL_PREFIX) || url.contains(":memory:")) {
+            throw new IllegalArgumentException("Not a SQLite database file: " + url);
+        }
+        String path = url.substring(SQLITE_URL_PREFIX.length());
+        int options = path.indexOf('?');
+        return Paths.get(options >= 0 ? path.substring(0, options) : path);
+    }
+
+    private void scheduledBackup() {
+        try {
+            backupNow();
+        } catch (IOException | SQLException e) {
+            logger.logError("Scheduled backup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete all but the newest keepCount backups
+     */
+    private void prune() {
+        try {
+            List<Path> backups = listBackups(directory);
+            for (Path old : backups.subList(Math.min(keepCount, backups.size()), backups.size())) {
+                Files.delete(old);
+                logger.logInfo("Deleted old backup " + old);
+            }
+        } catch (IOException e) {
+            logger.logError("Error deleting old backups: " + e.getMessage());
+        }
+    }
+
+    private static void checkIntegrity(Path file) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(SQLITE_URL_PREFIX + file);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+            String result = rs.next() ? rs.getString(1) : "no result";
+            if (!"ok".equalsIgnoreCase(result)) {
+                throw new SQLException("Integrity check of " + file + " failed: " + result);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BatchResult class demonstrating Encapsulation.
+ *
+ * Purpose: Per-row outcome of a batch insert. Rows are identified by their
+ * position in the input collection; every row that is not listed as a
+ * failure was inserted.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Private counters with read-only accessors
+ *
+ * Design Pattern: None
+ */
+public class BatchResult {
+
+    /**
+     * A row that could not be inserted and why
+     */
+    public static class RowFailure {
+        private final int index;
+        private final String key;
+        private final String reason;
+
+        public RowFailure(int index, String key, String reason) {
+            this.index = index;
+            this.key = key;
+            this.reason = reason;
+        }
+
+        /** @return Position of the row in the input collection */
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return Primary key of the row (ISBN, user ID), may be null */
+        public String getKey() {
+            return key;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Row %d (%s): %s", index, key, reason);
+        }
+    }
+
+    private int totalCount;
+    private int successCount;
+    private final List<RowFailure> failures = new ArrayList<>();
+    private final BitSet failedRows = new BitSet();
+
+    /**
+     * Record that the row at the given index was inserted
+     */
+    public void recordSuccess(int index) {
+        totalCount++;
+        successCount++;
+    }
+
+    /**
+     * Record that the row at the given index was rejected
+     */
+    public void recordFailure(int index, String key, String reason) {
+        totalCount++;
+        failures.add(new RowFailure(index, key, reason));
+        failedRows.set(index);
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailureCount() {
+        return failures.size();
+    }
+
+    /**
+     * @param index Position of the row in the input collection
+     * @return true if the row was inserted
+     */
+    public boolean isSuccessful(int index) {
+        return index >= 0 && index < totalCount && !failedRows.get(index);
+    }
+
+    /**
+     * @return Rejected rows in input order
+     */
+    public List<RowFailure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows: %d inserted, %d failed", totalCount, successCount, failures.size());
+    }
+}
@@ -0,0 +1,146 @@
+package com.library.util;
+
+import com.library.model.BorrowRecord;
+import com.library.singleton.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * BorrowHistoryExporter class for exporting borrow records.
+ *
+ * Purpose: Writes every borrow record as CSV or NDJSON (one JSON object per line)
+ * while reading them from LibraryService.streamBorrowRecords(), so heap use stays
+ * flat regardless of how much history the database holds.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Formatting and escaping are private
+ *
+ * Design Pattern: None
+ */
+public class BorrowHistoryExporter {
+
+    /** Output encoding */
+    public enum Format { CSV, NDJSON }
+
+    private static final String CSV_HEADER = "recordId,userId,bookIsbn,borrowDate,returnDate,isReturned";
+
+    private final LibraryService libraryService;
+    private final Logger logger;
+
+    public BorrowHistoryExporter(LibraryService libraryService) {
+        this.libraryService = libraryService;
+        this.logger = Logger.getInstance();
+    }
+
+    /**
+     * Export all borrow records
+     * @param out Destination; it is flushed but not closed
+     * @param format CSV (with header line) or NDJSON
+     * @return Number of records written
+     * @throws IOException if writing or reading the records fails
+     */
+    public long export(Writer out, Format format) throws IOException {
+        long count = 0;
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+        try (Stream<BorrowRecord> records = libraryService.streamBorrowRecords()) {
+            Iterator<BorrowRecord> it = records.iterator();
+            while (it.hasNext()) {
+                BorrowRecord record = it.next();
+                if (format == Format.CSV) {
+                    writeCsv(out, record);
+                } else {
+                    writeJson(out, record);
+                }
+                count++;
+            }
+        } catch (IllegalStateException e) {
+            // Database error while the stream was being read
+            throw new IOException(e.getMessage(), e);
+        }
+        out.flush();
+        logger.logInfo("Exported " + count + " borrow records as " + format);
+        return count;
+    }
+
+    private void writeCsv(Writer out, BorrowRecord record) throws IOException {
+        out.write(csv(record.getRecordId()));
+        out.write(',');
+        out.write(csv(record.getUserId()));
+        out.write(',');
+        out.write(csv(record.getBookIsbn()));
+        out.write(',');
+        out.write(dateText(record.getBorrowDate()));
+        out.write(',');
+        out.write(dateText(record.getReturnDate()));
+        out.write(',');
+        out.write(record.isReturned() ? "1" : "0");
+        out.write('\n');
+    }
+
+    private void writeJson(Writer out, BorrowRecord record) throws IOException {
+        out.write("{\"recordId\":");
+        out.write(json(record.getRecordId()));
+        out.write(",\"userId\":");
+        out.write(json(record.getUserId()));
+        out.write(",\"bookIsbn\":");
+        out.write(json(record.getBookIsbn()));
+        out.write(",\"borrowDate\":");
+        out.write(json(record.getBorrowDate() == null ? null : record.getBorrowDate().toString()));
+        out.write(",\"returnDate\":");
+        out.write(json(record.getReturnDate() == null ? null : record.getReturnDate().toString()));
+        out.write(",\"isReturned\":");
+        out.write(record.isReturned() ? "true" : "false");
+        out.write("}\n");
+    }
+
+    private static String dateText(LocalDate date) {
+        return date == null ? "" : date.toString();
+    }
+
+    /**
+     * Quote a CSV value if it contains a separator, quote or line break
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Encode a JSON string literal, or null
+     */
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.library.util;
+
+/**
+ * CacheStatistics class demonstrating Encapsulation.
+ *
+ * Purpose: Immutable snapshot of LruCache usage, for logging and monitoring.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Private final fields with public getters
+ *
+ * Design Pattern: None
+ */
+public class CacheStatistics {
+    private final String name;
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+
+    public CacheStatistics(String name, int size, int maxSize, long hits, long misses,
+                           long evictions, long expirations, long invalidations) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** @return Entries currently cached */
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /** @return Lookups that went to the database, including expired entries */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** @return Entries dropped to make room for new ones */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** @return Entries dropped because their TTL had passed */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /** @return Entries dropped because the row was written */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /** @return Share of lookups served from the cache, between 0 and 1 */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: size=%d/%d, hits=%d, misses=%d, hitRatio=%.1f%%, evictions=%d, expirations=%d, invalidations=%d",
+                name, size, maxSize, hits, misses, getHitRatio() * 100, evictions, expirations, invalidations);
+    }
+}
@@ -0,0 +1,516 @@
+package com.library.util;
+
+import com.library.factory.BookFactory;
+import com.library.factory.UserFactory;
+import com.library.model.Book;
+import com.library.model.User;
+import com.library.singleton.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CatalogImporter class for streaming bulk imports of books and users.
+ *
+ * Purpose: Imports CSV or JSON Lines files of any size without loading them
+ * into memory. The file is processed in three stages connected by bounded queues:
+ * 1. The calling thread reads lines and groups them into chunks
+ * 2. Worker threads parse and validate chunks in parallel
+ *    (ISBN check digit, publication year range, category/role via the factories)
+ * 3. A writer thread inserts chunks in file order through the batch insert methods
+ *    of LibraryService, appends bad rows to a reject file and records a checkpoint
+ *
+ * The checkpoint is the number of data lines whose chunk has been committed.
+ * If a checkpoint file exists when an import starts, lines up to it are skipped,
+ * so an interrupted import can be restarted. The checkpoint file is removed
+ * after a complete run.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Pipeline stages and queues are private
+ * - Polymorphism: Records are built through BookFactory and UserFactory
+ *
+ * Design Pattern: None (uses Factory pattern)
+ */
+public class CatalogImporter {
+
+    /** What the import file contains */
+    public enum RecordType { BOOKS, USERS }
+
+    /** How each line of the import file is encoded */
+    public enum Format { CSV, JSON_LINES }
+
+    /**
+     * Receives progress updates from the writer thread after every committed chunk
+     */
+    public interface ProgressListener {
+        void onProgress(ImportSummary progress);
+    }
+
+    /** Earliest accepted publication year (printing press) */
+    public static final int MIN_YEAR = 1450;
+
+    private static final String[] BOOK_FIELDS = { "isbn", "title", "author", "year", "category" };
+    private static final String[] USER_FIELDS = { "userId", "username", "password", "email", "role" };
+
+    private final LibraryService libraryService;
+    private final Logger logger;
+    private int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int chunkSize = 5000;
+    private int queueCapacity = 4;
+    private ProgressListener progressListener;
+
+    public CatalogImporter(LibraryService libraryService) {
+        this.libraryService = libraryService;
+        this.logger = Logger.getInstance();
+    }
+
+    /** @param workerCount Number of parse/validate threads */
+    public void setWorkerCount(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+        }
+        this.workerCount = workerCount;
+    }
+
+    /** @param chunkSize Lines per chunk; each chunk is committed in its own transaction */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /** @param queueCapacity Chunks buffered between stages, per worker */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Import a file, writing rejects and the checkpoint next to it
+     * (input + ".rejects" and input + ".checkpoint")
+     * @param input File to import
+     * @param type Books or users
+     * @param format CSV (with header line) or JSON Lines
+     * @return Summary of the run
+     * @throws IOException if the input, reject or checkpoint file cannot be read or written
+     */
+    public ImportSummary importFile(Path input, RecordType type, Format format) throws IOException {
+        Path rejects = input.resolveSibling(input.getFileName() + ".rejects");
+        Path checkpoint = input.resolveSibling(input.getFileName() + ".checkpoint");
+        return importFile(input, type, format, rejects, checkpoint);
+    }
+
+    /**
+     * Import a file
+     * @param input File to import
+     * @param type Books or users
+     * @param format CSV (with header line) or JSON Lines
+     * @param rejectFile Where rejected lines are written (tab separated: line, reason, original text)
+     * @param checkpointFile Where the committed line count is stored
+     * @return Summary of the run
+     * @throws IOException if the input, reject or checkpoint file cannot be read or written
+     */
+    public ImportSummary importFile(Path input, RecordType type, Format format,
+                                    Path rejectFile, Path checkpointFile) throws IOException {
+        long resumeFrom = readCheckpoint(checkpointFile);
+        if (resumeFrom > 0) {
+            logger.logInfo("Resuming import of " + input + " after line " + resumeFrom);
+        }
+
+        BlockingQueue<RawChunk> parseQueue = new ArrayBlockingQueue<>(workerCount * queueCapacity);
+        BlockingQueue<ParsedChunk> writeQueue = new ArrayBlockingQueue<>(workerCount * queueCapacity);
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount + 1, r -> {
+            Thread thread = new Thread(r, "catalog-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long startNanos = System.nanoTime();
+        ImportWriter writer;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter rejectWriter = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, resumeFrom > 0 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+
+            List<String> header = null;
+            if (format == Format.CSV) {
+                String headerLine = reader.readLine();
+                if (headerLine == null) {
+                    return new ImportSummary(0, 0, 0, resumeFrom, 0, true);
+                }
+                header = new ArrayList<>();
+                for (String column : ImportRecordParser.parseCsvLine(headerLine)) {
+                    header.add(column.trim());
+                }
+            }
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                RecordParser parser = new RecordParser(type, format, header);
+                workers.add(executor.submit(() -> runWorker(parser, parseQueue, writeQueue)));
+            }
+            writer = new ImportWriter(type, writeQueue, rejectWriter, checkpointFile, resumeFrom, startNanos);
+            Future<?> writerFuture = executor.submit(writer);
+
+            long lineNumber = 0;
+            long sequence = 0;
+            List<String> lines = new ArrayList<>(chunkSize);
+            long chunkFirstLine = resumeFrom + 1;
+            String line;
+            // Stage 1: read and chunk
+            while ((line = reader.readLine()) != null && !writer.failed) {
+                lineNumber++;
+                if (lineNumber <= resumeFrom) {
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    put(parseQueue, new RawChunk(sequence++, chunkFirstLine, lines));
+                    chunkFirstLine = lineNumber + 1;
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                put(parseQueue, new RawChunk(sequence++, chunkFirstLine, lines));
+            }
+            for (int i = 0; i < workerCount; i++) {
+                put(parseQueue, RawChunk.END);
+            }
+
+            waitFor(workers);
+            put(writeQueue, ParsedChunk.END);
+            waitFor(Collections.singletonList(writerFuture));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ImportSummary summary = writer.snapshot(true);
+        if (writer.failure != null) {
+            throw new IOException("Import failed after line " + summary.getCheckpoint(), writer.failure);
+        }
+        Files.deleteIfExists(checkpointFile);
+        logger.logInfo("Import of " + input + " finished: " + summary);
+        return summary;
+    }
+
+    /**
+     * Stage 2: parse and validate chunks until the end marker arrives
+     */
+    private void runWorker(RecordParser parser, BlockingQueue<RawChunk> in, BlockingQueue<ParsedChunk> out) {
+        while (true) {
+            RawChunk chunk = take(in);
+            if (chunk == RawChunk.END) {
+                return;
+            }
+            ParsedChunk parsed = new ParsedChunk(chunk.sequence, chunk.firstLine, chunk.lines.size());
+            for (int i = 0; i < chunk.lines.size(); i++) {
+                String line = chunk.lines.get(i);
+                long lineNumber = chunk.firstLine + i;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    parsed.records.add(parser.parse(line));
+                    parsed.recordLines.add(lineNumber);
+                    parsed.recordText.add(line);
+                } catch (RuntimeException e) {
+                    // IllegalArgumentException from validation; anything else is still only this line's problem
+                    String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    parsed.rejects.add(new Reject(lineNumber, reason, line));
+                }
+            }
+            put(out, parsed);
+        }
+    }
+
+    private long readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String text = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt checkpoint file " + checkpointFile + ": " + text);
+        }
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        }
+    }
+
+    private static <T> T take(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        }
+    }
+
+    private static void waitFor(List<Future<?>> futures) throws IOException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } catch (java.util.concurrent.ExecutionException e) {
+                throw new IOException("Import stage failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Turns one line into a validated Book or User
+     */
+    private static class RecordParser {
+        private final RecordType type;
+        private final Format format;
+        private final List<String> header;
+        private final int maxYear = Year.now().getValue() + 1;
+
+        RecordParser(RecordType type, Format format, List<String> header) {
+            this.type = type;
+            this.format = format;
+            this.header = header;
+        }
+
+        Object parse(String line) {
+            Map<String, String> fields = format == Format.CSV
+                ? ImportRecordParser.parseCsvRecord(header, line)
+                : ImportRecordParser.parseJsonRecord(line);
+            return type == RecordType.BOOKS ? parseBook(fields) : parseUser(fields);
+        }
+
+        private Book parseBook(Map<String, String> fields) {
+            Map<String, String> values = require(fields, BOOK_FIELDS);
+            String isbn = IsbnValidator.normalize(values.get("isbn"));
+            if (!IsbnValidator.isValid(isbn)) {
+                throw new IllegalArgumentException("Invalid ISBN: " + values.get("isbn"));
+            }
+            int year;
+            try {
+                year = Integer.parseInt(values.get("year"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid year: " + values.get("year"));
+            }
+            if (year < MIN_YEAR || year > maxYear) {
+                throw new IllegalArgumentException("Year out of range " + MIN_YEAR + "-" + maxYear + ": " + year);
+            }
+            // Throws IllegalArgumentException for unknown categories
+            return BookFactory.createBook(values.get("category"), isbn, values.get("title"), values.get("author"), year);
+        }
+
+        private User parseUser(Map<String, String> fields) {
+            Map<String, String> values = require(fields, USER_FIELDS);
+            if (values.get("email").indexOf('@') < 1) {
+                throw new IllegalArgumentException("Invalid email: " + values.get("email"));
+            }
+            // Throws IllegalArgumentException for unknown roles
+            return UserFactory.createUser(values.get("role"), values.get("userId"), values.get("username"),
+                    values.get("password"), values.get("email"));
+        }
+
+        private Map<String, String> require(Map<String, String> fields, String[] names) {
+            Map<String, String> values = new HashMap<>();
+            for (String name : names) {
+                String value = fields.get(name);
+                if (value == null || value.trim().isEmpty()) {
+                    throw new IllegalArgumentException("Missing field: " + name);
+                }
+                values.put(name, value.trim());
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Stage 3: commits chunks in file order and advances the checkpoint
+     */
+    private class ImportWriter implements Runnable {
+        private static final long PROGRESS_INTERVAL_NANOS = 2_000_000_000L;
+
+        private final RecordType type;
+        private final BlockingQueue<ParsedChunk> in;
+        private final Writer rejectWriter;
+        private final Path checkpointFile;
+        private final long startNanos;
+        private final Map<Long, ParsedChunk> pending = new HashMap<>();
+        private long nextSequence;
+        private long checkpoint;
+        private long processed;
+        private long imported;
+        private long rejected;
+        private long lastProgressNanos;
+        private volatile boolean failed;
+        private volatile Exception failure;
+
+        ImportWriter(RecordType type, BlockingQueue<ParsedChunk> in, Writer rejectWriter,
+                     Path checkpointFile, long checkpoint, long startNanos) {
+            this.type = type;
+            this.in = in;
+            this.rejectWriter = rejectWriter;
+            this.checkpointFile = checkpointFile;
+            this.checkpoint = checkpoint;
+            this.startNanos = startNanos;
+            this.lastProgressNanos = startNanos;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                ParsedChunk chunk = take(in);
+                if (chunk == ParsedChunk.END) {
+                    return;
+                }
+                if (failed) {
+                    // Keep draining so the workers never block on a full queue
+                    continue;
+                }
+                pending.put(chunk.sequence, chunk);
+                try {
+                    ParsedChunk next;
+                    while ((next = pending.remove(nextSequence)) != null) {
+                        write(next);
+                        nextSequence++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.logError("Import writer failed: " + e.getMessage());
+                    failure = e;
+                    failed = true;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void write(ParsedChunk chunk) throws IOException {
+            List<Reject> rejects = new ArrayList<>(chunk.rejects);
+            if (!chunk.records.isEmpty()) {
+                BatchResult result = type == RecordType.BOOKS
+                    ? libraryService.addBooks((List<Book>) (List<?>) chunk.records, chunk.records.size())
+                    : libraryService.addUsers((List<User>) (List<?>) chunk.records, chunk.records.size());
+                for (BatchResult.RowFailure failure : result.getFailures()) {
+                    rejects.add(new Reject(chunk.recordLines.get(failure.getIndex()), failure.getReason(),
+                            chunk.recordText.get(failure.getIndex())));
+                }
+                imported += result.getSuccessCount();
+            }
+
+            rejects.sort((a, b) -> Long.compare(a.lineNumber, b.lineNumber));
+            for (Reject reject : rejects) {
+                rejectWriter.write(reject.lineNumber + "\t" + reject.reason.replace('\t', ' ') + "\t" + reject.text);
+                rejectWriter.write(System.lineSeparator());
+            }
+            rejectWriter.flush();
+            rejected += rejects.size();
+            processed += chunk.lineCount;
+            checkpoint = chunk.firstLine + chunk.lineCount - 1;
+            saveCheckpoint();
+
+            long now = System.nanoTime();
+            if (now - lastProgressNanos >= PROGRESS_INTERVAL_NANOS) {
+                lastProgressNanos = now;
+                ImportSummary progress = snapshot(false);
+                if (progressListener != null) {
+                    progressListener.onProgress(progress);
+                } else {
+                    logger.logInfo("Import progress: " + progress);
+                }
+            }
+        }
+
+        private void saveCheckpoint() throws IOException {
+            // Write then rename so a crash never leaves a half-written checkpoint
+            Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            Files.write(temp, Long.toString(checkpoint).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        ImportSummary snapshot(boolean complete) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            return new ImportSummary(processed, imported, rejected, checkpoint, elapsedMillis, complete && !failed);
+        }
+    }
+
+    /**
+     * Lines read from the file, in order
+     */
+    private static class RawChunk {
+        static final RawChunk END = new RawChunk(-1, 0, Collections.emptyList());
+
+        final long sequence;
+        final long firstLine;
+        final List<String> lines;
+
+        RawChunk(long sequence, long firstLine, List<String> lines) {
+            this.sequence = sequence;
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Validated records of one chunk plus the lines that failed validation
+     */
+    private static class ParsedChunk {
+        static final ParsedChunk END = new ParsedChunk(-1, 0, 0);
+
+        final long sequence;
+        final long firstLine;
+        final int lineCount;
+        final List<Object> records = new ArrayList<>();
+        final List<Long> recordLines = new ArrayList<>();
+        final List<String> recordText = new ArrayList<>();
+        final List<Reject> rejects = new ArrayList<>();
+
+        ParsedChunk(long sequence, long firstLine, int lineCount) {
+            this.sequence = sequence;
+            this.firstLine = firstLine;
+            this.lineCount = lineCount;
+        }
+    }
+
+    private static class Reject {
+        final long lineNumber;
+        final String reason;
+        final String text;
+
+        Reject(long lineNumber, String reason, String text) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package com.library.util;
+
+import com.library.model.BorrowRecord;
+import com.library.singleton.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * CirculationJournal class for an append-only log of borrows and returns.
+ *
+ * Purpose: Every committed borrow and return is also appended to a binary
+ * journal kept outside the database, so the loan history and the
+ * availability of books can be rebuilt if the database is damaged or
+ * restored from an older copy (see JournalReplayer).
+ *
+ * The journal is a directory of segment files of fixed-size 128-byte records,
+ * each with a CRC32. The current segment is memory-mapped, so appending is a
+ * copy into the page cache: it survives a crash of the process at once and an
+ * OS crash once the pages are synced, which a background thread does every
+ * syncIntervalMillis and rollover and close() do for the segment they finish.
+ * A full segment is synced and the next one created and mapped.
+ *
+ * Record layout (big-endian): magic int, type byte, version byte, 2 reserved
+ * bytes, sequence long, timestamp millis long, epoch day long, record ID
+ * (32 bytes), user ID (32 bytes), ISBN (28 bytes), CRC32 of bytes 4-123.
+ * Text fields are UTF-8, zero-padded. A return carries the ID of the borrow
+ * record it closed. The magic is written last, so a slot is
+ * either empty (all zero), complete, or detected as torn by its CRC.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Mapping, encoding and segment rollover are private
+ *
+ * Design Pattern: None (owned by SqliteStorageEngine)
+ */
+public class CirculationJournal {
+
+    /** Size of one journal record in bytes */
+    public static final int RECORD_SIZE = 128;
+    /** Records per segment unless configured otherwise (8 MiB segments) */
+    public static final int DEFAULT_SEGMENT_RECORDS = 65536;
+
+    public static final byte BORROW = 1;
+    public static final byte RETURN = 2;
+
+    private static final int MAGIC = 0x434A524E; // "CJRN"
+    private static final byte VERSION = 1;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final int DAY_OFFSET = 24;
+    private static final int RECORD_ID_OFFSET = 32;
+    private static final int USER_ID_OFFSET = 64;
+    private static final int ISBN_OFFSET = 96;
+    private static final int CRC_OFFSET = 124;
+    private static final int ID_FIELD_SIZE = 32;
+    private static final int ISBN_FIELD_SIZE = 28;
+
+    private static final String SEGMENT_PREFIX = "circulation-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String LOCK_FILE = "journal.lock";
+
+    /**
+     * One decoded journal record
+     */
+    public static class Entry {
+        private final byte type;
+        private final long sequence;
+        private final long timestampMillis;
+        private final LocalDate day;
+        private final String recordId;
+        private final String userId;
+        private final String bookIsbn;
+
+        Entry(byte type, long sequence, long timestampMillis, LocalDate day,
+              String recordId, String userId, String bookIsbn) {
+            this.type = type;
+            this.sequence = sequence;
+            this.timestampMillis = timestampMillis;
+            this.day = day;
+            this.recordId = recordId;
+            this.userId = userId;
+            this.bookIsbn = bookIsbn;
+        }
+
+        public boolean isBorrow() {
+            return type == BORROW;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        /**
+         * @return Borrow date of a borrow, return date of a return
+         */
+        public LocalDate getDay() {
+            return day;
+        }
+
+        /**
+         * @return ID of the borrow record borrowed or closed
+         */
+        public String getRecordId() {
+            return recordId;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getBookIsbn() {
+            return bookIsbn;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + sequence + " " + (isBorrow() ? "BORROW " : "RETURN ") + recordId + " " + bookIsbn
+                    + " by " + userId + " on " + day;
+        }
+    }
+
+    /**
+     * Counts from reading a journal
+     */
+    public static class ScanSummary {
+        private int segments;
+        private long entries;
+        private long borrows;
+        private long returns;
+        private long corrupt;
+        private long lastSequence = -1;
+        private final List<String> corruptSlots = new ArrayList<>();
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        public long getReturns() {
+            return returns;
+        }
+
+        /**
+         * @return Non-empty slots whose magic, version or CRC is wrong, e.g. torn writes
+         */
+        public long getCorrupt() {
+            return corrupt;
+        }
+
+        /**
+         * @return Highest sequence number read, or -1 if there are no entries
+         */
+        public long getLastSequence() {
+            return lastSequence;
+        }
+
+        /**
+         * @return Segment file and slot of each corrupt record
+         */
+        public List<String> getCorruptSlots() {
+            return Collections.unmodifiableList(corruptSlots);
+        }
+
+        @Override
+        public String toString() {
+            return segments + " segments, " + entries + " entries (" + borrows + " borrows, " + returns
+                    + " returns), " + corrupt + " corrupt";
+        }
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final Logger logger = Logger.getInstance();
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final Thread syncThread;
+
+    // Guarded by this
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer segment;
+    private long segmentNumber;
+    private int segmentCapacity;
+    private int slot;
+    private long nextSequence;
+    private long appended;
+    private long failed;
+    private boolean closed;
+
+    private CirculationJournal(Path directory, int segmentRecords, long syncIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(directory);
+
+        // Two writers appending to the same segment would overwrite each other
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already open in this process
+            acquired = null;
+        } catch (IOException e) {
+            lockChannel.close();
+            throw e;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IOException("Journal " + directory + " is already open");
+        }
+        lock = acquired;
+
+        try {
+            recover();
+        } catch (IOException e) {
+            lock.release();
+            lockChannel.close();
+            throw e;
+        }
+
+        if (syncIntervalMillis > 0) {
+            syncThread = new Thread(() -> syncLoop(syncIntervalMillis), "circulation-journal-sync");
+            syncThread.setDaemon(true);
+            syncThread.start();
+        } else {
+            syncThread = null;
+        }
+    }
+
+    /**
+     * Open a journal for appending, creating the directory if needed. Appends
+     * continue after the last non-empty slot; a torn record is left in place
+     * and skipped by readers.
+     * @param directory Directory of the segment files
+     * @param segmentRecords Records per new segment
+     * @param syncIntervalMillis How often written pages are synced to disk; 0 for only on rollover and close
+     * @return Open journal
+     * @throws IOException if the journal cannot be read or is already open, in this or another process
+     */
+    public static CirculationJournal open(Path directory, int segmentRecords, long syncIntervalMillis)
+            throws IOException {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("Segment records must be positive: " + segmentRecords);
+        }
+        return new CirculationJournal(directory, segmentRecords, syncIntervalMillis);
+    }
+
+    /**
+     * Find where the previous run stopped and map that segment
+     */
+    private void recover() throws IOException {
+        List<Long> numbers = segmentNumbers(directory);
+        if (numbers.isEmpty()) {
+            nextSequence = 0;
+            mapSegment(1);
+            return;
+        }
+
+        long lastSequence = -1;
+        for (int i = numbers.size() - 1; i >= 0 && lastSequence < 0; i--) {
+            lastSequence = scanSegment(segmentPath(directory, numbers.get(i)), null, new ScanSummary());
+        }
+        nextSequence = lastSequence + 1;
+
+        long last = numbers.get(numbers.size() - 1);
+        mapSegment(last);
+        int used = 0;
+        for (int i = 0; i < segmentCapacity; i++) {
+            if (!isEmptySlot(segment, i * RECORD_SIZE)) {
+                used = i + 1;
+            }
+        }
+        slot = used;
+        if (slot == segmentCapacity) {
+            mapSegment(last + 1);
+        }
+    }
+
+    /**
+     * Map a segment for writing, creating it at the configured size if it does not exist.
+     * Appends run on the caller's thread, which may be interrupted, e.g. by a cancelled
+     * AsyncLibraryService call, and an interrupt closes a FileChannel in the middle of
+     * a call. The interrupt is therefore held back while mapping and set again afterwards.
+     */
+    private void mapSegment(long number) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    mapSegmentFile(number);
+                    return;
+                } catch (ClosedByInterruptException e) {
+                    // Interrupted during the call; the file is closed, so open it again
+                    interrupted = true;
+                    Thread.interrupted();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void mapSegmentFile(long number) throws IOException {
+        Path path = segmentPath(directory, number);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long length = file.length();
+            if (length == 0) {
+                length = (long) segmentRecords * RECORD_SIZE;
+                file.setLength(length);
+            }
+            segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+        segmentNumber = number;
+        segmentCapacity = segment.capacity() / RECORD_SIZE;
+        slot = 0;
+    }
+
+    // ========== Appending ==========
+
+    /**
+     * Journal a committed borrow
+     * @param record The new borrow record
+     * @return true if appended; false if a field does not fit or the journal failed
+     */
+    public boolean appendBorrow(BorrowRecord record) {
+        return append(BORROW, record.getBorrowDate(), record.getRecordId(), record.getUserId(), record.getBookIsbn());
+    }
+
+    /**
+     * Journal a committed return
+     * @param recordId ID of the borrow record the return closed
+     * @param userId User who returned the book
+     * @param bookIsbn ISBN of the book
+     * @param returnDate Day of the return
+     * @return true if appended; false if a field does not fit or the journal failed
+     */
+    public boolean appendReturn(String recordId, String userId, String bookIsbn, LocalDate returnDate) {
+        return append(RETURN, returnDate, recordId, userId, bookIsbn);
+    }
+
+    private synchronized boolean append(byte type, LocalDate day, String recordId, String userId, String bookIsbn) {
+        if (closed || segment == null) {
+            failed++;
+            return false;
+        }
+
+        Arrays.fill(scratch, (byte) 0);
+        scratch[4] = type;
+        scratch[5] = VERSION;
+        scratchBuffer.putLong(SEQUENCE_OFFSET, nextSequence);
+        scratchBuffer.putLong(TIMESTAMP_OFFSET, System.currentTimeMillis());
+        scratchBuffer.putLong(DAY_OFFSET, day.toEpochDay());
+        if (!putText(RECORD_ID_OFFSET, ID_FIELD_SIZE, recordId)
+                || !putText(USER_ID_OFFSET, ID_FIELD_SIZE, userId)
+                || !putText(ISBN_OFFSET, ISBN_FIELD_SIZE, bookIsbn)) {
+            failed++;
+            logger.logWarning("Not journaled, field too long: " + bookIsbn + " by user: " + userId);
+            return false;
+        }
+        crc.reset();
+        crc.update(scratch, 4, CRC_OFFSET - 4);
+        scratchBuffer.putInt(CRC_OFFSET, (int) crc.getValue());
+
+        int offset = slot * RECORD_SIZE;
+        segment.position(offset + 4);
+        segment.put(scratch, 4, RECORD_SIZE - 4);
+        segment.putInt(offset, MAGIC);
+        nextSequence++;
+        appended++;
+
+        if (++slot == segmentCapacity) {
+            try {
+                segment.force();
+                mapSegment(segmentNumber + 1);
+            } catch (IOException e) {
+                // Without a segment to write to, later appends fail until restart
+                segment = null;
+                logger.logError("Error rolling over circulation journal: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private boolean putText(int offset, int size, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > size) {
+            return false;
+        }
+        System.arraycopy(bytes, 0, scratch, offset, bytes.length);
+        return true;
+    }
+
+    // ========== Syncing and Closing ==========
+
+    /**
+     * Write the pages of the current segment to disk
+     */
+    public void sync() {
+        MappedByteBuffer current;
+        synchronized (this) {
+            current = segment;
+        }
+        // Outside the lock: a sync can take milliseconds and appends must not wait for it
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    private void syncLoop(long intervalMillis) {
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Sync and close the journal; later appends return false
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (syncThread != null) {
+            syncThread.interrupt();
+        }
+        MappedByteBuffer current;
+        synchronized (this) {
+            current = segment;
+            segment = null;
+        }
+        if (current != null) {
+            current.force();
+        }
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            logger.logError("Error closing circulation journal: " + e.getMessage());
+        }
+        logger.logInfo("Closing circulation journal: " + getStatistics());
+    }
+
+    /**
+     * @return Appended and failed counts and the write position
+     */
+    public synchronized String getStatistics() {
+        return "appended=" + appended + ", failed=" + failed + ", nextSequence=" + nextSequence
+                + ", segment=" + segmentNumber + ", slot=" + slot;
+    }
+
+    // ========== Reading ==========
+
+    /**
+     * Read every intact entry of a journal in sequence order. The journal may be
+     * open for appending meanwhile; entries appended during the scan may be missed.
+     * @param directory Directory of the segment files
+     * @param visitor Receives each entry
+     * @return Counts of entries and corrupt records
+     * @throws IOException if a segment cannot be read
+     */
+    public static ScanSummary scan(Path directory, Consumer<Entry> visitor) throws IOException {
+        ScanSummary summary = new ScanSummary();
+        for (long number : segmentNumbers(directory)) {
+            long last = scanSegment(segmentPath(directory, number), visitor, summary);
+            summary.lastSequence = Math.max(summary.lastSequence, last);
+            summary.segments++;
+        }
+        return summary;
+    }
+
+    /**
+     * @return Highest sequence number in the segment, or -1 if it has no intact entry
+     */
+    private static long scanSegment(Path path, Consumer<Entry> visitor, ScanSummary summary) throws IOException {
+        long lastSequence = -1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int slots = (int) (channel.size() / RECORD_SIZE);
+            byte[] record = new byte[RECORD_SIZE];
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < slots; i++) {
+                int offset = i * RECORD_SIZE;
+                if (isEmptySlot(buffer, offset)) {
+                    continue;
+                }
+                buffer.position(offset);
+                buffer.get(record);
+                Entry entry = decode(record, crc);
+                if (entry == null) {
+                    summary.corrupt++;
+                    summary.corruptSlots.add(path.getFileName() + "#" + i);
+                    continue;
+                }
+                summary.entries++;
+                if (entry.isBorrow()) {
+                    summary.borrows++;
+                } else {
+                    summary.returns++;
+                }
+                lastSequence = Math.max(lastSequence, entry.getSequence());
+                if (visitor != null) {
+                    visitor.accept(entry);
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * @return The entry, or null if the record is torn or not a journal record
+     */
+    private static Entry decode(byte[] record, CRC32 crc) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        crc.reset();
+        crc.update(record, 4, CRC_OFFSET - 4);
+        byte type = record[4];
+        if (buffer.getInt(0) != MAGIC || record[5] != VERSION || buffer.getInt(CRC_OFFSET) != (int) crc.getValue()
+                || (type != BORROW && type != RETURN)) {
+            return null;
+        }
+        return new Entry(type, buffer.getLong(SEQUENCE_OFFSET), buffer.getLong(TIMESTAMP_OFFSET),
+                LocalDate.ofEpochDay(buffer.getLong(DAY_OFFSET)),
+                getText(record, RECORD_ID_OFFSET, ID_FIELD_SIZE),
+                getText(record, USER_ID_OFFSET, ID_FIELD_SIZE),
+                getText(record, ISBN_OFFSET, ISBN_FIELD_SIZE));
+    }
+
+    private static String getText(byte[] record, int offset, int size) {
+        int length = 0;
+        while (length < size && record[offset + length] != 0) {
+            length++;
+        }
+        return new String(record, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isEmptySlot(ByteBuffer buffer, int offset) {
+        for (int i = 0; i < RECORD_SIZE; i += 8) {
+            if (buffer.getLong(offset + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========== Segment Files ==========
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @return Numbers of the segment files in the directory, ascending; empty if it does not exist
+     */
+    private static List<Long> segmentNumbers(Path directory) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return numbers;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String digits = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    numbers.add(Long.parseLong(digits));
+                } catch (NumberFormatException e) {
+                    // Not a segment of ours
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
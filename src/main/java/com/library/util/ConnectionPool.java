@@ -0,0 +1,384 @@
+package com.library.util;
+
+import com.library.singleton.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPool class for sharing a bounded set of JDBC connections.
+ *
+ * Purpose: Hands out pooled connections to the service layer so concurrent
+ * screens and background jobs do not queue behind a single connection.
+ * Connections are validated when borrowed, returned to the pool when the
+ * caller closes them, and reported when they are held for too long. Where a
+ * leaked connection was taken is only recorded with lease tracing on, since
+ * capturing a stack trace on every borrow costs more than the borrow itself.
+ * Each physical connection keeps its own StatementCache, so prepareStatement()
+ * on a pooled connection reuses already compiled statements.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Idle/leased bookkeeping is hidden behind getConnection() and close()
+ *
+ * Design Pattern: None (owned by the DatabaseConnectionManager singleton)
+ */
+public class ConnectionPool {
+
+    /**
+     * Callback run once on every new physical connection (e.g. to set PRAGMAs)
+     */
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    // Encapsulation: Private configuration
+    private final String url;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean traceLeases;
+    private final int statementCacheSize;
+    private final ConnectionInitializer initializer;
+    private final Logger logger;
+
+    // Pool state
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Statistics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    /**
+     * Constructor for ConnectionPool
+     * @param url JDBC URL of the database
+     * @param minSize Number of connections opened up front and kept idle
+     * @param maxSize Maximum number of connections open at the same time
+     * @param acquireTimeoutMillis How long getConnection() waits for a free connection
+     * @param leakThresholdMillis How long a connection may be held before it is reported as leaked (0 disables)
+     * @param traceLeases Record the caller of every borrow, so a leak report says where the connection was taken
+     * @param statementCacheSize Prepared statements cached per connection (0 disables)
+     * @param initializer Callback run on every new physical connection, may be null
+     */
+    public ConnectionPool(String url, int minSize, int maxSize, long acquireTimeoutMillis,
+                          long leakThresholdMillis, boolean traceLeases, int statementCacheSize,
+                          ConnectionInitializer initializer) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.traceLeases = traceLeases && leakThresholdMillis > 0;
+        this.statementCacheSize = statementCacheSize;
+        this.initializer = initializer;
+        this.logger = Logger.getInstance();
+        this.permits = new Semaphore(maxSize, true);
+
+        for (int i = 0; i < minSize; i++) {
+            try {
+                idle.offer(openPhysicalConnection());
+            } catch (SQLException e) {
+                logger.logError("Error pre-filling connection pool: " + e.getMessage());
+                break;
+            }
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (leakThresholdMillis > 0) {
+            long period = Math.max(1000, leakThresholdMillis / 2);
+            housekeeper.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrow a connection from the pool. The caller must close() it to give it back.
+     * @return Connection handle backed by a pooled physical connection
+     * @throws SQLException if the pool is closed, no connection frees up in time, or opening one fails
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("Timed out after " + acquireTimeoutMillis
+                    + " ms waiting for a database connection (" + getStatistics() + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeValidConnection();
+            pooled.lease();
+            leased.add(pooled);
+            acquireCount.incrementAndGet();
+            return pooled.handle;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Get a snapshot of the pool statistics
+     * @return PoolStatistics object
+     */
+    public PoolStatistics getStatistics() {
+        int active = leased.size();
+        long acquires = acquireCount.get();
+        return new PoolStatistics(
+            active,
+            idle.size(),
+            totalConnections.get(),
+            maxSize,
+            waiters.get(),
+            acquires,
+            timeoutCount.get(),
+            leakCount.get(),
+            TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+            TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+            statementCounters.getHits(),
+            statementCounters.getMisses(),
+            statementCounters.getEvictions()
+        );
+    }
+
+    /**
+     * Close all idle connections and stop accepting new requests.
+     * Connections still leased are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Take an idle connection that passes validation, or open a new one
+     */
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            if (isValid(pooled.physical)) {
+                return pooled;
+            }
+            logger.logWarning("Discarding invalid pooled database connection");
+            discard(pooled);
+        }
+        return openPhysicalConnection();
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysicalConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url);
+        try {
+            if (initializer != null) {
+                initializer.initialize(physical);
+            }
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Give a leased connection back to the pool
+     */
+    private void release(PooledConnection pooled) {
+        if (!leased.remove(pooled)) {
+            return;
+        }
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            pooled.statements.releaseAll();
+            if (!pooled.physical.getAutoCommit()) {
+                // Never hand an open transaction to the next borrower
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            logger.logWarning("Discarding pooled connection that failed to reset: " + e.getMessage());
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.statements.closeAll();
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.logError("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Report connections that have been leased for longer than the leak threshold
+     */
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : leased) {
+            if (!pooled.leakReported && now - pooled.leasedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                logger.logWarning("Possible connection leak: connection held for "
+                        + (now - pooled.leasedAt) + " ms, acquired at " + describeCaller(pooled.leasedBy));
+            }
+        }
+    }
+
+    private String describeCaller(Throwable leasedBy) {
+        if (leasedBy == null) {
+            return "unknown (lease tracing is off)";
+        }
+        for (StackTraceElement frame : leasedBy.getStackTrace()) {
+            String className = frame.getClassName();
+            if (!className.equals(ConnectionPool.class.getName())
+                    && !className.startsWith(ConnectionPool.class.getName() + "$")
+                    && !className.startsWith("com.library.singleton.")) {
+                return frame.toString();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * A physical connection plus its current lease
+     */
+    private class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private Connection handle;
+        private volatile long leasedAt;
+        private volatile Throwable leasedBy;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize, statementCounters);
+        }
+
+        void lease() {
+            leasedAt = System.currentTimeMillis();
+            leasedBy = traceLeases ? new Throwable("Connection lease") : null;
+            leakReported = false;
+            handle = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LeaseHandler(this)
+            );
+        }
+    }
+
+    /**
+     * Routes calls on a leased handle to the physical connection until the handle is closed
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (returned ? ", returned]" : "]");
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (name.equals("prepareStatement") && args.length == 1) {
+                return pooled.statements.prepare((String) args[0], (Connection) proxy);
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.library.util;
+
+import com.library.singleton.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GroupCommitWriter class for batching many small writes into one transaction.
+ *
+ * Purpose: Callers submit write operations to a queue that one writer thread
+ * drains. The writer runs up to maxBatchSize queued operations in a single
+ * transaction, waiting at most maxDelayMillis for more to arrive, so the cost
+ * of a commit (and its fsync) is shared by the whole batch. Each operation
+ * runs inside its own savepoint: if it throws, only its own changes are
+ * rolled back and the rest of the batch still commits.
+ *
+ * The future returned by submit() completes after the batch has committed,
+ * or exceptionally if the operation or the commit failed. How durable a
+ * commit is depends on PRAGMA synchronous (FULL syncs every commit).
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Queue, writer thread and batching are private
+ * - Abstraction: Operations are any code that writes through a Connection
+ *
+ * Design Pattern: None (owned by DatabaseConnectionManager)
+ */
+public class GroupCommitWriter {
+
+    /**
+     * A write to run inside the writer's transaction. It must not commit,
+     * roll back or change auto-commit; throwing rolls back its own changes.
+     * @param <T> Result type
+     */
+    public interface Operation<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A queued operation and the future of its caller
+     */
+    private static class Pending<T> {
+        final Operation<T> operation;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Exception error;
+
+        Pending(Operation<T> operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Run the operation in a savepoint
+         * @throws SQLException if the savepoint itself fails; the transaction is then unusable
+         */
+        void execute(Connection connection) throws SQLException {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                result = operation.execute(connection);
+            } catch (SQLException | RuntimeException e) {
+                error = e;
+                connection.rollback(savepoint);
+                return;
+            }
+            connection.releaseSavepoint(savepoint);
+        }
+
+        void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final Logger logger = Logger.getInstance();
+    private final Thread writerThread;
+    // Guarded by this, so nothing is queued after the writer has drained the queue for the last time
+    private boolean closed;
+    private volatile boolean stopping;
+    // Written by the writer thread only
+    private volatile long operationCount;
+    private volatile long batchCount;
+    private volatile int largestBatch;
+
+    /**
+     * Constructor for GroupCommitWriter; starts the writer thread
+     * @param pool Pool to take the writer connection from, once per batch
+     * @param maxBatchSize Most operations committed together
+     * @param maxDelayMillis Longest time the first operation of a batch waits for more to arrive
+     */
+    public GroupCommitWriter(ConnectionPool pool, int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize < 1 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Batch size must be positive and delay not negative");
+        }
+        this.pool = pool;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writerThread = new Thread(this::run, "group-commit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a write operation
+     * @param operation Write to run in the next batch
+     * @return Future that completes once the batch containing the operation has committed
+     */
+    public <T> CompletableFuture<T> submit(Operation<T> operation) {
+        Pending<T> pending = new Pending<>(operation);
+        synchronized (this) {
+            if (closed) {
+                pending.future.completeExceptionally(new SQLException("Group commit writer is closed"));
+                return pending.future;
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Stop accepting operations, commit the ones already queued and stop the writer thread
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        stopping = true;
+        try {
+            writerThread.join(30000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.logInfo("Group commit writer closed: " + getStatistics());
+    }
+
+    /**
+     * @return Operations, batches and batch sizes so far
+     */
+    public String getStatistics() {
+        long batches = batchCount;
+        return String.format("operations=%d, batches=%d, avgBatch=%.1f, maxBatch=%d", operationCount, batches,
+                batches == 0 ? 0.0 : (double) operationCount / batches, largestBatch);
+    }
+
+    private void run() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                Pending<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopping && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize && !stopping) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // close() stops the writer through the stopping flag; commit what was taken
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Run a batch in one transaction and complete its futures
+     */
+    private void commit(List<Pending<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (Pending<?> pending : batch) {
+                    pending.execute(connection);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                rollbackQuietly(connection);
+                failAll(batch, e);
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.logError("Error restoring auto-commit: " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            failAll(batch, e);
+        }
+        operationCount += batch.size();
+        batchCount++;
+        largestBatch = Math.max(largestBatch, batch.size());
+        for (Pending<?> pending : batch) {
+            pending.complete();
+        }
+    }
+
+    /**
+     * The transaction did not commit, so no operation of the batch took effect
+     */
+    private void failAll(List<Pending<?>> batch, SQLException e) {
+        logger.logError("Group commit of " + batch.size() + " operations failed: " + e.getMessage());
+        for (Pending<?> pending : batch) {
+            pending.error = e;
+        }
+    }
+
+    private void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.logError("Error rolling back group commit: " + e.getMessage());
+        }
+    }
+}
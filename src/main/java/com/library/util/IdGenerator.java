@@ -0,0 +1,23 @@
+package com.library.util;
+
+/**
+ * IdGenerator interface for generating primary keys.
+ *
+ * Purpose: Lets LibraryService obtain record IDs without knowing the scheme,
+ * so the scheme can be swapped (e.g. per deployment or in tools).
+ *
+ * OOP Concepts Used:
+ * - Abstraction: Callers depend on the interface only
+ * - Polymorphism: Any implementation can be passed to LibraryService
+ *
+ * Design Pattern: Strategy Pattern
+ */
+public interface IdGenerator {
+
+    /**
+     * Generate a new ID. Must be safe to call from many threads and never
+     * return the same value twice.
+     * @return New unique ID
+     */
+    String nextId();
+}
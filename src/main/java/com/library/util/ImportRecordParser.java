@@ -0,0 +1,218 @@
+package com.library.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ImportRecordParser class for turning one line of an import file into fields.
+ *
+ * Purpose: Parses single CSV lines (RFC 4180 quoting, no embedded line breaks)
+ * and single JSON Lines objects with flat string/number/boolean/null values.
+ * Each line is parsed on its own so files can be streamed and split across threads.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Parsing details are hidden behind static methods
+ *
+ * Design Pattern: None
+ */
+public class ImportRecordParser {
+
+    private ImportRecordParser() {
+    }
+
+    /**
+     * Split a CSV line into its values
+     * @param line One CSV line
+     * @return List of unquoted values
+     * @throws IllegalArgumentException if a quoted value is not terminated
+     */
+    public static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+            i++;
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    /**
+     * Map a CSV line onto the header columns
+     * @param header Column names from the first line of the file
+     * @param line Data line
+     * @return Field name to value map
+     * @throws IllegalArgumentException if the number of values does not match the header
+     */
+    public static Map<String, String> parseCsvRecord(List<String> header, String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " values but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    /**
+     * Parse one flat JSON object, e.g. {"isbn": "978...", "year": 2020}
+     * @param line One JSON Lines record
+     * @return Field name to value map; numbers and booleans are returned as text, null as null
+     * @throws IllegalArgumentException if the line is not a flat JSON object
+     */
+    public static Map<String, String> parseJsonRecord(String line) {
+        JsonCursor cursor = new JsonCursor(line);
+        Map<String, String> fields = new HashMap<>();
+        cursor.expect('{');
+        if (cursor.peek() == '}') {
+            cursor.next();
+            cursor.expectEnd();
+            return fields;
+        }
+        while (true) {
+            String name = cursor.readString();
+            cursor.expect(':');
+            fields.put(name, cursor.readValue());
+            char c = cursor.next();
+            if (c == '}') {
+                break;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("Expected ',' or '}' at position " + (cursor.pos - 1));
+            }
+        }
+        cursor.expectEnd();
+        return fields;
+    }
+
+    /**
+     * Minimal reader over a JSON text that skips whitespace between tokens
+     */
+    private static class JsonCursor {
+        private final String text;
+        private int pos;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return text.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char expected) {
+            char c = next();
+            if (c != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at position " + (pos - 1));
+            }
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw new IllegalArgumentException("Unexpected content after JSON object");
+            }
+        }
+
+        String readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested objects and arrays are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                return literal;
+            }
+            throw new IllegalArgumentException("Invalid JSON value: " + literal);
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    case 'r': value.append('\r'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("Invalid unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: value.append(escaped); break;
+                }
+            }
+            throw new IllegalArgumentException("Unterminated JSON string");
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.util;
+
+/**
+ * ImportSummary class demonstrating Encapsulation.
+ *
+ * Purpose: Immutable snapshot of a CatalogImporter run, used both for
+ * progress updates and for the final result.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Private final fields with public getters
+ *
+ * Design Pattern: None
+ */
+public class ImportSummary {
+    private final long linesProcessed;
+    private final long imported;
+    private final long rejected;
+    private final long checkpoint;
+    private final long elapsedMillis;
+    private final boolean complete;
+
+    public ImportSummary(long linesProcessed, long imported, long rejected, long checkpoint,
+                         long elapsedMillis, boolean complete) {
+        this.linesProcessed = linesProcessed;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.checkpoint = checkpoint;
+        this.elapsedMillis = elapsedMillis;
+        this.complete = complete;
+    }
+
+    /** @return Data lines committed in this run (excluding lines skipped by a resume) */
+    public long getLinesProcessed() {
+        return linesProcessed;
+    }
+
+    /** @return Records inserted into the database */
+    public long getImported() {
+        return imported;
+    }
+
+    /** @return Lines written to the reject file */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** @return Last data line whose chunk has been committed */
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** @return true once the whole file has been processed */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** @return Lines processed per second */
+    public double getLinesPerSecond() {
+        return elapsedMillis == 0 ? 0 : linesProcessed * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lines=%d, imported=%d, rejected=%d, checkpoint=%d, elapsed=%dms (%.0f lines/s)%s",
+                linesProcessed, imported, rejected, checkpoint, elapsedMillis, getLinesPerSecond(),
+                complete ? ", complete" : "");
+    }
+}
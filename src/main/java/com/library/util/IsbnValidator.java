@@ -0,0 +1,85 @@
+package com.library.util;
+
+/**
+ * IsbnValidator class for checking ISBN-10 and ISBN-13 check digits.
+ *
+ * Purpose: Validates ISBNs coming from bulk imports before they reach the database.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Checksum rules are hidden behind isValid() and normalize()
+ *
+ * Design Pattern: None
+ */
+public class IsbnValidator {
+
+    private IsbnValidator() {
+    }
+
+    /**
+     * Strip hyphens and spaces and upper-case a trailing 'x'
+     * @param isbn ISBN as entered
+     * @return Compact ISBN, or null if the input is null
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder compact = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            compact.append(c == 'x' ? 'X' : c);
+        }
+        return compact.toString();
+    }
+
+    /**
+     * Check whether the ISBN has a valid length and check digit
+     * @param isbn ISBN-10 or ISBN-13, hyphens and spaces allowed
+     * @return true if the check digit matches
+     */
+    public static boolean isValid(String isbn) {
+        String compact = normalize(isbn);
+        if (compact == null) {
+            return false;
+        }
+        if (compact.length() == 10) {
+            return isValidIsbn10(compact);
+        }
+        if (compact.length() == 13) {
+            return isValidIsbn13(compact);
+        }
+        return false;
+    }
+
+    private static boolean isValidIsbn10(String isbn) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && i == 9) {
+                digit = 10;
+            } else {
+                return false;
+            }
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static boolean isValidIsbn13(String isbn) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = isbn.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            sum += (c - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -0,0 +1,201 @@
+package com.library.util;
+
+import com.library.migration.Migrations;
+import com.library.repository.SqliteBorrowRecordRepository;
+import com.library.singleton.DatabaseConnectionManager;
+import com.library.singleton.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * JournalReplayer class for rebuilding loans from the circulation journal.
+ *
+ * Purpose: Replays a CirculationJournal into the database in one
+ * transaction. Borrows missing from borrow_records are inserted, returns
+ * close the borrow record they closed originally (by record ID, so a later
+ * loan of the same book by the same user stays open), and finally
+ * books.isAvailable is set from the open records, so the two tables agree
+ * again. Replaying is idempotent: entries already reflected in the database
+ * change nothing.
+ *
+ * With rebuild, borrow_records is emptied first and rebuilt from the
+ * journal alone; use it only if the journal covers the whole loan history.
+ * A dry run does all the work and rolls it back, to report what would change.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: SQL and counting are private
+ *
+ * Design Pattern: None (uses the DatabaseConnectionManager Singleton)
+ */
+public class JournalReplayer {
+
+    private static final String INSERT_BORROW_RECORD_SQL =
+        "INSERT OR IGNORE INTO borrow_records (recordId, userId, bookIsbn, borrowDate, isReturned) " +
+        "VALUES (?, ?, ?, ?, 0)";
+    // A book is available exactly when it has no open borrow record; only rows that disagree are written
+    private static final String SYNC_AVAILABILITY_SQL =
+        "UPDATE books SET isAvailable = 1 - isAvailable WHERE isAvailable = " +
+        "EXISTS (SELECT 1 FROM borrow_records r WHERE r.bookIsbn = books.isbn AND r.isReturned = 0)";
+
+    /**
+     * What a replay changed
+     */
+    public static class Result {
+        private CirculationJournal.ScanSummary scan;
+        private int borrowsInserted;
+        private int borrowsPresent;
+        private int returnsApplied;
+        private int returnsSkipped;
+        private int availabilityFixed;
+        private boolean committed;
+
+        public CirculationJournal.ScanSummary getScan() {
+            return scan;
+        }
+
+        public int getBorrowsInserted() {
+            return borrowsInserted;
+        }
+
+        public int getBorrowsPresent() {
+            return borrowsPresent;
+        }
+
+        public int getReturnsApplied() {
+            return returnsApplied;
+        }
+
+        /**
+         * @return Returns without a matching open record, e.g. already applied
+         */
+        public int getReturnsSkipped() {
+            return returnsSkipped;
+        }
+
+        public int getAvailabilityFixed() {
+            return availabilityFixed;
+        }
+
+        /**
+         * @return false for a dry run
+         */
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        @Override
+        public String toString() {
+            return "journal: " + scan + "; borrows inserted=" + borrowsInserted + ", already present="
+                    + borrowsPresent + "; returns applied=" + returnsApplied + ", skipped=" + returnsSkipped
+                    + "; availability fixed=" + availabilityFixed + (committed ? "" : " (dry run, rolled back)");
+        }
+    }
+
+    private final DatabaseConnectionManager dbManager;
+    private final Logger logger = Logger.getInstance();
+
+    /**
+     * @param dbManager Connection manager of the database to repair
+     */
+    public JournalReplayer(DatabaseConnectionManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Replay a journal into the database
+     * @param journalDirectory Directory of the journal segments
+     * @param rebuild true to delete all borrow records before replaying
+     * @param dryRun true to roll back instead of committing
+     * @return Counts of what changed
+     * @throws IOException if the journal cannot be read
+     * @throws SQLException if the database cannot be updated; nothing was changed then
+     */
+    public Result replay(Path journalDirectory, boolean rebuild, boolean dryRun) throws IOException, SQLException {
+        Result result = new Result();
+        try (Connection conn = dbManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (rebuild) {
+                    Statement delete = conn.createStatement();
+                    delete.executeUpdate("DELETE FROM borrow_records");
+                    delete.close();
+                }
+
+                // Checked while holding the writer, so the conversion cannot complete underneath
+                boolean epochDays = dbManager.getSchemaMigrator().hasCompleted(Migrations.EPOCH_DAYS_BACKFILL);
+                PreparedStatement insert = conn.prepareStatement(INSERT_BORROW_RECORD_SQL);
+                PreparedStatement close = conn.prepareStatement(SqliteBorrowRecordRepository.CLOSE_BORROW_RECORD_SQL);
+                try {
+                    result.scan = CirculationJournal.scan(journalDirectory, entry -> {
+                        try {
+                            apply(entry, insert, close, epochDays, result);
+                        } catch (SQLException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                } catch (IllegalStateException e) {
+                    if (e.getCause() instanceof SQLException) {
+                        throw (SQLException) e.getCause();
+                    }
+                    throw e;
+                } finally {
+                    insert.close();
+                    close.close();
+                }
+
+                Statement sync = conn.createStatement();
+                result.availabilityFixed = sync.executeUpdate(SYNC_AVAILABILITY_SQL);
+                sync.close();
+
+                if (dryRun) {
+                    conn.rollback();
+                } else {
+                    conn.commit();
+                    result.committed = true;
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                rollbackQuietly(conn);
+                throw e;
+            }
+        }
+        logger.logInfo("Replayed circulation journal " + journalDirectory + ": " + result);
+        return result;
+    }
+
+    private void apply(CirculationJournal.Entry entry, PreparedStatement insert, PreparedStatement close,
+                       boolean epochDays, Result result) throws SQLException {
+        if (entry.isBorrow()) {
+            insert.setString(1, entry.getRecordId());
+            insert.setString(2, entry.getUserId());
+            insert.setString(3, entry.getBookIsbn());
+            SqliteBorrowRecordRepository.bindDay(insert, 4, entry.getDay(), epochDays);
+            if (insert.executeUpdate() > 0) {
+                result.borrowsInserted++;
+            } else {
+                result.borrowsPresent++;
+            }
+        } else {
+            SqliteBorrowRecordRepository.bindDay(close, 1, entry.getDay(), epochDays);
+            close.setInt(2, 1);
+            close.setString(3, entry.getRecordId());
+            if (close.executeUpdate() > 0) {
+                result.returnsApplied++;
+            } else {
+                result.returnsSkipped++;
+            }
+        }
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            logger.logError("Error rolling back journal replay: " + e.getMessage());
+        }
+    }
+}
@@ -1,453 +1,653 @@
 package com.library.util;
 
+import com.library.event.BookAdded;
+import com.library.event.BookDeleted;
+import com.library.event.BookUpdated;
+import com.library.event.Borrowed;
+import com.library.event.LibraryEvent;
+import com.library.event.Returned;
+import com.library.event.UserChanged;
 import com.library.model.Book;
 import com.library.model.User;
 import com.library.model.BorrowRecord;
-import com.library.factory.BookFactory;
-import com.library.factory.UserFactory;
-import com.library.singleton.DatabaseConnectionManager;
+import com.library.factory.StorageEngineFactory;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowRecordRepository;
+import com.library.repository.StorageEngine;
+import com.library.repository.UserRepository;
+import com.library.singleton.EventBus;
 import com.library.singleton.Logger;
+import com.library.singleton.TypeaheadIndex;
 
-import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
- * LibraryService class for database operations.
- * 
- * Purpose: Handles all database operations for books, users, and borrow records.
- * 
+ * LibraryService class for library operations.
+ *
+ * Purpose: Handles all operations on books, users, and borrow records for
+ * the screens and tools. Storage is delegated to the repositories of a
+ * StorageEngine: the SQLite database by default, or an in-memory store with
+ * -Dlibrary.storage=memory (see StorageEngineFactory). This class adds what
+ * does not depend on the store: logging, borrow record IDs, keeping a
+ * TypeaheadIndex up to date and publishing a change event on an EventBus
+ * after every committed write. The process-wide index and bus describe the
+ * default engine, so only instances working against it use them unless
+ * others are passed in; a service on a private engine stays private.
+ *
  * OOP Concepts Used:
  * - Encapsulation: Private methods and organized data access
- * 
+ * - Abstraction: Works against the repository interfaces
+ *
  * Design Pattern: None (uses Singleton and Factory patterns)
  */
 public class LibraryService {
-    private DatabaseConnectionManager dbManager;
+
+    /** Rows per transaction used by the batch insert methods unless a chunk size is given */
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 1000;
+
+    /** Page size used by the paged query methods unless one is given */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    /** Largest page a paged query returns */
+    public static final int MAX_PAGE_SIZE = 10000;
+
+    // Shared so every LibraryService instance in the process draws from one sequence
+    private static final IdGenerator DEFAULT_RECORD_ID_GENERATOR = SnowflakeIdGenerator.withDefaultNodeId("BR");
+
+    // Shared by every instance created without an engine, so they see the same
+    // store (and, for SQLite, the same caches)
+    private static StorageEngine defaultStorageEngine;
+
+    private StorageEngine storage;
+    private BookRepository books;
+    private UserRepository users;
+    private BorrowRecordRepository borrowRecords;
     private Logger logger;
-    
+    private EventBus eventBus;
+    private TypeaheadIndex typeahead;
+    private IdGenerator recordIdGenerator;
+
     public LibraryService() {
-        this.dbManager = DatabaseConnectionManager.getInstance();
+        this(DEFAULT_RECORD_ID_GENERATOR);
+    }
+
+    /**
+     * Service on the default engine, publishing to the process-wide EventBus
+     * and keeping the process-wide TypeaheadIndex up to date
+     * @param recordIdGenerator Generator for borrow record IDs
+     */
+    public LibraryService(IdGenerator recordIdGenerator) {
+        this(getDefaultStorageEngine(), recordIdGenerator, EventBus.getInstance(), TypeaheadIndex.getInstance());
+    }
+
+    /**
+     * Service that neither publishes events nor touches a typeahead index
+     * @param storage Engine holding the data, e.g. a private InMemoryStorageEngine for a load test
+     * @param recordIdGenerator Generator for borrow record IDs
+     */
+    public LibraryService(StorageEngine storage, IdGenerator recordIdGenerator) {
+        this(storage, recordIdGenerator, null, null);
+    }
+
+    /**
+     * @param storage Engine holding the data
+     * @param recordIdGenerator Generator for borrow record IDs
+     * @param eventBus Bus to publish committed changes on, or null for none
+     * @param typeahead Index to keep up to date with book changes, or null for none
+     */
+    public LibraryService(StorageEngine storage, IdGenerator recordIdGenerator, EventBus eventBus,
+                          TypeaheadIndex typeahead) {
+        this.storage = storage;
+        this.books = storage.books();
+        this.users = storage.users();
+        this.borrowRecords = storage.borrowRecords();
         this.logger = Logger.getInstance();
+        this.eventBus = eventBus;
+        this.typeahead = typeahead;
+        this.recordIdGenerator = recordIdGenerator;
+    }
+
+    /**
+     * Get the engine used by instances created without one. It is created on
+     * first use, of the type named by the library.storage system property.
+     * @return Process-wide storage engine
+     */
+    public static synchronized StorageEngine getDefaultStorageEngine() {
+        if (defaultStorageEngine == null) {
+            defaultStorageEngine = StorageEngineFactory.createStorageEngine();
+        }
+        return defaultStorageEngine;
+    }
+
+    /**
+     * @return Engine this service works against
+     */
+    public StorageEngine getStorageEngine() {
+        return storage;
     }
-    
+
+    /**
+     * @return true if an event bus is set and anyone listens on it, so events are worth building
+     */
+    private boolean hasSubscribers() {
+        return eventBus != null && eventBus.hasSubscribers();
+    }
+
+    private void publish(LibraryEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+
     // ========== Book Operations ==========
-    
+
     /**
-     * Add a book to the database
+     * Add a book
      * @param book Book object to add
      * @return true if successful, false otherwise
      */
     public boolean addBook(Book book) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
-                "INSERT INTO books (isbn, title, author, year, category, isAvailable) VALUES (?, ?, ?, ?, ?, ?)"
-            );
-            stmt.setString(1, book.getIsbn());
-            stmt.setString(2, book.getTitle());
-            stmt.setString(3, book.getAuthor());
-            stmt.setInt(4, book.getYear());
-            stmt.setString(5, book.getCategory());
-            stmt.setInt(6, book.isAvailable() ? 1 : 0);
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                logger.logInfo("Book added: " + book.getIsbn() + " - " + book.getTitle());
-                return true;
+        if (books.add(book)) {
+            logger.logInfo("Book added: " + book.getIsbn() + " - " + book.getTitle());
+            if (typeahead != null) {
+                typeahead.put(book);
             }
-        } catch (SQLException e) {
-            logger.logError("Error adding book: " + e.getMessage());
+            publish(new BookAdded(book));
+            return true;
         }
         return false;
     }
-    
+
     /**
-     * Get all books from database
-     * @return List of all books
+     * Add many books using JDBC batching, one transaction per chunk.
+     * @param books Books to add
+     * @return Per-row outcome; duplicates and invalid rows are reported without aborting the load
      */
-    public List<Book> getAllBooks() {
-        List<Book> books = new ArrayList<>();
-        try {
-            Connection conn = dbManager.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT * FROM books");
-            
-            while (rs.next()) {
-                Book book = BookFactory.createBook(
-                    rs.getString("category"),
-                    rs.getString("isbn"),
-                    rs.getString("title"),
-                    rs.getString("author"),
-                    rs.getInt("year")
-                );
-                book.setAvailable(rs.getInt("isAvailable") == 1);
-                books.add(book);
+    public BatchResult addBooks(Collection<? extends Book> books) {
+        return addBooks(books, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    /**
+     * Add many books using JDBC batching, one transaction per chunk.
+     * Rows whose ISBN already exists (or repeats earlier in the input) are
+     * skipped and reported as failures; the rest of the chunk is still committed.
+     * @param books Books to add
+     * @param chunkSize Number of rows per transaction
+     * @return Per-row outcome, indexed by position in the input collection
+     */
+    public BatchResult addBooks(Collection<? extends Book> books, int chunkSize) {
+        BatchResult result = this.books.addAll(books, chunkSize);
+
+        logger.logInfo("Batch book insert: " + result);
+        boolean indexed = typeahead != null && typeahead.isActive();
+        if (indexed || hasSubscribers()) {
+            List<Book> added = new ArrayList<>(result.getSuccessCount());
+            int index = 0;
+            for (Book book : books) {
+                if (result.isSuccessful(index++)) {
+                    added.add(book);
+                }
+            }
+            if (indexed) {
+                typeahead.putAll(added);
+            }
+            for (Book book : added) {
+                publish(new BookAdded(book));
             }
-            
-            rs.close();
-            stmt.close();
-        } catch (SQLException e) {
-            logger.logError("Error getting books: " + e.getMessage());
         }
-        return books;
+        return result;
     }
-    
+
+    /**
+     * Get all books
+     * @return List of all books
+     */
+    public List<Book> getAllBooks() {
+        return books.findAll();
+    }
+
+    /**
+     * Get books that are currently on the shelf
+     * @return List of available books ordered by ISBN
+     */
+    public List<Book> getAvailableBooks() {
+        return books.findAvailable();
+    }
+
+    /**
+     * Get books of one category that are currently on the shelf
+     * @param category Category as returned by Book.getCategory()
+     * @return List of available books ordered by ISBN
+     */
+    public List<Book> getAvailableBooksByCategory(String category) {
+        return books.findAvailableByCategory(category);
+    }
+
+    /**
+     * Search books by title and author. Every word of the query must match the
+     * start of a word in the title or author, so "prag prog" finds
+     * "The Pragmatic Programmer". Results are ordered by relevance.
+     * @param query Words as typed by the user; punctuation is ignored
+     * @param limit Maximum number of books to return
+     * @return Matching books, best match first; empty if the query has no words
+     */
+    public List<Book> searchBooks(String query, int limit) {
+        return searchBooks(query, limit, false);
+    }
+
+    /**
+     * Search books by title and author
+     * @param query Words as typed by the user; punctuation is ignored
+     * @param limit Maximum number of books to return
+     * @param availableOnly true to leave out books that are on loan
+     * @return Matching books, best match first; empty if the query has no words
+     */
+    public List<Book> searchBooks(String query, int limit, boolean availableOnly) {
+        return books.search(query, limit, availableOnly);
+    }
+
     /**
      * Get a book by ISBN
      * @param isbn Book ISBN
      * @return Book object or null if not found
      */
     public Book getBookByIsbn(String isbn) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement("SELECT * FROM books WHERE isbn = ?");
-            stmt.setString(1, isbn);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                Book book = BookFactory.createBook(
-                    rs.getString("category"),
-                    rs.getString("isbn"),
-                    rs.getString("title"),
-                    rs.getString("author"),
-                    rs.getInt("year")
-                );
-                book.setAvailable(rs.getInt("isAvailable") == 1);
-                rs.close();
-                stmt.close();
-                return book;
-            }
-            
-            rs.close();
-            stmt.close();
-        } catch (SQLException e) {
-            logger.logError("Error getting book: " + e.getMessage());
-        }
-        return null;
+        return books.findByIsbn(isbn);
     }
-    
+
     /**
-     * Update a book in the database
+     * Update a book
      * @param book Book object with updated information
      * @return true if successful, false otherwise
      */
     public boolean updateBook(Book book) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
-                "UPDATE books SET title = ?, author = ?, year = ?, category = ?, isAvailable = ? WHERE isbn = ?"
-            );
-            stmt.setString(1, book.getTitle());
-            stmt.setString(2, book.getAuthor());
-            stmt.setInt(3, book.getYear());
-            stmt.setString(4, book.getCategory());
-            stmt.setInt(5, book.isAvailable() ? 1 : 0);
-            stmt.setString(6, book.getIsbn());
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                logger.logInfo("Book updated: " + book.getIsbn());
-                return true;
+        if (books.update(book)) {
+            logger.logInfo("Book updated: " + book.getIsbn());
+            if (typeahead != null) {
+                typeahead.put(book);
             }
-        } catch (SQLException e) {
-            logger.logError("Error updating book: " + e.getMessage());
+            publish(new BookUpdated(book));
+            return true;
         }
         return false;
     }
-    
+
     /**
-     * Delete a book from the database
+     * Delete a book
      * @param isbn Book ISBN to delete
      * @return true if successful, false otherwise
      */
     public boolean deleteBook(String isbn) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement("DELETE FROM books WHERE isbn = ?");
-            stmt.setString(1, isbn);
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                logger.logInfo("Book deleted: " + isbn);
-                return true;
+        if (books.delete(isbn)) {
+            logger.logInfo("Book deleted: " + isbn);
+            if (typeahead != null) {
+                typeahead.remove(isbn);
             }
-        } catch (SQLException e) {
-            logger.logError("Error deleting book: " + e.getMessage());
+            publish(new BookDeleted(isbn));
+            return true;
         }
         return false;
     }
-    
+
     // ========== User Operations ==========
-    
+
     /**
-     * Add a user to the database
+     * Add a user
      * @param user User object to add
      * @return true if successful, false otherwise
      */
     public boolean addUser(User user) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
-                "INSERT INTO users (userId, username, password, email, role) VALUES (?, ?, ?, ?, ?)"
-            );
-            stmt.setString(1, user.getUserId());
-            stmt.setString(2, user.getUsername());
-            stmt.setString(3, user.getPassword());
-            stmt.setString(4, user.getEmail());
-            stmt.setString(5, user.getRole());
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                logger.logInfo("User added: " + user.getUserId() + " - " + user.getUsername());
-                return true;
-            }
-        } catch (SQLException e) {
-            logger.logError("Error adding user: " + e.getMessage());
+        if (users.add(user)) {
+            logger.logInfo("User added: " + user.getUserId() + " - " + user.getUsername());
+            publish(new UserChanged(user.getUserId(), user));
+            return true;
         }
         return false;
     }
-    
+
     /**
-     * Get all users from database
-     * @return List of all users
+     * Add many users using JDBC batching, one transaction per chunk.
+     * Rows whose user ID or username already exists are skipped and reported as failures.
+     * @param users Users to add
+     * @param chunkSize Number of rows per transaction
+     * @return Per-row outcome, indexed by position in the input collection
      */
-    public List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
-        try {
-            Connection conn = dbManager.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT * FROM users");
-            
-            while (rs.next()) {
-                User user = UserFactory.createUser(
-                    rs.getString("role"),
-                    rs.getString("userId"),
-                    rs.getString("username"),
-                    rs.getString("password"),
-                    rs.getString("email")
-                );
-                users.add(user);
+    public BatchResult addUsers(Collection<? extends User> users, int chunkSize) {
+        BatchResult result = this.users.addAll(users, chunkSize);
+        logger.logInfo("Batch user insert: " + result);
+        if (hasSubscribers()) {
+            int index = 0;
+            for (User user : users) {
+                if (result.isSuccessful(index++)) {
+                    publish(new UserChanged(user.getUserId(), user));
+                }
             }
-            
-            rs.close();
-            stmt.close();
-        } catch (SQLException e) {
-            logger.logError("Error getting users: " + e.getMessage());
         }
-        return users;
+        return result;
+    }
+
+    /**
+     * Get all users
+     * @return List of all users
+     */
+    public List<User> getAllUsers() {
+        return users.findAll();
     }
-    
+
     /**
      * Get a user by username
      * @param username Username to search for
      * @return User object or null if not found
      */
     public User getUserByUsername(String username) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users WHERE username = ?");
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                User user = UserFactory.createUser(
-                    rs.getString("role"),
-                    rs.getString("userId"),
-                    rs.getString("username"),
-                    rs.getString("password"),
-                    rs.getString("email")
-                );
-                rs.close();
-                stmt.close();
-                return user;
-            }
-            
-            rs.close();
-            stmt.close();
-        } catch (SQLException e) {
-            logger.logError("Error getting user: " + e.getMessage());
-        }
-        return null;
+        return users.findByUsername(username);
     }
-    
+
     /**
-     * Update a user in the database
+     * Update a user
      * @param user User object with updated information
      * @return true if successful, false otherwise
      */
     public boolean updateUser(User user) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
-                "UPDATE users SET username = ?, password = ?, email = ?, role = ? WHERE userId = ?"
-            );
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getPassword());
-            stmt.setString(3, user.getEmail());
-            stmt.setString(4, user.getRole());
-            stmt.setString(5, user.getUserId());
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                logger.logInfo("User updated: " + user.getUserId());
-                return true;
-            }
-        } catch (SQLException e) {
-            logger.logError("Error updating user: " + e.getMessage());
+        if (users.update(user)) {
+            logger.logInfo("User updated: " + user.getUserId());
+            publish(new UserChanged(user.getUserId(), user));
+            return true;
         }
         return false;
     }
-    
+
     /**
-     * Delete a user from the database
+     * Delete a user
      * @param userId User ID to delete
      * @return true if successful, false otherwise
      */
     public boolean deleteUser(String userId) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE userId = ?");
-            stmt.setString(1, userId);
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                logger.logInfo("User deleted: " + userId);
-                return true;
-            }
-        } catch (SQLException e) {
-            logger.logError("Error deleting user: " + e.getMessage());
+        if (users.delete(userId)) {
+            logger.logInfo("User deleted: " + userId);
+            publish(new UserChanged(userId, null));
+            return true;
         }
         return false;
     }
-    
+
     // ========== Borrow/Return Operations ==========
-    
+
     /**
-     * Borrow a book
+     * Borrow a book.
+     * Claiming the book and storing the borrow record happen atomically, so
+     * two desks can never lend the same copy (see BorrowRecordRepository.borrow).
      * @param userId User ID borrowing the book
      * @param bookIsbn ISBN of the book to borrow
      * @return true if successful, false otherwise
      */
     public boolean borrowBook(String userId, String bookIsbn) {
-        try {
-            Book book = getBookByIsbn(bookIsbn);
-            if (book == null || !book.isAvailable()) {
-                logger.logWarning("Book not available for borrowing: " + bookIsbn);
-                return false;
-            }
-            
-            Connection conn = dbManager.getConnection();
-            
-            // Create borrow record
-            String recordId = "BR" + System.currentTimeMillis();
-            PreparedStatement stmt = conn.prepareStatement(
-                "INSERT INTO borrow_records (recordId, userId, bookIsbn, borrowDate, isReturned) VALUES (?, ?, ?, ?, ?)"
-            );
-            stmt.setString(1, recordId);
-            stmt.setString(2, userId);
-            stmt.setString(3, bookIsbn);
-            stmt.setString(4, LocalDate.now().toString());
-            stmt.setInt(5, 0);
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                // Update book availability
-                book.setAvailable(false);
-                updateBook(book);
-                
-                logger.logInfo("Book borrowed: " + bookIsbn + " by user: " + userId);
-                return true;
-            }
-        } catch (SQLException e) {
-            logger.logError("Error borrowing book: " + e.getMessage());
+        BorrowRecord record = new BorrowRecord(recordIdGenerator.nextId(), userId, bookIsbn, LocalDate.now());
+        if (borrowRecords.borrow(record)) {
+            logger.logInfo("Book borrowed: " + bookIsbn + " by user: " + userId);
+            publish(new Borrowed(record));
+            return true;
         }
+        logger.logWarning("Book not available for borrowing: " + bookIsbn);
         return false;
     }
-    
+
     /**
-     * Return a book
+     * Return a book.
+     * Closing the open borrow record and making the book available again
+     * happen atomically.
      * @param userId User ID returning the book
      * @param bookIsbn ISBN of the book to return
      * @return true if successful, false otherwise
      */
     public boolean returnBook(String userId, String bookIsbn) {
-        try {
-            Connection conn = dbManager.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(
-                "UPDATE borrow_records SET returnDate = ?, isReturned = ? WHERE userId = ? AND bookIsbn = ? AND isReturned = 0"
-            );
-            stmt.setString(1, LocalDate.now().toString());
-            stmt.setInt(2, 1);
-            stmt.setString(3, userId);
-            stmt.setString(4, bookIsbn);
-            
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            if (result > 0) {
-                // Update book availability
-                Book book = getBookByIsbn(bookIsbn);
-                if (book != null) {
-                    book.setAvailable(true);
-                    updateBook(book);
-                }
-                
-                logger.logInfo("Book returned: " + bookIsbn + " by user: " + userId);
-                return true;
-            }
-        } catch (SQLException e) {
-            logger.logError("Error returning book: " + e.getMessage());
+        LocalDate today = LocalDate.now();
+        if (borrowRecords.giveBack(userId, bookIsbn, today)) {
+            logger.logInfo("Book returned: " + bookIsbn + " by user: " + userId);
+            publish(new Returned(userId, bookIsbn, today));
+            return true;
         }
+        logger.logWarning("No open borrow record to return: " + bookIsbn + " by user: " + userId);
         return false;
     }
-    
+
     /**
      * Get all borrow records
      * @return List of all borrow records
      */
     public List<BorrowRecord> getAllBorrowRecords() {
-        List<BorrowRecord> records = new ArrayList<>();
-        try {
-            Connection conn = dbManager.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT * FROM borrow_records");
-            
-            while (rs.next()) {
-                BorrowRecord record = new BorrowRecord(
-                    rs.getString("recordId"),
-                    rs.getString("userId"),
-                    rs.getString("bookIsbn"),
-                    LocalDate.parse(rs.getString("borrowDate"))
-                );
-                if (rs.getString("returnDate") != null) {
-                    record.setReturnDate(LocalDate.parse(rs.getString("returnDate")));
-                }
-                record.setReturned(rs.getInt("isReturned") == 1);
-                records.add(record);
-            }
-            
-            rs.close();
-            stmt.close();
-        } catch (SQLException e) {
-            logger.logError("Error getting borrow records: " + e.getMessage());
+        return borrowRecords.findAll();
+    }
+
+    /**
+     * Get all borrow records of one user, open loans first, newest first
+     * @param userId User ID
+     * @return List of the user's borrow records
+     */
+    public List<BorrowRecord> getBorrowRecordsByUser(String userId) {
+        return borrowRecords.findByUser(userId);
+    }
+
+    /**
+     * Get the books a user currently has on loan
+     * @param userId User ID
+     * @return List of the user's open borrow records, newest first
+     */
+    public List<BorrowRecord> getActiveBorrowRecordsByUser(String userId) {
+        return borrowRecords.findActiveByUser(userId);
+    }
+
+    /**
+     * Get the open loan of a book, i.e. who currently has it
+     * @param bookIsbn ISBN of the book
+     * @return Open borrow record, or null if the book is not on loan
+     */
+    public BorrowRecord getOpenBorrowRecordForBook(String bookIsbn) {
+        return borrowRecords.findOpenByBook(bookIsbn);
+    }
+
+    /**
+     * Get borrow records by borrow date, e.g. for period reports
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @return Records borrowed in the range, oldest first
+     */
+    public List<BorrowRecord> getBorrowRecordsBorrowedBetween(LocalDate from, LocalDate to) {
+        return borrowRecords.findBorrowedBetween(from, to);
+    }
+
+    /**
+     * Get borrow records by return date
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     * @return Records returned in the range, oldest return first
+     */
+    public List<BorrowRecord> getBorrowRecordsReturnedBetween(LocalDate from, LocalDate to) {
+        return borrowRecords.findReturnedBetween(from, to);
+    }
+
+    /**
+     * Get open loans that started before a day, e.g. overdue loans with
+     * {@code LocalDate.now().minusDays(loanPeriodDays)}
+     * @param day Loans borrowed on this day or later are excluded
+     * @return Open records, oldest first
+     */
+    public List<BorrowRecord> getOpenBorrowRecordsBorrowedBefore(LocalDate day) {
+        return borrowRecords.findOpenBorrowedBefore(day);
+    }
+
+    // ========== Paged Queries ==========
+
+    /**
+     * Get one page of books ordered by ISBN
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of books to return
+     * @return Page of books
+     */
+    public Page<Book> getBooksPage(String cursor, int pageSize) {
+        return getBooksPage("isbn", cursor, pageSize);
+    }
+
+    /**
+     * Get one page of books using keyset pagination: each page seeks past the
+     * last row of the previous one, so cost does not grow with the page number.
+     * @param sortColumn One of isbn, title, author, year
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of books to return
+     * @return Page of books
+     */
+    public Page<Book> getBooksPage(String sortColumn, String cursor, int pageSize) {
+        checkPageSize(pageSize);
+        return books.findPage(sortColumn, cursor, pageSize);
+    }
+
+    /**
+     * Get one page of users using keyset pagination
+     * @param sortColumn One of userId or username
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of users to return
+     * @return Page of users
+     */
+    public Page<User> getUsersPage(String sortColumn, String cursor, int pageSize) {
+        checkPageSize(pageSize);
+        return users.findPage(sortColumn, cursor, pageSize);
+    }
+
+    /**
+     * Get one page of borrow records using keyset pagination
+     * @param sortColumn One of recordId or borrowDate
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of records to return
+     * @return Page of borrow records
+     */
+    public Page<BorrowRecord> getBorrowRecordsPage(String sortColumn, String cursor, int pageSize) {
+        checkPageSize(pageSize);
+        return borrowRecords.findPage(sortColumn, cursor, pageSize);
+    }
+
+    /**
+     * Get one page of the books on the shelf, ordered by ISBN
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of books to return
+     * @return Page of available books
+     */
+    public Page<Book> getAvailableBooksPage(String cursor, int pageSize) {
+        checkPageSize(pageSize);
+        return books.findAvailablePage(cursor, pageSize);
+    }
+
+    // ========== Page Cursors ==========
+
+    /**
+     * Find the cursor of a position of the sorted catalog some rows away from a
+     * known one, e.g. where a table view was scrolled. Only the sort index is
+     * read, but the cost grows with the distance, so start from the cursor of
+     * the nearest page at hand.
+     * @param sortColumn One of isbn, title, author, year
+     * @param from Cursor of a page; null for the start of the catalog when rows is
+     *             positive and for its end when rows is negative
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor making getBooksPage() start at the new position, or null if
+     * that is the start of the catalog, lies past its end, or the query failed
+     */
+    public String getBooksCursor(String sortColumn, String from, int rows) {
+        return books.findCursor(sortColumn, from, rows);
+    }
+
+    /**
+     * Like getBooksCursor() for the books on the shelf, ordered by ISBN
+     * @param from Cursor of a page of getAvailableBooksPage(); null for the start or the end
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor for getAvailableBooksPage(), or null
+     */
+    public String getAvailableBooksCursor(String from, int rows) {
+        return books.findAvailableCursor(from, rows);
+    }
+
+    /**
+     * Like getBooksCursor() for the sorted user list
+     * @param sortColumn One of userId or username
+     * @param from Cursor of a page of getUsersPage(); null for the start or the end
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor for getUsersPage(), or null
+     */
+    public String getUsersCursor(String sortColumn, String from, int rows) {
+        return users.findCursor(sortColumn, from, rows);
+    }
+
+    /**
+     * Like getBooksCursor() for the sorted history
+     * @param sortColumn One of recordId or borrowDate
+     * @param from Cursor of a page of getBorrowRecordsPage(); null for the start or the end
+     * @param rows Rows to move the cursor forward, or back if negative
+     * @return Cursor for getBorrowRecordsPage(), or null
+     */
+    public String getBorrowRecordsCursor(String sortColumn, String from, int rows) {
+        return borrowRecords.findCursor(sortColumn, from, rows);
+    }
+
+    /**
+     * @return Number of books in the catalog
+     */
+    public int countBooks() {
+        return books.count();
+    }
+
+    /**
+     * @return Number of books on the shelf
+     */
+    public int countAvailableBooks() {
+        return books.countAvailable();
+    }
+
+    /**
+     * @return Number of users
+     */
+    public int countUsers() {
+        return users.count();
+    }
+
+    /**
+     * @return Number of borrow records
+     */
+    public int countBorrowRecords() {
+        return borrowRecords.count();
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
         }
-        return records;
     }
-}
 
+    // ========== Streaming Queries ==========
+
+    /**
+     * Stream every book without building a list. The stream may hold a database
+     * connection until it is closed, so use it in a try-with-resources block.
+     * @return Stream of books in ISBN order
+     */
+    public Stream<Book> streamBooks() {
+        return books.stream();
+    }
+
+    /**
+     * Stream every user without building a list. Close the stream when done.
+     * @return Stream of users in user ID order
+     */
+    public Stream<User> streamUsers() {
+        return users.stream();
+    }
+
+    /**
+     * Stream every borrow record without building a list. Rows are read and
+     * their dates converted only as the stream is consumed. Close the stream when done.
+     * @return Stream of borrow records in record ID order
+     */
+    public Stream<BorrowRecord> streamBorrowRecords() {
+        return borrowRecords.stream();
+    }
+}
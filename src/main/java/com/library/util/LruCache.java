@@ -0,0 +1,166 @@
+package com.library.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * LruCache class for bounded in-memory caching of database rows.
+ *
+ * Purpose: Keeps up to maxSize entries, evicting the least recently used one
+ * when full. Entries optionally expire ttlMillis after they were loaded, which
+ * bounds staleness for writes made by other processes (e.g. ImportTool).
+ *
+ * Read-through callers take a stamp() before reading the database and pass it
+ * to put(). If any entry was invalidated in between, the value may predate
+ * that write and is not cached, so a slow reader can never put back a row
+ * that a concurrent update has just invalidated.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: LRU order, expiry and counters are private
+ * - Generics: Works for any key and value type
+ *
+ * Design Pattern: None
+ */
+public class LruCache<K, V> {
+
+    private static class Entry<V> {
+        final V value;
+        final long loadedNanos;
+
+        Entry(V value, long loadedNanos) {
+            this.value = value;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Incremented by every invalidation; guarded by this
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * Constructor for LruCache
+     * @param name Name used in statistics
+     * @param maxSize Maximum number of entries (0 disables caching)
+     * @param ttlMillis Time an entry stays valid after loading, or 0 for no expiry
+     */
+    public LruCache(String name, int maxSize, long ttlMillis) {
+        if (maxSize < 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Cache size and TTL must not be negative");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= LruCache.this.maxSize) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value
+     * @param key Key to look up
+     * @return Cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.nanoTime())) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Take a stamp before reading the value from the database
+     * @return Stamp to pass to put()
+     */
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Cache a value read from the database, unless an invalidation happened
+     * since the stamp was taken
+     * @param key Key of the value
+     * @param value Value as read after stamp() was called
+     * @param stamp Result of stamp() taken before the read
+     * @return true if the value was cached
+     */
+    public synchronized boolean put(K key, V value, long stamp) {
+        if (maxSize == 0 || value == null || stamp != generation) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * Drop the entry for a key, e.g. after the row was written
+     * @param key Key to drop
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (entries.remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Drop every entry whose value matches, for writes that are not keyed
+     * the same way as the cache
+     * @param predicate Condition on cached values
+     */
+    public synchronized void invalidateIf(Predicate<? super V> predicate) {
+        generation++;
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next().value)) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drop all entries
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Get cache statistics
+     * @return Snapshot of size and hit/miss/eviction counters
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(name, entries.size(), maxSize, hits, misses, evictions, expirations, invalidations);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return ttlNanos > 0 && now - entry.loadedNanos >= ttlNanos;
+    }
+}
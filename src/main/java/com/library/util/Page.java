@@ -0,0 +1,48 @@
+package com.library.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page class demonstrating Encapsulation.
+ *
+ * Purpose: One page of a keyset-paginated query. The next page is requested
+ * by passing getNextCursor() back to the same query method; the cursor is
+ * opaque to callers.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Private final fields with public getters
+ *
+ * Design Pattern: None
+ *
+ * @param <T> Type of the items on the page
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Cursor for the following page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Page[%d items, hasNext=%s]", items.size(), hasNext());
+    }
+}
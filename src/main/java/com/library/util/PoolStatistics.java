@@ -0,0 +1,117 @@
+package com.library.util;
+
+/**
+ * PoolStatistics class demonstrating Encapsulation.
+ *
+ * Purpose: Immutable snapshot of ConnectionPool usage, for logging and monitoring.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: Private final fields with public getters
+ *
+ * Design Pattern: None
+ */
+public class PoolStatistics {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int maxSize;
+    private final int waiters;
+    private final long acquireCount;
+    private final long timeoutCount;
+    private final long leakCount;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStatistics(int active, int idle, int total, int maxSize, int waiters, long acquireCount,
+                          long timeoutCount, long leakCount, long totalWaitMillis, long maxWaitMillis,
+                          long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.waiters = waiters;
+        this.acquireCount = acquireCount;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+        this.totalWaitMillis = totalWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    /** @return Connections currently leased to callers */
+    public int getActive() {
+        return active;
+    }
+
+    /** @return Connections open and waiting in the pool */
+    public int getIdle() {
+        return idle;
+    }
+
+    /** @return Physical connections currently open */
+    public int getTotal() {
+        return total;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return Threads currently blocked in getConnection() */
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /** @return Average time spent waiting for a connection, in milliseconds */
+    public double getAverageWaitMillis() {
+        return acquireCount == 0 ? 0 : (double) totalWaitMillis / acquireCount;
+    }
+
+    /** @return prepareStatement() calls served from a connection's statement cache */
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    /** @return prepareStatement() calls that had to compile the SQL */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, total=%d/%d, waiters=%d, acquired=%d, timeouts=%d, leaks=%d, avgWait=%.2fms, maxWait=%dms, "
+                + "stmtCache[hits=%d, misses=%d, evictions=%d]",
+                active, idle, total, maxSize, waiters, acquireCount, timeoutCount, leakCount,
+                getAverageWaitMillis(), maxWaitMillis,
+                statementCacheHits, statementCacheMisses, statementCacheEvictions);
+    }
+}
@@ -0,0 +1,115 @@
+package com.library.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SnowflakeIdGenerator class for time-ordered, collision-free IDs.
+ *
+ * Purpose: Generates 64-bit IDs made of a millisecond timestamp (41 bits,
+ * counted from 2024-01-01, good for about 69 years), a node ID (10 bits) and
+ * a per-millisecond sequence (12 bits, 4096 IDs per millisecond). Timestamp
+ * and sequence live in one AtomicLong that is advanced with compare-and-set,
+ * so generation is lock-free. When a millisecond's sequence is used up, or
+ * the clock steps backwards, the generator keeps counting into the next
+ * millisecond instead of blocking, so IDs stay strictly increasing.
+ *
+ * IDs are rendered as a prefix plus 13 characters of Crockford base32. Fixed
+ * width keeps string order equal to numeric, i.e. creation, order, so new
+ * rows are appended to the end of the primary key index.
+ *
+ * OOP Concepts Used:
+ * - Polymorphism: Implements the IdGenerator interface
+ * - Encapsulation: Bit layout and state are private
+ *
+ * Design Pattern: Strategy Pattern
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+    /** 2024-01-01T00:00:00Z */
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final String prefix;
+    private final long nodeBits;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last ID
+    private final AtomicLong lastState = new AtomicLong();
+
+    /**
+     * @param prefix Text put in front of every ID, e.g. "BR"
+     * @param nodeId Unique ID of this process among all processes writing the same table, 0..1023
+     * @throws IllegalArgumentException if the node ID is out of range
+     */
+    public SnowflakeIdGenerator(String prefix, int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.prefix = prefix;
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Create a generator for this process. The node ID comes from the
+     * library.node.id system property, or else from a hash of the host name
+     * and process ID; set the property when several processes share a database.
+     * @param prefix Text put in front of every ID
+     * @return New generator
+     */
+    public static SnowflakeIdGenerator withDefaultNodeId(String prefix) {
+        return new SnowflakeIdGenerator(prefix, defaultNodeId());
+    }
+
+    private static int defaultNodeId() {
+        Integer configured = Integer.getInteger("library.node.id");
+        if (configured != null) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        int hash = (host + "/" + ProcessHandle.current().pid()).hashCode();
+        return (hash ^ (hash >>> 16)) & MAX_NODE_ID;
+    }
+
+    @Override
+    public String nextId() {
+        return prefix + encode(nextLong());
+    }
+
+    /**
+     * Generate the next ID as a number
+     * @return Positive, strictly increasing ID
+     */
+    public long nextLong() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        while (true) {
+            long last = lastState.get();
+            long next = (last >>> SEQUENCE_BITS) < now ? now << SEQUENCE_BITS : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Render an ID as fixed-width Crockford base32
+     * @param id Non-negative ID
+     * @return 13 characters
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,240 @@
+package com.library.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementCache class for reusing prepared statements on one connection.
+ *
+ * Purpose: Keeps the most recently used PreparedStatements of a pooled
+ * connection open, keyed by SQL text, so repeated service calls skip
+ * re-parsing the same SQL. Least recently used statements are closed
+ * once the cache is full.
+ *
+ * A cached statement is handed out to one caller at a time. Calling close()
+ * on it clears its parameters and puts it back in the cache instead of
+ * closing it. If the same SQL is requested while the cached statement is
+ * still in use, a plain uncached statement is returned.
+ *
+ * OOP Concepts Used:
+ * - Encapsulation: LRU bookkeeping is hidden behind prepare()
+ *
+ * Design Pattern: None (owned by ConnectionPool)
+ */
+public class StatementCache {
+
+    /**
+     * Hit/miss/eviction counters shared by all caches of one pool
+     */
+    public static class Counters {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getEvictions() {
+            return evictions.get();
+        }
+    }
+
+    private final Connection physical;
+    private final int capacity;
+    private final Counters counters;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    /**
+     * Constructor for StatementCache
+     * @param physical Physical connection the statements are prepared on
+     * @param capacity Maximum number of statements kept open (0 disables caching)
+     * @param counters Counters to update on hits, misses and evictions
+     */
+    public StatementCache(Connection physical, int capacity, Counters counters) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.counters = counters;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                counters.evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get a prepared statement for the SQL, reusing a cached one when possible
+     * @param sql SQL text
+     * @param owner Connection handle that getConnection() on the statement should return
+     * @return PreparedStatement object
+     * @throws SQLException if preparing the statement fails
+     */
+    public PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        if (capacity <= 0) {
+            return physical.prepareStatement(sql);
+        }
+
+        CachedStatement cached = statements.get(sql);
+        if (cached != null) {
+            if (!cached.inUse) {
+                counters.hits.incrementAndGet();
+                cached.checkOut(owner);
+                return cached.proxy;
+            }
+            // Same SQL is already open on this connection (e.g. nested query)
+            counters.misses.incrementAndGet();
+            return physical.prepareStatement(sql);
+        }
+
+        counters.misses.incrementAndGet();
+        cached = new CachedStatement(physical.prepareStatement(sql));
+        statements.put(sql, cached);
+        cached.checkOut(owner);
+        return cached.proxy;
+    }
+
+    /**
+     * Return every statement to the cache when the connection goes back to the pool.
+     * Covers callers that did not close their statements on an error path.
+     */
+    public void releaseAll() {
+        for (CachedStatement cached : new ArrayList<>(statements.values())) {
+            cached.checkIn();
+        }
+    }
+
+    /**
+     * Close all cached statements, e.g. before the physical connection is closed
+     */
+    public void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.closeQuietly();
+        }
+    }
+
+    /**
+     * @return Number of statements currently cached
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Remove a statement whose physical close failed or which was evicted while in use
+     */
+    private void forget(CachedStatement cached) {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() == cached) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A physical statement plus its checked-out state
+     */
+    private class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private Connection owner;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                this
+            );
+        }
+
+        void checkOut(Connection owner) {
+            this.owner = owner;
+            this.inUse = true;
+        }
+
+        void checkIn() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            owner = null;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                closeQuietly();
+                forget(this);
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // Statement is being discarded anyway
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    checkIn();
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.library.repository;
+
+import com.library.migration.Migrations;
+import com.library.migration.SchemaMigrator;
+import com.library.singleton.DatabaseConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN QUERY PLAN that the SqliteStorageEngine statements are
+ * answered through indexes on a database at the latest schema version, so
+ * lookups, returns and page reads stay logarithmic as the tables grow.
+ * Statements that read a whole table on purpose (getAll*, stream*) only have
+ * to prepare.
+ */
+class SqliteQueryPlanTest {
+    /**
+     * Statements allowed to sort in a temporary b-tree: they sort one user's
+     * loans (returned ones after the open ones), or the matches of a search
+     * by relevance, never a whole table
+     */
+    private static final Set<String> BOUNDED_SORTS =
+            Set.of("getBorrowRecordsByUser", "searchBooks", "searchBooks (available only)");
+
+    @TempDir
+    static Path databaseDirectory;
+
+    private static DatabaseConnectionManager db;
+
+    @BeforeAll
+    static void openDatabase() throws InterruptedException {
+        System.setProperty("library.db.url", "jdbc:sqlite:" + databaseDirectory.resolve("library.db"));
+        db = DatabaseConnectionManager.getInstance();
+        // The plans must be those of the finished schema, after the backfills have swapped it in
+        SchemaMigrator migrator = db.getSchemaMigrator();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!migrator.hasCompleted(Migrations.EPOCH_DAYS_BACKFILL) || !migrator.hasCompleted(Migrations.FTS_BACKFILL)) {
+            assertTrue(System.currentTimeMillis() < deadline, "backfills did not complete");
+            Thread.sleep(20);
+        }
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        db.closeConnection();
+    }
+
+    @Test
+    void hotStatementsUseIndexes() throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = db.getReadConnection()) {
+            for (Map.Entry<String, String> statement : indexedStatements().entrySet()) {
+                List<String> steps = explain(conn, statement.getValue());
+                if (hasFullTableScan(steps) || (hasSort(steps) && !BOUNDED_SORTS.contains(statement.getKey()))) {
+                    failures.add(statement.getKey() + ": " + String.join("; ", steps));
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), "Statements scanning a table or sorting rows:\n" + String.join("\n", failures));
+    }
+
+    @Test
+    void cursorStatementsReadOnlyTheIndex() throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = db.getReadConnection()) {
+            for (Map.Entry<String, String> statement : cursorStatements().entrySet()) {
+                List<String> steps = explain(conn, statement.getValue());
+                if (!readsOnlyIndexes(steps) || hasSort(steps)) {
+                    failures.add(statement.getKey() + ": " + String.join("; ", steps));
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), "Cursor statements reading rows or sorting:\n" + String.join("\n", failures));
+    }
+
+    @Test
+    void wholeTableReadsPrepare() throws SQLException {
+        try (Connection conn = db.getReadConnection()) {
+            for (String sql : fullReadStatements()) {
+                assertFalse(explain(conn, sql).isEmpty(), sql);
+            }
+        }
+    }
+
+    /**
+     * Statements that must be answered through an index, by name
+     */
+    private static Map<String, String> indexedStatements() {
+        Map<String, String> statements = new LinkedHashMap<>();
+        statements.put("getAvailableBooks", SqliteBookRepository.SELECT_AVAILABLE_BOOKS_SQL);
+        statements.put("getAvailableBooksByCategory", SqliteBookRepository.SELECT_AVAILABLE_BOOKS_BY_CATEGORY_SQL);
+        statements.put("getBookByIsbn", SqliteBookRepository.SELECT_BOOK_BY_ISBN_SQL);
+        statements.put("updateBook", SqliteBookRepository.UPDATE_BOOK_SQL);
+        statements.put("deleteBook", SqliteBookRepository.DELETE_BOOK_SQL);
+        statements.put("getUserByUsername", SqliteUserRepository.SELECT_USER_BY_USERNAME_SQL);
+        statements.put("updateUser", SqliteUserRepository.UPDATE_USER_SQL);
+        statements.put("deleteUser", SqliteUserRepository.DELETE_USER_SQL);
+        statements.put("borrowBook (claim)", SqliteBorrowRecordRepository.CLAIM_BOOK_SQL);
+        statements.put("returnBook (find loan)", SqliteBorrowRecordRepository.SELECT_OPEN_LOAN_SQL);
+        statements.put("returnBook (close record)", SqliteBorrowRecordRepository.CLOSE_BORROW_RECORD_SQL);
+        statements.put("returnBook (release)", SqliteBorrowRecordRepository.RELEASE_BOOK_SQL);
+        statements.put("getBorrowRecordsByUser", SqliteBorrowRecordRepository.SELECT_BORROW_RECORDS_BY_USER_SQL);
+        statements.put("getActiveBorrowRecordsByUser", SqliteBorrowRecordRepository.SELECT_ACTIVE_BORROW_RECORDS_BY_USER_SQL);
+        statements.put("getOpenBorrowRecordForBook", SqliteBorrowRecordRepository.SELECT_OPEN_BORROW_RECORD_BY_BOOK_SQL);
+        statements.put("getBorrowRecordsBorrowedBetween", SqliteBorrowRecordRepository.SELECT_BORROWED_BETWEEN_SQL);
+        statements.put("getBorrowRecordsReturnedBetween", SqliteBorrowRecordRepository.SELECT_RETURNED_BETWEEN_SQL);
+        statements.put("getOpenBorrowRecordsBorrowedBefore", SqliteBorrowRecordRepository.SELECT_OPEN_BORROWED_BEFORE_SQL);
+        statements.put("searchBooks", SqliteBookRepository.SEARCH_BOOKS_SQL);
+        statements.put("searchBooks (available only)", SqliteBookRepository.SEARCH_AVAILABLE_BOOKS_SQL);
+        addSeekStatements(statements, "getBooksPage", "books", null, "isbn", BookRepository.SORT_COLUMNS);
+        addSeekStatements(statements, "getUsersPage", "users", null, "userId", UserRepository.SORT_COLUMNS);
+        addSeekStatements(statements, "getBorrowRecordsPage", "borrow_records", null, "recordId",
+                BorrowRecordRepository.SORT_COLUMNS);
+        addSeekStatements(statements, "getAvailableBooksPage", "books", SqliteBookRepository.AVAILABLE_FILTER, "isbn",
+                List.of("isbn"));
+        statements.put("countBooks", SqliteBookRepository.COUNT_BOOKS_SQL);
+        statements.put("countAvailableBooks", SqliteBookRepository.COUNT_AVAILABLE_BOOKS_SQL);
+        statements.put("countUsers", SqliteUserRepository.COUNT_USERS_SQL);
+        statements.put("countBorrowRecords", SqliteBorrowRecordRepository.COUNT_BORROW_RECORDS_SQL);
+        return statements;
+    }
+
+    private static void addSeekStatements(Map<String, String> statements, String method, String table,
+                                          String filter, String keyColumn, List<String> sortColumns) {
+        for (String sortColumn : sortColumns) {
+            statements.put(method + "(" + sortColumn + ", first page)",
+                    SqliteStorageEngine.seekSql(table, filter, keyColumn, sortColumn, false));
+            statements.put(method + "(" + sortColumn + ", next page)",
+                    SqliteStorageEngine.seekSql(table, filter, keyColumn, sortColumn, true));
+        }
+    }
+
+    /**
+     * Cursor queries skip rows with OFFSET; they must read nothing but the sort
+     * index, so the rows skipped cost no table lookups
+     */
+    private static Map<String, String> cursorStatements() {
+        Map<String, String> statements = new LinkedHashMap<>();
+        addCursorStatements(statements, "getBooksCursor", "books", null, "isbn", BookRepository.SORT_COLUMNS);
+        addCursorStatements(statements, "getUsersCursor", "users", null, "userId", UserRepository.SORT_COLUMNS);
+        addCursorStatements(statements, "getBorrowRecordsCursor", "borrow_records", null, "recordId",
+                BorrowRecordRepository.SORT_COLUMNS);
+        addCursorStatements(statements, "getAvailableBooksCursor", "books", SqliteBookRepository.AVAILABLE_FILTER,
+                "isbn", List.of("isbn"));
+        return statements;
+    }
+
+    private static void addCursorStatements(Map<String, String> statements, String method, String table,
+                                            String filter, String keyColumn, List<String> sortColumns) {
+        for (String sortColumn : sortColumns) {
+            for (boolean fromCursor : new boolean[] { false, true }) {
+                for (boolean backward : new boolean[] { false, true }) {
+                    statements.put(method + "(" + sortColumn + (fromCursor ? ", from cursor" : ", from the ends")
+                                    + (backward ? ", back" : ", forward") + ")",
+                            SqliteStorageEngine.cursorSql(table, filter, keyColumn, sortColumn, fromCursor, backward));
+                }
+            }
+        }
+    }
+
+    /**
+     * Statements that read a whole table by design
+     */
+    private static List<String> fullReadStatements() {
+        return List.of(
+                "SELECT * FROM books",
+                "SELECT * FROM users",
+                "SELECT * FROM borrow_records",
+                "SELECT * FROM books ORDER BY isbn",
+                "SELECT * FROM users ORDER BY userId",
+                "SELECT * FROM borrow_records ORDER BY recordId");
+    }
+
+    /**
+     * Run EXPLAIN QUERY PLAN for one statement; parameters are bound to NULL
+     * @return Plan detail lines, e.g. "SEARCH books USING INDEX idx_books_title (title>?)"
+     */
+    private static List<String> explain(Connection conn, String sql) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int parameters = stmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                stmt.setObject(i, null);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(rs.getString("detail"));
+                }
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * @return true if some step visits every row of a table without an index.
+     * Virtual tables such as the full-text index report "SCAN ... VIRTUAL TABLE INDEX"
+     * but apply the constraint themselves, and scans of a subquery result that the
+     * plan materialized earlier read no table, so neither counts.
+     */
+    private static boolean hasFullTableScan(List<String> steps) {
+        Set<String> subqueries = new HashSet<>();
+        for (String step : steps) {
+            if (step.startsWith("MATERIALIZE ") || step.startsWith("CO-ROUTINE ")) {
+                subqueries.add(step.substring(step.indexOf(' ') + 1).trim());
+            } else if (step.startsWith("SCAN ") && !step.contains(" USING ") && !step.contains(" VIRTUAL TABLE INDEX ")
+                    && !subqueries.contains(step.substring("SCAN ".length()).trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if every table access is answered from a covering index
+     */
+    private static boolean readsOnlyIndexes(List<String> steps) {
+        for (String step : steps) {
+            if ((step.startsWith("SCAN ") || step.startsWith("SEARCH ")) && !step.contains(" COVERING INDEX ")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the rows are sorted in a temporary b-tree instead of being read in index order
+     */
+    private static boolean hasSort(List<String> steps) {
+        for (String step : steps) {
+            if (step.startsWith("USE TEMP B-TREE")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
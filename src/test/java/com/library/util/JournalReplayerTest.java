@@ -0,0 +1,189 @@
+package com.library.util;
+
+import com.library.migration.Migrations;
+import com.library.model.BorrowRecord;
+import com.library.singleton.DatabaseConnectionManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for JournalReplayer against a fresh SQLite database.
+ */
+class JournalReplayerTest {
+    private static final String USER = "u1";
+    private static final String ISBN = "9780134685991";
+    private static final LocalDate FIRST_BORROWED = LocalDate.of(2024, 3, 1);
+    private static final LocalDate FIRST_RETURNED = LocalDate.of(2024, 3, 10);
+    private static final LocalDate SECOND_BORROWED = LocalDate.of(2024, 4, 2);
+
+    @TempDir
+    static Path databaseDirectory;
+
+    private static DatabaseConnectionManager db;
+
+    @TempDir
+    Path journalDirectory;
+
+    @BeforeAll
+    static void openDatabase() throws InterruptedException {
+        System.setProperty("library.db.url", "jdbc:sqlite:" + databaseDirectory.resolve("library.db"));
+        db = DatabaseConnectionManager.getInstance();
+        // On a fresh database the date conversion has no rows to copy and completes at once
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!db.getSchemaMigrator().hasCompleted(Migrations.EPOCH_DAYS_BACKFILL)) {
+            assertTrue(System.currentTimeMillis() < deadline, "date conversion backfill did not complete");
+            Thread.sleep(20);
+        }
+    }
+
+    @BeforeEach
+    void resetTables() throws SQLException {
+        try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM borrow_records");
+            stmt.executeUpdate("DELETE FROM books");
+            stmt.executeUpdate("DELETE FROM users WHERE userId = '" + USER + "'");
+            stmt.executeUpdate("INSERT INTO users (userId, username, password, email, role) "
+                    + "VALUES ('" + USER + "', 'reader', 'secret', 'reader@library.com', 'Regular')");
+            stmt.executeUpdate("INSERT INTO books (isbn, title, author, year, category, isAvailable) "
+                    + "VALUES ('" + ISBN + "', 'Effective Java', 'Joshua Bloch', 2018, 'Software Engineering', 1)");
+        }
+    }
+
+    @Test
+    void returnOfAnEarlierLoanLeavesTheLaterLoanOpen() throws Exception {
+        writeJournal();
+        // The database already has both loans: R1 returned, R2 (same user, same book) open
+        insertLoan("R1", FIRST_BORROWED, FIRST_RETURNED);
+        insertLoan("R2", SECOND_BORROWED, null);
+        setAvailable(false);
+
+        JournalReplayer.Result result = new JournalReplayer(db).replay(journalDirectory, false, false);
+
+        assertEquals(2, result.getBorrowsPresent());
+        assertEquals(0, result.getReturnsApplied());
+        assertEquals(1, result.getReturnsSkipped());
+        assertEquals(0, result.getAvailabilityFixed());
+        assertEquals(FIRST_RETURNED, returnDate("R1"));
+        assertNull(returnDate("R2"));
+        assertFalse(isReturned("R2"));
+        assertFalse(isAvailable());
+    }
+
+    @Test
+    void rebuildClosesOnlyTheLoanThatWasReturned() throws Exception {
+        writeJournal();
+        insertLoan("R2", SECOND_BORROWED, null);
+        setAvailable(true);
+
+        JournalReplayer.Result result = new JournalReplayer(db).replay(journalDirectory, true, false);
+
+        assertEquals(2, result.getBorrowsInserted());
+        assertEquals(1, result.getReturnsApplied());
+        assertEquals(1, result.getAvailabilityFixed());
+        assertTrue(isReturned("R1"));
+        assertEquals(FIRST_RETURNED, returnDate("R1"));
+        assertFalse(isReturned("R2"));
+        assertFalse(isAvailable());
+    }
+
+    @Test
+    void dryRunChangesNothing() throws Exception {
+        writeJournal();
+
+        JournalReplayer.Result result = new JournalReplayer(db).replay(journalDirectory, false, true);
+
+        assertEquals(2, result.getBorrowsInserted());
+        assertFalse(result.isCommitted());
+        assertNull(returnDate("R1"));
+        assertTrue(isAvailable());
+    }
+
+    /**
+     * Journal R1 borrowed and returned, then R2 borrowed by the same user
+     */
+    private void writeJournal() throws Exception {
+        CirculationJournal journal = CirculationJournal.open(journalDirectory, 16, 0);
+        try {
+            assertTrue(journal.appendBorrow(new BorrowRecord("R1", USER, ISBN, FIRST_BORROWED)));
+            assertTrue(journal.appendReturn("R1", USER, ISBN, FIRST_RETURNED));
+            assertTrue(journal.appendBorrow(new BorrowRecord("R2", USER, ISBN, SECOND_BORROWED)));
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void insertLoan(String recordId, LocalDate borrowed, LocalDate returned) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO borrow_records "
+                     + "(recordId, userId, bookIsbn, borrowDate, returnDate, isReturned) VALUES (?, ?, ?, ?, ?, ?)")) {
+            stmt.setString(1, recordId);
+            stmt.setString(2, USER);
+            stmt.setString(3, ISBN);
+            stmt.setLong(4, borrowed.toEpochDay());
+            if (returned == null) {
+                stmt.setNull(5, Types.INTEGER);
+            } else {
+                stmt.setLong(5, returned.toEpochDay());
+            }
+            stmt.setInt(6, returned == null ? 0 : 1);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void setAvailable(boolean available) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE books SET isAvailable = ? WHERE isbn = ?")) {
+            stmt.setInt(1, available ? 1 : 0);
+            stmt.setString(2, ISBN);
+            stmt.executeUpdate();
+        }
+    }
+
+    private boolean isAvailable() throws SQLException {
+        return queryInt("SELECT isAvailable FROM books WHERE isbn = ?", ISBN) == 1;
+    }
+
+    private boolean isReturned(String recordId) throws SQLException {
+        return queryInt("SELECT isReturned FROM borrow_records WHERE recordId = ?", recordId) == 1;
+    }
+
+    private LocalDate returnDate(String recordId) throws SQLException {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT returnDate FROM borrow_records WHERE recordId = ?")) {
+            stmt.setString(1, recordId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                long day = rs.getLong(1);
+                return rs.wasNull() ? null : LocalDate.ofEpochDay(day);
+            }
+        }
+    }
+
+    private int queryInt(String sql, String key) throws SQLException {
+        try (Connection conn = db.getReadConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next(), "no row for " + key);
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for SnowflakeIdGenerator under concurrent use.
+ */
+class SnowflakeIdGeneratorTest {
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 100000;
+
+    @Test
+    void idsFromManyThreadsAreUniqueAndIncreasePerThread() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator("BR", 1);
+        long[][] ids = new long[THREADS][IDS_PER_THREAD];
+        AtomicReference<String> notIncreasing = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long[] mine = ids[index];
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    mine[i] = generator.nextLong();
+                    if (i > 0 && mine[i] <= mine[i - 1]) {
+                        notIncreasing.compareAndSet(null, "thread " + index + " got " + mine[i] + " after " + mine[i - 1]);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertNull(notIncreasing.get());
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(ids[t], 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+        }
+        Arrays.sort(all);
+        assertTrue(all[0] > 0, "IDs must be positive");
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "duplicate ID");
+        }
+    }
+
+    @Test
+    void encodedIdsSortLikeTheNumbers() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator("BR", 1023);
+        long previous = generator.nextLong();
+        for (int i = 0; i < 100000; i++) {
+            long next = generator.nextLong();
+            String earlier = SnowflakeIdGenerator.encode(previous);
+            String later = SnowflakeIdGenerator.encode(next);
+            assertEquals(13, later.length());
+            assertTrue(earlier.compareTo(later) < 0, earlier + " does not sort before " + later);
+            previous = next;
+        }
+        assertTrue(generator.nextId().startsWith("BR"));
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator("BR", -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator("BR", SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}